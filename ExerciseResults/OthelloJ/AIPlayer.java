@@ -1,33 +1,78 @@
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
- * AI player for Othello with a beginner-friendly difficulty level.
- * Uses a simple greedy strategy with corner preference.
+ * AI player for Othello.
+ * The beginner level uses a simple greedy strategy with corner preference;
+ * stronger levels play from the {@link OpeningBook} when the position is in it
+ * and otherwise use the alpha-beta {@link SearchEngine}, on as many threads as
+ * {@link ParallelSearch#DEFAULT_THREADS} allows. The book and the search are for boards
+ * up to 8x8, so only the beginner level plays on a 10x10 board.
+ * <p>
+ * The search levels can ponder: while the opponent thinks, the AI predicts their reply
+ * and searches the position it leads to. If the opponent plays the predicted move the
+ * AI carries on from that work, kept in its transposition table, rather than starting fresh.
  */
 public class AIPlayer {
     
     private final Stone color;
+    private final Difficulty difficulty;
     private final Random random;
+    private final MoveIterator moves = new MoveIterator();
+    private final ParallelSearch engine;
+    private final OpeningBook book;
+    private SearchLimits searchLimits;
+    private Consumer<SearchResult> progressListener;
     
-    // Corner positions are the most valuable
-    private static final int[][] CORNERS = {{0, 0}, {0, 7}, {7, 0}, {7, 7}};
+    // Budget for predicting the opponent's reply before pondering on it
+    private static final SearchLimits PREDICTION_LIMITS = SearchLimits.depth(6).withTime(200);
+    
+    // Pondering runs on a thread of its own, created when first needed
+    private ExecutorService ponderer;
+    private Future<?> ponderTask;
+    private volatile boolean pondering;
+    private volatile int ponderedReply = -1;
+    private volatile long ponderedHash;
+    private volatile SearchResult ponderedResult;
+    private int ponderHits;
+    private int ponderMisses;
     
-    // Positions adjacent to corners are dangerous (can give opponent corner access)
-    private static final int[][] DANGER_ZONES = {
-        {0, 1}, {1, 0}, {1, 1},           // Near top-left corner
-        {0, 6}, {1, 6}, {1, 7},           // Near top-right corner
-        {6, 0}, {6, 1}, {7, 1},           // Near bottom-left corner
-        {6, 6}, {6, 7}, {7, 6}            // Near bottom-right corner
-    };
 
     /**
-     * Creates a new AI player.
+     * Creates a new beginner-level AI player.
      * @param color the stone color this AI plays
      */
     public AIPlayer(Stone color) {
+        this(color, Difficulty.BEGINNER);
+    }
+
+    /**
+     * Creates a new AI player.
+     * @param color the stone color this AI plays
+     * @param difficulty the strength level
+     */
+    public AIPlayer(Stone color, Difficulty difficulty) {
+        this(color, difficulty, new Random());
+    }
+
+    /**
+     * Creates a new AI player with its own source of randomness, e.g. seeded for repeatable games.
+     * @param color the stone color this AI plays
+     * @param difficulty the strength level
+     * @param random the source of randomness for move choices
+     */
+    public AIPlayer(Stone color, Difficulty difficulty, Random random) {
         this.color = color;
-        this.random = new Random();
+        this.difficulty = difficulty;
+        this.random = random;
+        this.engine = difficulty.usesSearch() ? new ParallelSearch() : null;
+        this.book = difficulty.usesSearch() ? OpeningBook.getDefault() : null;
+        this.searchLimits = difficulty.getSearchLimits();
     }
 
     /**
@@ -39,80 +84,360 @@ public class AIPlayer {
     }
 
     /**
-     * Chooses the best move for the AI using a simple greedy strategy.
+     * Gets the strength level of this AI.
+     * @return the difficulty
+     */
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * Gets the budget for each move's search.
+     * @return the search limits, or null at the greedy level
+     */
+    public SearchLimits getSearchLimits() {
+        return searchLimits;
+    }
+
+    /**
+     * Replaces the level's budget for each move's search, e.g. with a depth or time
+     * set by an engine protocol.
+     * @param limits the search limits
+     * @throws IllegalStateException at the greedy level, which does not search
+     */
+    public void setSearchLimits(SearchLimits limits) {
+        if (engine == null) {
+            throw new IllegalStateException(difficulty + " level does not search");
+        }
+        searchLimits = limits;
+    }
+
+    /**
+     * Sets a listener told of each completed iteration of the searches for this AI's
+     * own moves (not of pondering), on the thread choosing the move.
+     * @param listener the listener, or null for none
+     */
+    public void setProgressListener(Consumer<SearchResult> listener) {
+        progressListener = listener;
+    }
+
+    /**
+     * Chooses the best move for the AI at its difficulty level.
      * @param board the current board state
      * @return the chosen move as [row, col], or null if no valid moves
+     * @throws IllegalArgumentException if the level does not play on boards of that size
      */
     public int[] chooseMove(Board board) {
-        List<int[]> validMoves = board.getValidMoves(color);
-        
-        if (validMoves.isEmpty()) {
+        checkBoardSize(board);
+        long start = System.nanoTime();
+        EngineEvents.ChooseMove event = new EngineEvents.ChooseMove();
+        event.begin();
+        int[] move = selectMove(board, event);
+        if (move != null) {
+            SearchMetrics.getGlobal().recordMove(System.nanoTime() - start);
+            if (event.shouldCommit()) {
+                event.player = color.name();
+                event.difficulty = difficulty.name();
+                event.move = Bitboards.squareName(move[0], move[1]);
+                event.empties = board.countStones(Stone.EMPTY);
+                event.commit();
+            }
+        }
+        return move;
+    }
+
+    /**
+     * Chooses a move: the only legal move, from the book or by search at the search levels,
+     * greedily otherwise.
+     * @param event receives where the move came from and the search statistics
+     */
+    private int[] selectMove(Board board, EngineEvents.ChooseMove event) {
+        if (!board.hasValidMoves(color)) {
             return null;
         }
         
-        // Strategy 1: Always take a corner if available
-        for (int[] move : validMoves) {
-            if (isCorner(move[0], move[1])) {
-                return move;
+        if (engine != null && board.getCurrentPlayer() == color) {
+            stopPondering();
+            SearchResult pondered = ponderedResult;
+            boolean predicted = ponderedReply >= 0;
+            ponderedReply = -1;
+            if (predicted && board.getHash() == ponderedHash) {
+                ponderHits++;
+                event.ponderHit = true;
+                // The ponder search already went as deep as this level would
+                if (pondered != null && pondered.getMove() >= 0
+                        && pondered.getDepth() >= searchLimits.getDepth()) {
+                    recordSearch(event, "ponder", pondered);
+                    return pondered.getMovePosition();
+                }
+            } else if (predicted) {
+                ponderMisses++;
             }
+            
+            // Nothing to choose between; the move is played without a search or a score
+            long moves = board.getValidMoveMask(color);
+            if (Long.bitCount(moves) == 1) {
+                event.source = "forced";
+                int square = Long.numberOfTrailingZeros(moves);
+                return new int[]{Bitboards.row(square), Bitboards.col(square)};
+            }
+            
+            int bookMove = book != null ? book.chooseMove(board, random) : -1;
+            if (bookMove >= 0) {
+                event.source = "book";
+                return new int[]{Bitboards.row(bookMove), Bitboards.col(bookMove)};
+            }
+            SearchResult result;
+            engine.setProgressListener(progressListener);
+            try {
+                result = engine.search(board, searchLimits);
+            } finally {
+                engine.setProgressListener(null);
+            }
+            recordSearch(event, "search", result);
+            return result.getMovePosition();
+        }
+        event.source = "greedy";
+        return chooseGreedyMove(board);
+    }
+
+    /**
+     * Rejects a board the level cannot play on: the search levels play boards up to 8x8.
+     */
+    private void checkBoardSize(Board board) {
+        if (!difficulty.supportsBoardSize(board.getSize())) {
+            throw new IllegalArgumentException(difficulty + " level searches, which needs a board of at most "
+                + Board.SIZE + "x" + Board.SIZE + "; play " + board.getSize() + "x" + board.getSize()
+                + " boards at the BEGINNER level");
+        }
+    }
+
+    /**
+     * Copies the search statistics of the chosen move to its flight recorder event.
+     */
+    private static void recordSearch(EngineEvents.ChooseMove event, String source, SearchResult result) {
+        event.source = source;
+        event.depth = result.getDepth();
+        event.nodes = result.getNodes();
+        event.score = result.getScore();
+    }
+
+    /**
+     * Starts pondering in the background while the opponent is to move: the AI predicts
+     * the opponent's reply with a short search, then searches the position after it until
+     * {@link #chooseMove(Board)} or {@link #stopPondering()} is called.
+     * Does nothing at the beginner level or when the opponent is not to move.
+     * Start, stop and choose moves from one thread at a time; pondering runs on its own.
+     * @param board the position with the opponent to move; it is copied
+     * @throws IllegalArgumentException if the level does not play on boards of that size
+     */
+    public void startPondering(Board board) {
+        checkBoardSize(board);
+        stopPondering();
+        if (engine == null || board.getCurrentPlayer() == color || board.isGameOver()) {
+            return;
+        }
+        if (ponderer == null) {
+            ponderer = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "othello-ponder");
+                thread.setDaemon(true);
+                return thread;
+            });
         }
         
-        // Strategy 2: Avoid danger zones unless they're the only option
-        List<int[]> safeMoves = validMoves.stream()
-            .filter(move -> !isDangerZone(move[0], move[1]))
-            .toList();
+        Board position = new Board(board);
+        ponderedReply = -1;
+        ponderedResult = null;
+        pondering = true;
+        // Cleared here, not by the searches, so a stop also holds for searches not yet started
+        engine.clearStop();
+        ponderTask = ponderer.submit(() -> {
+            // The prediction also fills the table for the opponent's other replies
+            int reply = engine.searchSubmitted(position, PREDICTION_LIMITS).getMove();
+            if (!pondering || reply < 0) {
+                return;
+            }
+            position.makeMove(reply);
+            if (position.getCurrentPlayer() != color || position.isGameOver()) {
+                return;
+            }
+            ponderedHash = position.getHash();
+            ponderedReply = reply;
+            ponderedResult = engine.searchSubmitted(position, SearchLimits.depth(SearchLimits.MAX_DEPTH));
+        });
+    }
+
+    /**
+     * Stops pondering, if the AI is, and waits for the ponder search to finish.
+     * The work done stays in the transposition table.
+     */
+    public void stopPondering() {
+        if (ponderTask == null) {
+            return;
+        }
+        pondering = false;
+        engine.stop();
+        try {
+            ponderTask.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while stopping pondering", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Pondering failed", e.getCause());
+        } finally {
+            ponderTask = null;
+        }
+    }
+
+    /**
+     * Gets the opponent reply the AI is pondering on.
+     * @return the predicted square, or -1 if there is none (yet)
+     */
+    public int getPonderedReply() {
+        return ponderedReply;
+    }
+
+    /**
+     * Gets how many moves were chosen after the opponent played the predicted reply.
+     * @return the number of ponder hits
+     */
+    public int getPonderHits() {
+        return ponderHits;
+    }
+
+    /**
+     * Gets how many moves were chosen after the opponent played another reply.
+     * @return the number of ponder misses
+     */
+    public int getPonderMisses() {
+        return ponderMisses;
+    }
+
+    /**
+     * Asks a move choice running on another thread to return as soon as possible;
+     * the search levels then return the best move found so far.
+     */
+    public void stop() {
+        if (engine != null) {
+            engine.stop();
+        }
+    }
+
+    /**
+     * Forgets cached search results, e.g. to time searches from a cold start.
+     */
+    public void clearSearchCache() {
+        if (engine != null) {
+            engine.getTranspositionTable().clear();
+        }
+    }
+
+    /**
+     * Releases the search and pondering threads, if any. The player cannot be used afterwards.
+     */
+    public void shutdown() {
+        if (ponderer != null) {
+            stopPondering();
+            ponderer.shutdownNow();
+        }
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    /**
+     * Chooses a move using a simple greedy strategy.
+     */
+    private int[] chooseGreedyMove(Board board) {        
+        if (board.getSize() > Board.SIZE) {
+            return chooseWideGreedyMove(board);
+        }
+        // Corners are the most valuable; squares next to them can give the opponent a corner
+        long corners = Bitboards.cornerMask(board.getSize());
+        long dangerZones = Bitboards.nextToCornerMask(board.getSize());
         
-        List<int[]> movesToConsider = safeMoves.isEmpty() ? validMoves : safeMoves;
+        // Strategy 1: Always take a corner if available
+        boolean hasSafeMove = false;
+        for (board.getValidMoves(color, moves); moves.hasNext(); ) {
+            int square = moves.nextInt();
+            if ((corners & (1L << square)) != 0) {
+                return new int[]{Bitboards.row(square), Bitboards.col(square)};
+            }
+            hasSafeMove |= (dangerZones & (1L << square)) == 0;
+        }
         
+        // Strategy 2: Avoid danger zones unless they're the only option
         // Strategy 3: Among safe moves, prefer ones that flip more pieces
         // But add some randomness to keep it beginner-friendly
-        int[] bestMove = null;
+        int bestSquare = -1;
         int bestScore = -1;
         
-        for (int[] move : movesToConsider) {
-            int flips = board.getStonesToFlip(move[0], move[1], color).size();
+        for (board.getValidMoves(color, moves); moves.hasNext(); ) {
+            int square = moves.nextInt();
+            int row = Bitboards.row(square);
+            int col = Bitboards.col(square);
+            if (hasSafeMove && (dangerZones & (1L << square)) != 0) {
+                continue;
+            }
+            
+            int flips = board.countFlips(row, col, color);
             
             // Add some randomness: sometimes pick a slightly worse move
             int adjustedScore = flips + random.nextInt(3);
             
             if (adjustedScore > bestScore) {
                 bestScore = adjustedScore;
-                bestMove = move;
+                bestSquare = square;
             }
         }
         
-        return bestMove;
+        return new int[]{Bitboards.row(bestSquare), Bitboards.col(bestSquare)};
     }
 
     /**
-     * Checks if a position is a corner.
-     * @param row the row
-     * @param col the column
-     * @return true if it's a corner position
+     * Chooses a move on a 10x10 board with the same greedy strategy, by row and column
+     * as the board does not fit the square masks.
      */
-    private boolean isCorner(int row, int col) {
-        for (int[] corner : CORNERS) {
-            if (corner[0] == row && corner[1] == col) {
-                return true;
+    private int[] chooseWideGreedyMove(Board board) {
+        int last = board.getSize() - 1;
+        List<int[]> validMoves = board.getValidMoves(color);
+        
+        boolean hasSafeMove = false;
+        for (int[] move : validMoves) {
+            if (edgeDistance(move[0], last) == 0 && edgeDistance(move[1], last) == 0) {
+                return move;
             }
+            hasSafeMove |= !nextToCorner(move, last);
         }
-        return false;
+        
+        int[] best = null;
+        int bestScore = -1;
+        for (int[] move : validMoves) {
+            if (hasSafeMove && nextToCorner(move, last)) {
+                continue;
+            }
+            int adjustedScore = board.countFlips(move[0], move[1], color) + random.nextInt(3);
+            if (adjustedScore > bestScore) {
+                bestScore = adjustedScore;
+                best = move;
+            }
+        }
+        return best;
     }
 
     /**
-     * Checks if a position is in a danger zone (adjacent to a corner).
-     * @param row the row
-     * @param col the column
-     * @return true if it's a dangerous position
+     * Checks whether a square touches a corner (the X- and C-squares).
      */
-    private boolean isDangerZone(int row, int col) {
-        for (int[] danger : DANGER_ZONES) {
-            if (danger[0] == row && danger[1] == col) {
-                return true;
-            }
-        }
-        return false;
+    private static boolean nextToCorner(int[] move, int last) {
+        int rowDistance = edgeDistance(move[0], last);
+        int colDistance = edgeDistance(move[1], last);
+        return rowDistance <= 1 && colDistance <= 1 && rowDistance + colDistance > 0;
     }
-}
-
 
+    /**
+     * Gets how far a row or column is from the nearer edge.
+     */
+    private static int edgeDistance(int index, int last) {
+        return Math.min(index, last - index);
+    }
+}
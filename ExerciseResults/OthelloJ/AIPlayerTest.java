@@ -0,0 +1,104 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AIPlayer pondering.
+ */
+class AIPlayerTest {
+
+    /**
+     * Starts pondering and waits until the AI has predicted the opponent's reply.
+     */
+    private int ponder(AIPlayer ai, Board board) throws InterruptedException {
+        ai.startPondering(board);
+        for (int wait = 0; wait < 500 && ai.getPonderedReply() < 0; wait++) {
+            Thread.sleep(10);
+        }
+        int reply = ai.getPonderedReply();
+        assertTrue(reply >= 0, "The AI should predict a reply");
+        return reply;
+    }
+
+    @Test
+    @DisplayName("Playing the predicted reply is a ponder hit and the AI still answers with a legal move")
+    void testPonderHit() throws InterruptedException {
+        Board board = new Board();
+        AIPlayer ai = new AIPlayer(board.getCurrentPlayer().opposite(), Difficulty.INTERMEDIATE, new Random(1));
+        try {
+            int reply = ponder(ai, board);
+            assertTrue(board.isValidMove(Bitboards.row(reply), Bitboards.col(reply)), "The prediction should be legal");
+            Thread.sleep(100);
+
+            board.makeMove(reply);
+            int[] move = ai.chooseMove(board);
+            assertTrue(board.isValidMove(move[0], move[1]), "The AI's move should be legal");
+            assertEquals(1, ai.getPonderHits());
+            assertEquals(0, ai.getPonderMisses());
+            assertEquals(-1, ai.getPonderedReply(), "Pondering should end with the move");
+        } finally {
+            ai.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Playing another reply is a ponder miss and the AI searches afresh")
+    void testPonderMiss() throws InterruptedException {
+        Board board = new Board();
+        AIPlayer ai = new AIPlayer(board.getCurrentPlayer().opposite(), Difficulty.INTERMEDIATE, new Random(2));
+        try {
+            int reply = ponder(ai, board);
+            long others = board.getValidMoveMask(board.getCurrentPlayer()) & ~(1L << reply);
+
+            board.makeMove(Long.numberOfTrailingZeros(others));
+            int[] move = ai.chooseMove(board);
+            assertTrue(board.isValidMove(move[0], move[1]), "The AI's move should be legal");
+            assertEquals(0, ai.getPonderHits());
+            assertEquals(1, ai.getPonderMisses());
+        } finally {
+            ai.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("There is nothing to ponder at the beginner level or on the AI's own turn")
+    void testNoPondering() {
+        Board board = new Board();
+        AIPlayer beginner = new AIPlayer(board.getCurrentPlayer().opposite());
+        beginner.startPondering(board);
+        assertEquals(-1, beginner.getPonderedReply());
+        beginner.stopPondering();
+
+        AIPlayer ownTurn = new AIPlayer(board.getCurrentPlayer(), Difficulty.INTERMEDIATE, new Random(3));
+        try {
+            ownTurn.startPondering(board);
+            assertEquals(-1, ownTurn.getPonderedReply());
+            ownTurn.stopPondering();
+        } finally {
+            ownTurn.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("On a 10x10 board the beginner level plays a whole game and the search levels are rejected")
+    void testTenByTenBoard() {
+        Board board = new Board(10);
+        AIPlayer white = new AIPlayer(Stone.WHITE, Difficulty.BEGINNER, new Random(4));
+        AIPlayer black = new AIPlayer(Stone.BLACK, Difficulty.BEGINNER, new Random(5));
+        AIPlayer expert = new AIPlayer(Stone.WHITE, Difficulty.EXPERT, new Random(6));
+        try {
+            assertThrows(IllegalArgumentException.class, () -> expert.chooseMove(board));
+            assertThrows(IllegalArgumentException.class, () -> expert.startPondering(board));
+            while (!board.isGameOver()) {
+                AIPlayer ai = board.getCurrentPlayer() == Stone.WHITE ? white : black;
+                int[] move = ai.chooseMove(board);
+                assertTrue(board.makeMove(move[0], move[1]), "The AI's move should be legal:\n" + board);
+            }
+        } finally {
+            expert.shutdown();
+        }
+    }
+}
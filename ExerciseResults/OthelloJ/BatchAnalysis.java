@@ -0,0 +1,278 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Offline analysis of many positions: positions are read from a stream, searched on a
+ * pool of worker threads and passed on in input order.
+ * <p>
+ * At most a few positions per thread are in flight at once; when the oldest one is not
+ * done yet, reading waits for it, so neither the input nor the results pile up in memory.
+ * Each worker has its own {@link SearchEngine} and table, cleared before every position,
+ * so workers share nothing and a fixed-depth analysis gives the same results whatever
+ * the thread count.
+ */
+public class BatchAnalysis {
+
+    /**
+     * A position to analyse.
+     * @param game the game (or input line) it comes from, counting from 0
+     * @param ply the number of moves played to reach it
+     * @param board the position; it belongs to the analysis and must not be changed
+     */
+    public record Position(long game, int ply, Board board) {
+    }
+
+    /**
+     * The search result for one position.
+     * @param position the position searched
+     * @param result the best move and score for the player to move
+     */
+    public record Analysis(Position position, SearchResult result) {
+
+        /**
+         * Formats the analysis as one line: game, ply, player to move, best move,
+         * score in discs, depth and nodes.
+         * @return the formatted analysis
+         */
+        @Override
+        public String toString() {
+            int move = result.getMove();
+            return String.format("%d %d %s %s %+.2f %d %d", position.game(), position.ply(),
+                position.board().getCurrentPlayer(), move < 0 ? "--" : Bitboards.squareName(move),
+                result.getScore() / (double) Evaluator.DISC, result.getDepth(), result.getNodes());
+        }
+    }
+
+    // Positions in flight per worker thread: enough to keep every worker busy
+    static final int TASKS_PER_THREAD = 4;
+
+    private final int threads;
+    private final SearchLimits limits;
+    private final Evaluator evaluator;
+    private final int hashMegabytes;
+
+    /**
+     * Creates an analysis with the default evaluation.
+     * @param threads the number of positions searched at once
+     * @param limits the search budget per position, e.g. a fixed depth or time
+     * @param hashMegabytes the table size of each worker
+     */
+    public BatchAnalysis(int threads, SearchLimits limits, int hashMegabytes) {
+        this(threads, limits, PatternEvaluator.getDefault(), hashMegabytes);
+    }
+
+    /**
+     * Creates an analysis.
+     * @param threads the number of positions searched at once
+     * @param limits the search budget per position, e.g. a fixed depth or time
+     * @param evaluator the static evaluation, shared by all workers
+     * @param hashMegabytes the table size of each worker
+     */
+    public BatchAnalysis(int threads, SearchLimits limits, Evaluator evaluator, int hashMegabytes) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread: " + threads);
+        }
+        this.threads = threads;
+        this.limits = limits;
+        this.evaluator = evaluator;
+        this.hashMegabytes = hashMegabytes;
+    }
+
+    /**
+     * Analyses every position from the input, passing each result to the output in
+     * input order. The input is read and the output called on the calling thread.
+     * @param positions the positions to analyse, read as workers become free
+     * @param output receives each analysis
+     * @return the number of positions analysed
+     * @throws InterruptedException if interrupted while waiting for a result
+     */
+    public long run(Iterator<Position> positions, Consumer<Analysis> output) throws InterruptedException {
+        ThreadLocal<SearchEngine> engines = ThreadLocal.withInitial(
+            () -> new SearchEngine(evaluator, new TranspositionTable(hashMegabytes)));
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "othello-analysis");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ArrayDeque<Future<Analysis>> inFlight = new ArrayDeque<>();
+        long count = 0;
+        try {
+            while (positions.hasNext() || !inFlight.isEmpty()) {
+                if (positions.hasNext() && inFlight.size() < threads * TASKS_PER_THREAD) {
+                    Position position = positions.next();
+                    inFlight.add(workers.submit(() -> {
+                        SearchEngine engine = engines.get();
+                        engine.getTranspositionTable().clear();
+                        return new Analysis(position, engine.search(position.board(), limits));
+                    }));
+                } else {
+                    // Window full or input done: wait for the oldest position
+                    output.accept(inFlight.remove().get());
+                    count++;
+                }
+            }
+            return count;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Analysis worker failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads the positions of archived games: each position where a move was played,
+     * that is every position of every game except the final one.
+     * @param archive the archive, positioned before its first game
+     * @return the positions, read from the archive as they are needed
+     */
+    public static Iterator<Position> archivePositions(GameRecordReader archive) {
+        return new Iterator<>() {
+            private Board board;
+            private int index;
+            private int ply;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    while (board == null || index == archive.getMoveCount()) {
+                        if (!archive.next()) {
+                            return false;
+                        }
+                        board = new Board();
+                        index = 0;
+                        ply = 0;
+                    }
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public Position next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Position position = new Position(archive.getGameIndex(), ply, new Board(board));
+                int move = archive.getMove(index++);
+                if (move == GameRecordWriter.PASS) {
+                    move = archive.getMove(index++);
+                }
+                board.makeMove(move);
+                ply++;
+                return position;
+            }
+        };
+    }
+
+    /**
+     * Reads positions written as move lists, one per line: the squares played from the
+     * start, separated by spaces (e.g. {@code d3 c5 f6}). A blank line is the start.
+     * @param in the lines to read
+     * @return the positions, read as they are needed
+     * @throws IllegalArgumentException from the iterator if a line has a bad or illegal move
+     */
+    public static Iterator<Position> textPositions(BufferedReader in) {
+        Iterator<String> lines = in.lines().iterator();
+        return new Iterator<>() {
+            private long line;
+
+            @Override
+            public boolean hasNext() {
+                return lines.hasNext();
+            }
+
+            @Override
+            public Position next() {
+                String text = lines.next().trim();
+                Board board = new Board();
+                int ply = 0;
+                for (String name : text.isEmpty() ? new String[0] : text.split("\\s+")) {
+                    int square = Bitboards.parseSquare(name);
+                    if (!board.isValidMove(Bitboards.row(square), Bitboards.col(square))) {
+                        throw new IllegalArgumentException("Illegal move " + name + " on line " + (line + 1));
+                    }
+                    board.makeMove(square);
+                    ply++;
+                }
+                return new Position(line++, ply, board);
+            }
+        };
+    }
+
+    /**
+     * Analyses the positions in a game archive or a move-list file, writing one line per
+     * position in input order and reporting progress every second.
+     * The budget is a depth (e.g. {@code 8}) or a time in milliseconds (e.g. {@code 200ms}).
+     * Usage: {@code java BatchAnalysis input output [depth|timeMs] [threads] [hashMegabytes]}
+     * @param args the input and output files, then optional budget, thread count and table size
+     * @throws IOException if a file cannot be read or written
+     * @throws InterruptedException if interrupted while waiting for a result
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: java BatchAnalysis input output [depth|timeMs] [threads] [hashMegabytes]");
+            return;
+        }
+        Path input = Path.of(args[0]);
+        String budget = args.length > 2 ? args[2] : "8";
+        SearchLimits limits = budget.endsWith("ms")
+            ? SearchLimits.time(Long.parseLong(budget.substring(0, budget.length() - 2)))
+            : SearchLimits.depth(Integer.parseInt(budget));
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int hashMegabytes = args.length > 4 ? Integer.parseInt(args[4]) : 4;
+
+        GameRecordReader archive = null;
+        try {
+            archive = GameRecordReader.open(input);
+        } catch (IllegalArgumentException e) {
+            // Not a game archive; read it as move lists
+        }
+
+        long start = System.nanoTime();
+        long[] progress = {0, 0, start};  // positions, nodes, time of the last report
+        try (BufferedReader text = archive == null ? Files.newBufferedReader(input) : null;
+             BufferedWriter out = Files.newBufferedWriter(Path.of(args[1]))) {
+            Iterator<Position> positions = archive != null ? archivePositions(archive) : textPositions(text);
+            out.write("# game ply player move score depth nodes");
+            out.newLine();
+            new BatchAnalysis(threads, limits, hashMegabytes).run(positions, analysis -> {
+                try {
+                    out.write(analysis.toString());
+                    out.newLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                progress[0]++;
+                progress[1] += analysis.result().getNodes();
+                long now = System.nanoTime();
+                if (now - progress[2] >= 1_000_000_000L) {
+                    progress[2] = now;
+                    double seconds = (now - start) / 1e9;
+                    System.err.printf("%d positions in %.0f s (%.1f positions/s, %.0f nodes/s)%n",
+                        progress[0], seconds, progress[0] / seconds, progress[1] / seconds);
+                }
+            });
+        } finally {
+            if (archive != null) {
+                archive.close();
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d positions analysed (budget %s, %d threads) in %.1f s: %.1f positions/s, %.0f nodes/s%n",
+            progress[0], budget, threads, seconds, progress[0] / seconds, progress[1] / seconds);
+    }
+}
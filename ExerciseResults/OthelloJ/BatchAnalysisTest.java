@@ -0,0 +1,161 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the BatchAnalysis pipeline.
+ */
+class BatchAnalysisTest {
+
+    /**
+     * Makes positions a few random moves from the start.
+     */
+    private List<BatchAnalysis.Position> randomPositions(int count, long seed) {
+        Random random = new Random(seed);
+        List<BatchAnalysis.Position> positions = new ArrayList<>();
+        for (int game = 0; game < count; game++) {
+            Board board = TestPositions.randomPosition(random, 4 + random.nextInt(30));
+            positions.add(new BatchAnalysis.Position(game, board.getHistorySize(), board));
+        }
+        return positions;
+    }
+
+    private List<BatchAnalysis.Analysis> analyse(int threads, List<BatchAnalysis.Position> positions)
+            throws InterruptedException {
+        List<BatchAnalysis.Analysis> results = new ArrayList<>();
+        BatchAnalysis analysis = new BatchAnalysis(threads, SearchLimits.depth(3), new HeuristicEvaluator(), 1);
+        assertEquals(positions.size(), analysis.run(positions.iterator(), results::add));
+        return results;
+    }
+
+    @Test
+    @DisplayName("Results come back in input order and do not depend on the thread count")
+    void testOrderedAndRepeatable() throws InterruptedException {
+        List<BatchAnalysis.Position> positions = randomPositions(40, 31);
+
+        List<BatchAnalysis.Analysis> single = analyse(1, positions);
+        List<BatchAnalysis.Analysis> parallel = analyse(3, positions);
+
+        for (int i = 0; i < positions.size(); i++) {
+            assertSame(positions.get(i), parallel.get(i).position(), "Result " + i + " should be in input order");
+            assertEquals(single.get(i).result().getMove(), parallel.get(i).result().getMove());
+            assertEquals(single.get(i).result().getScore(), parallel.get(i).result().getScore());
+        }
+    }
+
+    @Test
+    @DisplayName("A position with a single legal move is analysed to the full depth with a real score")
+    void testForcedMove() throws InterruptedException {
+        Board board = TestPositions.forcedMove(new Random(34));
+        BatchAnalysis.Position position = new BatchAnalysis.Position(0, board.getHistorySize(), board);
+
+        SearchResult result = analyse(1, List.of(position)).get(0).result();
+
+        SearchResult searched = new SearchEngine(new HeuristicEvaluator()).search(board, SearchLimits.depth(3));
+        assertEquals(Long.numberOfTrailingZeros(board.getValidMoveMask(board.getCurrentPlayer())), result.getMove());
+        assertEquals(3, result.getDepth(), "The forced move should be searched to the full depth");
+        assertTrue(result.getNodes() > 0, "The forced move should be searched");
+        assertEquals(searched.getScore(), result.getScore(), "The score should be the search score");
+        assertNotEquals(0, result.getScore(), "The position should not be scored as even:\n" + board);
+    }
+
+    @Test
+    @DisplayName("Input is read no further ahead of the output than the in-flight window")
+    void testBackPressure() throws InterruptedException {
+        int threads = 2;
+        List<BatchAnalysis.Position> positions = randomPositions(60, 32);
+        int[] read = new int[1];
+        int[] written = new int[1];
+        Iterator<BatchAnalysis.Position> input = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return read[0] < positions.size();
+            }
+
+            @Override
+            public BatchAnalysis.Position next() {
+                assertTrue(read[0] - written[0] < threads * BatchAnalysis.TASKS_PER_THREAD,
+                    "Reading should wait for the output");
+                return positions.get(read[0]++);
+            }
+        };
+
+        new BatchAnalysis(threads, SearchLimits.depth(2), new HeuristicEvaluator(), 1)
+            .run(input, analysis -> written[0]++);
+        assertEquals(positions.size(), written[0]);
+    }
+
+    @Test
+    @DisplayName("Archived games yield every position where a move was played")
+    void testArchivePositions() throws IOException {
+        List<Board> games = new ArrayList<>();
+        for (BatchAnalysis.Position position : randomPositions(5, 33)) {
+            Board game = position.board();
+            while (!game.isGameOver()) {
+                game.makeMove(Long.numberOfTrailingZeros(game.getValidMoveMask(game.getCurrentPlayer())));
+            }
+            games.add(game);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GameRecordWriter writer = new GameRecordWriter(bytes)) {
+            for (Board game : games) {
+                writer.write(game, 0, null, null);
+            }
+        }
+
+        Iterator<BatchAnalysis.Position> positions =
+            BatchAnalysis.archivePositions(new GameRecordReader(ByteBuffer.wrap(bytes.toByteArray())));
+        for (int g = 0; g < games.size(); g++) {
+            Board game = games.get(g);
+            Board replay = new Board();
+            for (int i = 0; i < game.getHistorySize(); i++) {
+                assertTrue(positions.hasNext());
+                BatchAnalysis.Position position = positions.next();
+                assertEquals(g, position.game());
+                assertEquals(i, position.ply());
+                assertEquals(replay.getHash(), position.board().getHash(), "Position " + i + " of game " + g);
+                replay.makeMove(game.getHistoryMove(i));
+            }
+        }
+        assertFalse(positions.hasNext(), "Final positions should not be analysed");
+    }
+
+    @Test
+    @DisplayName("Move-list lines are read as positions and illegal moves are rejected")
+    void testTextPositions() {
+        Board expected = new Board();
+        StringBuilder line = new StringBuilder();
+        for (int ply = 0; ply < 2; ply++) {
+            int square = Long.numberOfTrailingZeros(expected.getValidMoveMask(expected.getCurrentPlayer()));
+            line.append(' ').append(Bitboards.squareName(square).toUpperCase());
+            expected.makeMove(square);
+        }
+        Iterator<BatchAnalysis.Position> positions =
+            BatchAnalysis.textPositions(new BufferedReader(new StringReader("\n" + line + "\n")));
+
+        BatchAnalysis.Position start = positions.next();
+        assertEquals(0, start.ply());
+        assertEquals(new Board().getHash(), start.board().getHash());
+
+        BatchAnalysis.Position second = positions.next();
+        assertEquals(1, second.game());
+        assertEquals(2, second.ply());
+        assertEquals(expected.getHash(), second.board().getHash());
+        assertFalse(positions.hasNext());
+
+        Iterator<BatchAnalysis.Position> illegal =
+            BatchAnalysis.textPositions(new BufferedReader(new StringReader("a1\n")));
+        assertThrows(IllegalArgumentException.class, illegal::next);
+    }
+}
@@ -0,0 +1,254 @@
+import java.util.Random;
+
+/**
+ * Bit-twiddling helpers for 64-bit board masks.
+ * Square {@code row * 8 + col} maps to bit {@code 1L << (row * 8 + col)}, so
+ * shifting left by 1 moves one column right and shifting by 8 moves one row down.
+ * <p>
+ * Smaller boards use the top-left corner of the same layout, so every size up to 8x8
+ * shares one set of masks; the squares off a smaller board are never occupied, so
+ * runs of stones stop there, and only moves onto them need masking out.
+ */
+public final class Bitboards {
+
+    // Masks that drop stones which wrapped around the board edge after a shift
+    private static final long NOT_A_FILE = 0xFEFEFEFEFEFEFEFEL;  // Everything except column 0
+    private static final long NOT_H_FILE = 0x7F7F7F7F7F7F7F7FL;  // Everything except column 7
+    private static final long INNER_FILES = 0x7E7E7E7E7E7E7E7EL; // Columns 1-6
+
+    // Shift amounts for the 8 directions, paired with the mask to apply after shifting
+    private static final int[] SHIFTS = {-9, -8, -7, -1, 1, 7, 8, 9};
+    private static final long[] SHIFT_MASKS = {
+        NOT_H_FILE, -1L, NOT_A_FILE,
+        NOT_H_FILE,      NOT_A_FILE,
+        NOT_H_FILE, -1L, NOT_A_FILE
+    };
+
+    /**
+     * Smallest supported board: the four starting stones and a ring around them.
+     */
+    public static final int MIN_SIZE = 4;
+
+    // Geometry of each supported size, indexed by size
+    private static final long[] SQUARE_MASKS = new long[Board.SIZE + 1];
+    private static final long[] CORNER_MASKS = new long[Board.SIZE + 1];
+    private static final long[] NEXT_TO_CORNER_MASKS = new long[Board.SIZE + 1];
+
+    static {
+        for (int size = MIN_SIZE; size <= Board.SIZE; size += 2) {
+            int last = size - 1;
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    long bit = 1L << square(row, col);
+                    int rowDistance = Math.min(row, last - row);
+                    int colDistance = Math.min(col, last - col);
+                    SQUARE_MASKS[size] |= bit;
+                    if (rowDistance == 0 && colDistance == 0) {
+                        CORNER_MASKS[size] |= bit;
+                    } else if (rowDistance <= 1 && colDistance <= 1) {
+                        NEXT_TO_CORNER_MASKS[size] |= bit;
+                    }
+                }
+            }
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    /**
+     * Gets the squares of a board.
+     * @param size the board size, an even number from {@link #MIN_SIZE} to {@link Board#SIZE}
+     * @return mask of the squares on the board
+     * @throws IllegalArgumentException if boards of that size are not supported
+     */
+    public static long squareMask(int size) {
+        checkSize(size);
+        return SQUARE_MASKS[size];
+    }
+
+    /**
+     * Gets the four corners of a board.
+     * @param size the board size
+     * @return mask of the corner squares
+     * @throws IllegalArgumentException if boards of that size are not supported
+     */
+    public static long cornerMask(int size) {
+        checkSize(size);
+        return CORNER_MASKS[size];
+    }
+
+    /**
+     * Gets the squares next to the corners (X- and C-squares), which can give a corner away.
+     * @param size the board size
+     * @return mask of the squares touching a corner
+     * @throws IllegalArgumentException if boards of that size are not supported
+     */
+    public static long nextToCornerMask(int size) {
+        checkSize(size);
+        return NEXT_TO_CORNER_MASKS[size];
+    }
+
+    private static void checkSize(int size) {
+        if (size < MIN_SIZE || size > Board.SIZE || size % 2 != 0) {
+            throw new IllegalArgumentException("Board size must be even, from " + MIN_SIZE + " to " + Board.SIZE
+                + " (one 64-bit mask per color): " + size);
+        }
+    }
+
+    /**
+     * Converts a row and column to a square index.
+     * @param row the row (0-7)
+     * @param col the column (0-7)
+     * @return the square index (0-63)
+     */
+    public static int square(int row, int col) {
+        return row * 8 + col;
+    }
+
+    /**
+     * Gets the row of a square index.
+     * @param square the square index
+     * @return the row (0-7)
+     */
+    public static int row(int square) {
+        return square >>> 3;
+    }
+
+    /**
+     * Gets the column of a square index.
+     * @param square the square index
+     * @return the column (0-7)
+     */
+    public static int col(int square) {
+        return square & 7;
+    }
+
+    /**
+     * Names a square in the usual notation: column letter a-h, then row number 1-8.
+     * @param square the square index
+     * @return the square name, e.g. "d3" for row 2, column 3
+     */
+    public static String squareName(int square) {
+        return squareName(row(square), col(square));
+    }
+
+    /**
+     * Names a square by row and column, on a board of any size.
+     * @param row the row
+     * @param col the column
+     * @return the square name, e.g. "d3" for row 2, column 3
+     */
+    public static String squareName(int row, int col) {
+        return "" + (char) ('a' + col) + (row + 1);
+    }
+
+    /**
+     * Reads a square name as written by {@link #squareName(int)}, in either case.
+     * @param name the square name, e.g. "d3"
+     * @return the square index
+     * @throws IllegalArgumentException if the name is not a square
+     */
+    public static int parseSquare(String name) {
+        if (name.length() != 2) {
+            throw new IllegalArgumentException("Not a square: " + name);
+        }
+        int col = Character.toLowerCase(name.charAt(0)) - 'a';
+        int row = name.charAt(1) - '1';
+        if (col < 0 || col >= Board.SIZE || row < 0 || row >= Board.SIZE) {
+            throw new IllegalArgumentException("Not a square: " + name);
+        }
+        return square(row, col);
+    }
+
+    /**
+     * Picks a square uniformly from a mask, for random play and test positions.
+     * @param mask the squares to choose from; must not be empty
+     * @param random the source of randomness
+     * @return the index of a set bit of the mask
+     */
+    static int randomSquare(long mask, Random random) {
+        for (int skip = random.nextInt(Long.bitCount(mask)); skip > 0; skip--) {
+            mask &= mask - 1;
+        }
+        return Long.numberOfTrailingZeros(mask);
+    }
+
+    /**
+     * Computes every legal move for a player in one pass.
+     * Each direction is filled with a doubling (parallel-prefix) step so a run of up
+     * to six opponent stones is covered in four shifts instead of six.
+     * @param player the mask of the player to move
+     * @param opponent the mask of the opponent
+     * @return mask of empty squares where the player may move
+     */
+    public static long legalMoves(long player, long opponent) {
+        long inner = opponent & INNER_FILES;
+        long moves = directionalMoves(player, inner, 1)
+            | directionalMoves(player, opponent, 8)
+            | directionalMoves(player, inner, 7)
+            | directionalMoves(player, inner, 9);
+        return moves & ~(player | opponent);
+    }
+
+    /**
+     * Fills from the player's stones through contiguous opponent stones along one
+     * axis (both ways) and returns the squares just beyond each run.
+     */
+    private static long directionalMoves(long player, long mask, int dir) {
+        int dir2 = dir + dir;
+
+        long left = mask & (player << dir);
+        left |= mask & (left << dir);
+        long leftPairs = mask & (mask << dir);
+        left |= leftPairs & (left << dir2);
+        left |= leftPairs & (left << dir2);
+
+        long right = mask & (player >>> dir);
+        right |= mask & (right >>> dir);
+        long rightPairs = mask & (mask >>> dir);
+        right |= rightPairs & (right >>> dir2);
+        right |= rightPairs & (right >>> dir2);
+
+        return (left << dir) | (right >>> dir);
+    }
+
+    /**
+     * Computes the stones flipped by placing a stone on a square.
+     * @param player the mask of the player to move
+     * @param opponent the mask of the opponent
+     * @param square the square index where the stone is placed
+     * @return mask of opponent stones that would be flipped (0 if none)
+     */
+    public static long flips(long player, long opponent, int square) {
+        long placed = 1L << square;
+        long flipped = 0L;
+
+        for (int d = 0; d < SHIFTS.length; d++) {
+            long line = 0L;
+            long cursor = shift(placed, d);
+
+            // Walk along the direction while finding opponent stones
+            while ((cursor & opponent) != 0) {
+                line |= cursor;
+                cursor = shift(cursor, d);
+            }
+
+            // The run only flips if it ends on one of our own stones
+            if ((cursor & player) != 0) {
+                flipped |= line;
+            }
+        }
+
+        return flipped;
+    }
+
+    /**
+     * Shifts a mask one step in the given direction, dropping stones that fall off the board.
+     */
+    private static long shift(long mask, int direction) {
+        int amount = SHIFTS[direction];
+        long shifted = amount > 0 ? mask << amount : mask >>> -amount;
+        return shifted & SHIFT_MASKS[direction];
+    }
+}
@@ -0,0 +1,117 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Bitboards move generator.
+ */
+class BitboardsTest {
+
+    private static final int[][] DIRECTIONS = {
+        {-1, -1}, {-1, 0}, {-1, 1},
+        {0, -1},           {0, 1},
+        {1, -1},  {1, 0},  {1, 1}
+    };
+
+    @Test
+    @DisplayName("Starting position has the four standard opening moves")
+    void testStartingMoves() {
+        long black = (1L << Bitboards.square(3, 4)) | (1L << Bitboards.square(4, 3));
+        long white = (1L << Bitboards.square(3, 3)) | (1L << Bitboards.square(4, 4));
+
+        long expected = (1L << Bitboards.square(2, 3)) | (1L << Bitboards.square(3, 2))
+            | (1L << Bitboards.square(4, 5)) | (1L << Bitboards.square(5, 4));
+        assertEquals(expected, Bitboards.legalMoves(black, white), "Black should have the four standard moves");
+    }
+
+    @Test
+    @DisplayName("Square names read back as the squares they name")
+    void testSquareNames() {
+        for (int square = 0; square < 64; square++) {
+            assertEquals(square, Bitboards.parseSquare(Bitboards.squareName(square)));
+        }
+        assertEquals(Bitboards.square(2, 3), Bitboards.parseSquare("D3"));
+        assertThrows(IllegalArgumentException.class, () -> Bitboards.parseSquare("i1"));
+        assertThrows(IllegalArgumentException.class, () -> Bitboards.parseSquare("a9"));
+        assertThrows(IllegalArgumentException.class, () -> Bitboards.parseSquare("a10"));
+    }
+
+    @Test
+    @DisplayName("Moves do not wrap around the board edges")
+    void testNoWrapAround() {
+        // White on column 7 followed by black on column 0 of the next row is not a line
+        long white = 1L << Bitboards.square(2, 7);
+        long black = 1L << Bitboards.square(3, 0);
+
+        assertEquals(0L, Bitboards.legalMoves(black, white), "No move should wrap across rows");
+        assertEquals(0L, Bitboards.flips(black, white, Bitboards.square(2, 6)), "No flips should wrap across rows");
+    }
+
+    @Test
+    @DisplayName("Legal moves and flips match a direction-by-direction scan over random games")
+    void testMatchesNaiveScan() {
+        Random random = new Random(42);
+
+        for (int game = 0; game < 200; game++) {
+            Board board = new Board();
+
+            while (!board.isGameOver()) {
+                Stone player = board.getCurrentPlayer();
+                long own = board.getBitboard(player);
+                long opponent = board.getBitboard(player.opposite());
+
+                long naiveMoves = 0L;
+                for (int square = 0; square < 64; square++) {
+                    long naiveFlips = naiveFlips(own, opponent, square);
+                    if (naiveFlips != 0) {
+                        naiveMoves |= 1L << square;
+                    }
+                    if (((own | opponent) & (1L << square)) == 0) {
+                        assertEquals(naiveFlips, Bitboards.flips(own, opponent, square), "Flip mask mismatch");
+                    }
+                }
+
+                long moves = Bitboards.legalMoves(own, opponent);
+                assertEquals(naiveMoves, moves, "Legal move mask mismatch:\n" + board);
+
+                int[] choices = new int[Long.bitCount(moves)];
+                int count = 0;
+                for (long m = moves; m != 0; m &= m - 1) {
+                    choices[count++] = Long.numberOfTrailingZeros(m);
+                }
+                int square = choices[random.nextInt(count)];
+                assertTrue(board.makeMove(Bitboards.row(square), Bitboards.col(square)));
+            }
+        }
+    }
+
+    /**
+     * Reference implementation that walks each direction one square at a time.
+     */
+    private static long naiveFlips(long own, long opponent, int square) {
+        if (((own | opponent) & (1L << square)) != 0) {
+            return 0L;
+        }
+
+        long flips = 0L;
+        for (int[] direction : DIRECTIONS) {
+            long line = 0L;
+            int r = Bitboards.row(square) + direction[0];
+            int c = Bitboards.col(square) + direction[1];
+
+            while (r >= 0 && r < 8 && c >= 0 && c < 8 && (opponent & (1L << Bitboards.square(r, c))) != 0) {
+                line |= 1L << Bitboards.square(r, c);
+                r += direction[0];
+                c += direction[1];
+            }
+
+            if (line != 0 && r >= 0 && r < 8 && c >= 0 && c < 8 && (own & (1L << Bitboards.square(r, c))) != 0) {
+                flips |= line;
+            }
+        }
+        return flips;
+    }
+}
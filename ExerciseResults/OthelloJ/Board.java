@@ -3,74 +3,269 @@ import java.util.List;
 
 /**
  * Represents the Othello game board and contains all game logic.
+ * The position is stored as one 64-bit mask per color (see {@link Bitboards}).
+ * Boards are 8x8 unless made smaller (6x6 or 4x4); a smaller board uses the top-left
+ * corner of the same masks, and its moves are kept on the board by one extra mask.
+ * <p>
+ * A 10x10 board needs a second word per color (see {@link WideBitboards}). It supports
+ * every method that takes rows and columns; the methods on 64-bit masks and square
+ * indices, which the search engine uses, are for boards up to 8x8 only.
  */
 public class Board {
+    /** The standard board size, which is also the largest that fits in one mask per color. */
     public static final int SIZE = 8;
     
-    private final Stone[][] grid;
+    private final int size;
+    private final long squareMask;
+    private long black;
+    private long white;
     private Stone currentPlayer;
     
-    // Direction vectors for all 8 directions (horizontal, vertical, diagonal)
-    private static final int[][] DIRECTIONS = {
-        {-1, -1}, {-1, 0}, {-1, 1},
-        {0, -1},           {0, 1},
-        {1, -1},  {1, 0},  {1, 1}
-    };
+    // Squares 64 and up of a 10x10 board; always empty on smaller boards
+    private long blackHigh;
+    private long whiteHigh;
+    
+    // Zobrist key of the position, kept up to date as stones are placed and flipped
+    private long hash;
+    
+    // Legal moves of the player to move, kept from the pass check in makeMove or worked
+    // out on first use; UNKNOWN_MOVES after an undo (no real move mask has every bit set)
+    private static final long UNKNOWN_MOVES = -1L;
+    private long currentMoves = UNKNOWN_MOVES;
+    private long currentMovesHigh;
+    
+    // Undo stack: one entry per move made, stored in preallocated parallel arrays;
+    // every move fills an empty square, so a game never has more moves than squares
+    private final long[] historyFlips;
+    private final long[] historyFlipsHigh;
+    private final long[] historyHashes;
+    private final byte[] historySquares;
+    private final Stone[] historyPlayers;
+    private int historySize;
+    
+    // Two-word results of 10x10 move generation, so it does not allocate; null on smaller boards
+    private final long[] wideScratch;
 
     /**
      * Creates a new board with the standard Othello starting position.
      */
     public Board() {
-        grid = new Stone[SIZE][SIZE];
+        this(SIZE);
+    }
+
+    /**
+     * Creates a new board of a given size with the four starting stones in the middle.
+     * @param size the number of rows and columns, an even number from 4 to 8, or 10
+     * @throws IllegalArgumentException if boards of that size are not supported
+     */
+    public Board(int size) {
+        // The low word of a 10x10 board is all on the board
+        this(size, size == WideBitboards.SIZE ? -1L : Bitboards.squareMask(size));
         initializeBoard();
     }
 
+    /**
+     * Creates an empty board with room for a whole game of moves in its history.
+     */
+    private Board(int size, long squareMask) {
+        this.size = size;
+        this.squareMask = squareMask;
+        historyFlips = new long[size * size];
+        historyFlipsHigh = isWide() ? new long[size * size] : null;
+        historyHashes = new long[size * size];
+        historySquares = new byte[size * size];
+        historyPlayers = new Stone[size * size];
+        wideScratch = isWide() ? new long[2] : null;
+    }
+
     /**
      * Creates a copy of an existing board.
+     * The copy starts with an empty move history.
      * @param other the board to copy
      */
     public Board(Board other) {
-        grid = new Stone[SIZE][SIZE];
-        for (int row = 0; row < SIZE; row++) {
-            for (int col = 0; col < SIZE; col++) {
-                grid[row][col] = other.grid[row][col];
-            }
-        }
+        this(other.size, other.squareMask);
+        black = other.black;
+        white = other.white;
+        blackHigh = other.blackHigh;
+        whiteHigh = other.whiteHigh;
         currentPlayer = other.currentPlayer;
+        hash = other.hash;
+        currentMoves = other.currentMoves;
+        currentMovesHigh = other.currentMovesHigh;
+    }
+
+    /**
+     * Creates a board with the given stones, e.g. a position read from a game file.
+     * If the player to move has to pass, the opponent is to move instead, as after a move.
+     * The board starts with an empty move history.
+     * @param black the mask of black stones
+     * @param white the mask of white stones
+     * @param toMove the player to move
+     * @throws IllegalArgumentException if a square holds both colors or the player is EMPTY
+     */
+    public Board(long black, long white, Stone toMove) {
+        this(SIZE, black, white, toMove);
+    }
+
+    /**
+     * Creates a board of a given size with the given stones.
+     * If the player to move has to pass, the opponent is to move instead, as after a move.
+     * The board starts with an empty move history.
+     * @param size the number of rows and columns, an even number from 4 to 8
+     * @param black the mask of black stones
+     * @param white the mask of white stones
+     * @param toMove the player to move
+     * @throws IllegalArgumentException if the size is not supported, a stone is off the
+     *                                  board, a square holds both colors or the player is EMPTY
+     */
+    public Board(int size, long black, long white, Stone toMove) {
+        this(size, Bitboards.squareMask(size));
+        if (((black | white) & ~squareMask) != 0) {
+            throw new IllegalArgumentException("Stones off the " + size + "x" + size + " board");
+        }
+        if ((black & white) != 0) {
+            throw new IllegalArgumentException("Squares cannot hold both colors");
+        }
+        if (toMove == Stone.EMPTY) {
+            throw new IllegalArgumentException("The player to move must be BLACK or WHITE");
+        }
+        this.black = black;
+        this.white = white;
+        currentPlayer = toMove.opposite();
+        switchPlayer();
+        hash = Zobrist.hash(black, white, currentPlayer) ^ Zobrist.boardSize(size);
     }
 
     /**
      * Initializes the board to the standard Othello starting position.
      */
     private void initializeBoard() {
-        // Fill with empty stones
-        for (int row = 0; row < SIZE; row++) {
-            for (int col = 0; col < SIZE; col++) {
-                grid[row][col] = Stone.EMPTY;
-            }
-        }
+        black = 0L;
+        white = 0L;
+        blackHigh = 0L;
+        whiteHigh = 0L;
         
         // Set up the standard starting position (center 4 squares)
-        grid[3][3] = Stone.WHITE;
-        grid[3][4] = Stone.BLACK;
-        grid[4][3] = Stone.BLACK;
-        grid[4][4] = Stone.WHITE;
+        int center = size / 2;
+        setStone(center - 1, center - 1, Stone.WHITE);
+        setStone(center - 1, center, Stone.BLACK);
+        setStone(center, center - 1, Stone.BLACK);
+        setStone(center, center, Stone.WHITE);
         
         // White moves first
         currentPlayer = Stone.WHITE;
+        hash = Zobrist.hash(black, white, currentPlayer) ^ Zobrist.hashHigh(blackHigh, whiteHigh)
+            ^ Zobrist.boardSize(size);
+        currentMoves = UNKNOWN_MOVES;
     }
 
     /**
      * Gets the stone at the specified position.
-     * @param row the row (0-7)
-     * @param col the column (0-7)
+     * @param row the row (0-7, or 0-9 on a 10x10 board)
+     * @param col the column (0-7, or 0-9 on a 10x10 board)
      * @return the stone at that position
      */
     public Stone getStone(int row, int col) {
         if (!isValidPosition(row, col)) {
             throw new IllegalArgumentException("Invalid position: " + row + ", " + col);
         }
-        return grid[row][col];
+        if (isWide()) {
+            int square = WideBitboards.square(row, col);
+            if (WideBitboards.contains(black, blackHigh, square)) {
+                return Stone.BLACK;
+            }
+            return WideBitboards.contains(white, whiteHigh, square) ? Stone.WHITE : Stone.EMPTY;
+        }
+        long bit = 1L << Bitboards.square(row, col);
+        if ((black & bit) != 0) {
+            return Stone.BLACK;
+        }
+        if ((white & bit) != 0) {
+            return Stone.WHITE;
+        }
+        return Stone.EMPTY;
+    }
+
+    /**
+     * Places a stone (or clears the cell) without applying any game rules.
+     */
+    private void setStone(int row, int col, Stone stone) {
+        if (isWide()) {
+            int square = WideBitboards.square(row, col);
+            long low = WideBitboards.lowBit(square);
+            long high = WideBitboards.highBit(square);
+            black &= ~low;
+            white &= ~low;
+            blackHigh &= ~high;
+            whiteHigh &= ~high;
+            if (stone == Stone.BLACK) {
+                black |= low;
+                blackHigh |= high;
+            } else if (stone == Stone.WHITE) {
+                white |= low;
+                whiteHigh |= high;
+            }
+            return;
+        }
+        long bit = 1L << Bitboards.square(row, col);
+        black &= ~bit;
+        white &= ~bit;
+        if (stone == Stone.BLACK) {
+            black |= bit;
+        } else if (stone == Stone.WHITE) {
+            white |= bit;
+        }
+    }
+
+    /**
+     * Checks whether the board keeps its squares in two words per color.
+     */
+    private boolean isWide() {
+        return size > SIZE;
+    }
+
+    /**
+     * Rejects a 64-bit mask or square index method on a board that does not fit one mask.
+     */
+    private void checkNarrow() {
+        if (isWide()) {
+            throw new IllegalStateException("A " + size + "x" + size
+                + " board does not fit in one 64-bit mask; use the row and column methods");
+        }
+    }
+
+    /**
+     * Gets the mask of all stones of one color.
+     * @param player the stone color
+     * @return mask with one bit set per stone of that color
+     * @throws IllegalStateException on a 10x10 board
+     */
+    public long getBitboard(Stone player) {
+        checkNarrow();
+        return switch (player) {
+            case BLACK -> black;
+            case WHITE -> white;
+            case EMPTY -> squareMask & ~(black | white);
+        };
+    }
+
+    /**
+     * Gets the number of rows (and columns) of the board.
+     * @return the board size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the squares of the board, all 64 for the standard size.
+     * @return mask with one bit set per square on the board
+     * @throws IllegalStateException on a 10x10 board
+     */
+    public long getSquareMask() {
+        checkNarrow();
+        return squareMask;
     }
 
     /**
@@ -88,7 +283,7 @@ public class Board {
      * @return true if the position is valid
      */
     public boolean isValidPosition(int row, int col) {
-        return row >= 0 && row < SIZE && col >= 0 && col < SIZE;
+        return row >= 0 && row < size && col >= 0 && col < size;
     }
 
     /**
@@ -114,13 +309,12 @@ public class Board {
             return false;
         }
         
-        // Must be an empty cell
-        if (grid[row][col] != Stone.EMPTY) {
-            return false;
+        // Must be an empty cell that flanks at least one opponent piece
+        if (isWide()) {
+            long[] moves = wideValidMoves(player);
+            return WideBitboards.contains(moves[0], moves[1], WideBitboards.square(row, col));
         }
-        
-        // Must flank at least one opponent piece
-        return !getStonesToFlip(row, col, player).isEmpty();
+        return (getValidMoveMask(player) & (1L << Bitboards.square(row, col))) != 0;
     }
 
     /**
@@ -132,30 +326,105 @@ public class Board {
      */
     public List<int[]> getStonesToFlip(int row, int col, Stone player) {
         List<int[]> allFlips = new ArrayList<>();
-        Stone opponent = player.opposite();
         
-        // Check all 8 directions
-        for (int[] direction : DIRECTIONS) {
-            List<int[]> flipsInDirection = new ArrayList<>();
-            int r = row + direction[0];
-            int c = col + direction[1];
-            
-            // Move along the direction while finding opponent pieces
-            while (isValidPosition(r, c) && grid[r][c] == opponent) {
-                flipsInDirection.add(new int[]{r, c});
-                r += direction[0];
-                c += direction[1];
-            }
-            
-            // If we found opponent pieces and ended on our own piece, these are valid flips
-            if (!flipsInDirection.isEmpty() && isValidPosition(r, c) && grid[r][c] == player) {
-                allFlips.addAll(flipsInDirection);
-            }
+        if (isWide()) {
+            long[] flips = wideFlips(row, col, player);
+            addSquares(allFlips, flips[0], flips[1]);
+            return allFlips;
+        }
+        for (long flips = getFlipMask(row, col, player); flips != 0; flips &= flips - 1) {
+            int square = Long.numberOfTrailingZeros(flips);
+            allFlips.add(new int[]{Bitboards.row(square), Bitboards.col(square)});
         }
         
         return allFlips;
     }
 
+    /**
+     * Gets the stones that would be flipped as a mask, without allocating.
+     * @param row the row
+     * @param col the column
+     * @param player the player making the move
+     * @return mask of flipped stones, or 0 if the move is not valid
+     * @throws IllegalStateException on a 10x10 board
+     */
+    public long getFlipMask(int row, int col, Stone player) {
+        checkNarrow();
+        if (!isValidPosition(row, col) || player == Stone.EMPTY) {
+            return 0L;
+        }
+        int square = Bitboards.square(row, col);
+        if (((black | white) & (1L << square)) != 0) {
+            return 0L;
+        }
+        return Bitboards.flips(getBitboard(player), getBitboard(player.opposite()), square);
+    }
+
+    /**
+     * Counts the stones that would be flipped, without allocating.
+     * @param row the row
+     * @param col the column
+     * @param player the player making the move
+     * @return the number of flipped stones, or 0 if the move is not valid
+     */
+    public int countFlips(int row, int col, Stone player) {
+        if (isWide()) {
+            long[] flips = wideFlips(row, col, player);
+            return Long.bitCount(flips[0]) + Long.bitCount(flips[1]);
+        }
+        return Long.bitCount(getFlipMask(row, col, player));
+    }
+
+    /**
+     * Computes the stones a move on a 10x10 board would flip, into the scratch words.
+     * @return the flipped stones as [low, high], both 0 if the move is not valid
+     */
+    private long[] wideFlips(int row, int col, Stone player) {
+        long[] flips = wideScratch;
+        int square = WideBitboards.square(row, col);
+        if (!isValidPosition(row, col) || player == Stone.EMPTY
+                || WideBitboards.contains(black | white, blackHigh | whiteHigh, square)) {
+            flips[0] = 0L;
+            flips[1] = 0L;
+            return flips;
+        }
+        WideBitboards.flips(wideLow(player), wideHigh(player), wideLow(player.opposite()),
+            wideHigh(player.opposite()), square, flips);
+        return flips;
+    }
+
+    /**
+     * Gets a player's stones on squares 0-63 of a 10x10 board.
+     */
+    private long wideLow(Stone player) {
+        return player == Stone.BLACK ? black : white;
+    }
+
+    /**
+     * Gets a player's stones on squares 64-99 of a 10x10 board.
+     */
+    private long wideHigh(Stone player) {
+        return player == Stone.BLACK ? blackHigh : whiteHigh;
+    }
+
+    /**
+     * Writes the square indices (row * 8 + col) of the stones that would be flipped
+     * into a caller-supplied buffer.
+     * @param row the row
+     * @param col the column
+     * @param player the player making the move
+     * @param buffer destination for the square indices (SIZE * SIZE entries is always enough)
+     * @return the number of square indices written
+     * @throws IllegalStateException on a 10x10 board
+     */
+    public int getFlippedSquares(int row, int col, Stone player, int[] buffer) {
+        int count = 0;
+        for (long flips = getFlipMask(row, col, player); flips != 0; flips &= flips - 1) {
+            buffer[count++] = Long.numberOfTrailingZeros(flips);
+        }
+        return count;
+    }
+
     /**
      * Makes a move for the current player.
      * @param row the row to place the stone
@@ -163,41 +432,265 @@ public class Board {
      * @return true if the move was successful
      */
     public boolean makeMove(int row, int col) {
-        if (!isValidMove(row, col)) {
+        if (!isValidPosition(row, col)) {
             return false;
         }
+        if (isWide()) {
+            return makeWideMove(row, col);
+        }
+        return makeMove(Bitboards.square(row, col)) != 0;
+    }
+
+    /**
+     * Makes a move for the current player in place and records it for {@link #undoMove()}.
+     * The undo record (placed square, flipped stones, previous player) is pushed onto
+     * a preallocated stack, so making and undoing moves never allocates.
+     * @param square the square index (row * 8 + col)
+     * @return mask of the flipped stones, or 0 if the move is not valid
+     * @throws IllegalStateException on a 10x10 board
+     */
+    public long makeMove(int square) {
+        checkNarrow();
+        if (square < 0 || square >= SIZE * SIZE) {
+            return 0L;
+        }
+        long changed = getFlipMask(Bitboards.row(square), Bitboards.col(square), currentPlayer);
+        if (changed == 0) {
+            return 0L;
+        }
         
-        // Place the stone
-        grid[row][col] = currentPlayer;
+        // Record what is needed to take the move back
+        historyFlips[historySize] = changed;
+        historyHashes[historySize] = hash;
+        historySquares[historySize] = (byte) square;
+        historyPlayers[historySize] = currentPlayer;
+        historySize++;
         
-        // Flip all captured stones
-        List<int[]> flips = getStonesToFlip(row, col, currentPlayer);
-        for (int[] pos : flips) {
-            grid[pos[0]][pos[1]] = currentPlayer;
+        // Place the stone and flip all captured stones in one step
+        if (currentPlayer == Stone.BLACK) {
+            black |= changed | (1L << square);
+            white &= ~changed;
+        } else {
+            white |= changed | (1L << square);
+            black &= ~changed;
+        }
+        
+        hash ^= Zobrist.stone(currentPlayer, square);
+        for (long f = changed; f != 0; f &= f - 1) {
+            hash ^= Zobrist.flip(Long.numberOfTrailingZeros(f));
         }
         
         // Switch to the next player
+        Stone mover = currentPlayer;
         switchPlayer();
+        if (currentPlayer != mover) {
+            hash ^= Zobrist.sideToMove();
+        }
+        
+        return changed;
+    }
+
+    /**
+     * Makes a move on a 10x10 board, as {@link #makeMove(int)} does on smaller ones.
+     * @return true if the move was valid
+     */
+    private boolean makeWideMove(int row, int col) {
+        long[] flips = wideFlips(row, col, currentPlayer);
+        long changed = flips[0];
+        long changedHigh = flips[1];
+        if ((changed | changedHigh) == 0) {
+            return false;
+        }
+        int square = WideBitboards.square(row, col);
+        
+        historyFlips[historySize] = changed;
+        historyFlipsHigh[historySize] = changedHigh;
+        historyHashes[historySize] = hash;
+        historySquares[historySize] = (byte) square;
+        historyPlayers[historySize] = currentPlayer;
+        historySize++;
         
+        long placed = WideBitboards.lowBit(square);
+        long placedHigh = WideBitboards.highBit(square);
+        if (currentPlayer == Stone.BLACK) {
+            black |= changed | placed;
+            blackHigh |= changedHigh | placedHigh;
+            white &= ~changed;
+            whiteHigh &= ~changedHigh;
+        } else {
+            white |= changed | placed;
+            whiteHigh |= changedHigh | placedHigh;
+            black &= ~changed;
+            blackHigh &= ~changedHigh;
+        }
+        
+        hash ^= Zobrist.stone(currentPlayer, square);
+        for (long f = changed; f != 0; f &= f - 1) {
+            hash ^= Zobrist.flip(Long.numberOfTrailingZeros(f));
+        }
+        for (long f = changedHigh; f != 0; f &= f - 1) {
+            hash ^= Zobrist.flip(64 + Long.numberOfTrailingZeros(f));
+        }
+        
+        Stone mover = currentPlayer;
+        switchPlayer();
+        if (currentPlayer != mover) {
+            hash ^= Zobrist.sideToMove();
+        }
         return true;
     }
 
+    /**
+     * Takes back the most recent move, restoring the stones and the player to move.
+     * @throws IllegalStateException if there is no move to undo
+     */
+    public void undoMove() {
+        if (historySize == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        historySize--;
+        
+        long changed = historyFlips[historySize];
+        currentPlayer = historyPlayers[historySize];
+        hash = historyHashes[historySize];
+        currentMoves = UNKNOWN_MOVES;
+        
+        if (isWide()) {
+            long changedHigh = historyFlipsHigh[historySize];
+            int square = historySquares[historySize];
+            long placed = WideBitboards.lowBit(square);
+            long placedHigh = WideBitboards.highBit(square);
+            if (currentPlayer == Stone.BLACK) {
+                black &= ~(changed | placed);
+                blackHigh &= ~(changedHigh | placedHigh);
+                white |= changed;
+                whiteHigh |= changedHigh;
+            } else {
+                white &= ~(changed | placed);
+                whiteHigh &= ~(changedHigh | placedHigh);
+                black |= changed;
+                blackHigh |= changedHigh;
+            }
+            return;
+        }
+        long placed = 1L << historySquares[historySize];
+        if (currentPlayer == Stone.BLACK) {
+            black &= ~(changed | placed);
+            white |= changed;
+        } else {
+            white &= ~(changed | placed);
+            black |= changed;
+        }
+    }
+
+    /**
+     * Gets the number of moves that can be undone.
+     * @return the number of moves in the history
+     */
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    /**
+     * Gets a move from the history.
+     * @param index the move number, 0 being the first move recorded
+     * @return the square index of that move: row * 8 + col, or row * 10 + col on a 10x10 board
+     */
+    public int getHistoryMove(int index) {
+        if (index < 0 || index >= historySize) {
+            throw new IndexOutOfBoundsException("No move at index " + index);
+        }
+        return historySquares[index];
+    }
+
+    /**
+     * Gets which player made a move in the history.
+     * @param index the move number, 0 being the first move recorded
+     * @return the player who made that move
+     */
+    public Stone getHistoryPlayer(int index) {
+        if (index < 0 || index >= historySize) {
+            throw new IndexOutOfBoundsException("No move at index " + index);
+        }
+        return historyPlayers[index];
+    }
+
     /**
      * Switches to the next player, handling turn skipping if necessary.
+     * The legal moves found for the new player to move are kept for later queries.
      */
     private void switchPlayer() {
+        if (isWide()) {
+            switchWidePlayer();
+            return;
+        }
         Stone nextPlayer = currentPlayer.opposite();
         
         // Check if next player has any valid moves
-        if (hasValidMoves(nextPlayer)) {
+        long nextMoves = legalMoves(getBitboard(nextPlayer), getBitboard(currentPlayer));
+        if (nextMoves != 0) {
             currentPlayer = nextPlayer;
-        } else if (hasValidMoves(currentPlayer)) {
+            currentMoves = nextMoves;
+            return;
+        }
+        
+        long ownMoves = legalMoves(getBitboard(currentPlayer), getBitboard(nextPlayer));
+        if (ownMoves != 0) {
             // Next player has no moves, current player goes again
-            // currentPlayer stays the same
+            currentMoves = ownMoves;
         } else {
             // Neither player has moves - game is over
             currentPlayer = nextPlayer; // Still switch for display purposes
+            currentMoves = 0L;
+        }
+    }
+
+    /**
+     * Switches to the next player on a 10x10 board, as {@link #switchPlayer()} does on smaller ones.
+     */
+    private void switchWidePlayer() {
+        Stone nextPlayer = currentPlayer.opposite();
+        long[] moves = wideScratch;
+        
+        WideBitboards.legalMoves(wideLow(nextPlayer), wideHigh(nextPlayer), wideLow(currentPlayer),
+            wideHigh(currentPlayer), moves);
+        if ((moves[0] | moves[1]) == 0) {
+            WideBitboards.legalMoves(wideLow(currentPlayer), wideHigh(currentPlayer), wideLow(nextPlayer),
+                wideHigh(nextPlayer), moves);
+            if ((moves[0] | moves[1]) == 0) {
+                // Neither player has moves - game is over
+                currentPlayer = nextPlayer;
+            }
+        } else {
+            currentPlayer = nextPlayer;
+        }
+        currentMoves = moves[0];
+        currentMovesHigh = moves[1];
+    }
+
+    /**
+     * Gets a player's valid moves on a 10x10 board, from the cache for the player to move.
+     * @return the moves as [low, high], in the scratch words
+     */
+    private long[] wideValidMoves(Stone player) {
+        long[] moves = wideScratch;
+        if (player == Stone.EMPTY) {
+            moves[0] = 0L;
+            moves[1] = 0L;
+            return moves;
+        }
+        if (player != currentPlayer || currentMoves == UNKNOWN_MOVES) {
+            WideBitboards.legalMoves(wideLow(player), wideHigh(player), wideLow(player.opposite()),
+                wideHigh(player.opposite()), moves);
+            if (player != currentPlayer) {
+                return moves;
+            }
+            currentMoves = moves[0];
+            currentMovesHigh = moves[1];
         }
+        moves[0] = currentMoves;
+        moves[1] = currentMovesHigh;
+        return moves;
     }
 
     /**
@@ -206,14 +699,50 @@ public class Board {
      * @return true if the player has at least one valid move
      */
     public boolean hasValidMoves(Stone player) {
-        for (int row = 0; row < SIZE; row++) {
-            for (int col = 0; col < SIZE; col++) {
-                if (isValidMove(row, col, player)) {
-                    return true;
-                }
-            }
+        if (isWide()) {
+            long[] moves = wideValidMoves(player);
+            return (moves[0] | moves[1]) != 0;
+        }
+        return getValidMoveMask(player) != 0;
+    }
+
+    /**
+     * Gets all valid moves for a player as a mask.
+     * The player to move's moves are worked out at most once per position.
+     * @param player the player
+     * @return mask with one bit set per valid move square
+     * @throws IllegalStateException on a 10x10 board
+     */
+    public long getValidMoveMask(Stone player) {
+        checkNarrow();
+        if (player == Stone.EMPTY) {
+            return 0L;
+        }
+        if (player != currentPlayer) {
+            return legalMoves(getBitboard(player), getBitboard(player.opposite()));
+        }
+        if (currentMoves == UNKNOWN_MOVES) {
+            currentMoves = legalMoves(getBitboard(player), getBitboard(player.opposite()));
         }
-        return false;
+        return currentMoves;
+    }
+
+    /**
+     * Computes legal moves, leaving out squares off a smaller board.
+     */
+    private long legalMoves(long player, long opponent) {
+        return Bitboards.legalMoves(player, opponent) & squareMask;
+    }
+
+    /**
+     * Iterates the valid moves for a player as square indices (row * 8 + col).
+     * @param player the player
+     * @param iterator an iterator to reuse
+     * @return the iterator, reset to the player's valid moves
+     * @throws IllegalStateException on a 10x10 board
+     */
+    public MoveIterator getValidMoves(Stone player, MoveIterator iterator) {
+        return iterator.reset(getValidMoveMask(player));
     }
 
     /**
@@ -223,39 +752,55 @@ public class Board {
      */
     public List<int[]> getValidMoves(Stone player) {
         List<int[]> moves = new ArrayList<>();
-        for (int row = 0; row < SIZE; row++) {
-            for (int col = 0; col < SIZE; col++) {
-                if (isValidMove(row, col, player)) {
-                    moves.add(new int[]{row, col});
-                }
-            }
+        if (isWide()) {
+            long[] mask = wideValidMoves(player);
+            addSquares(moves, mask[0], mask[1]);
+            return moves;
+        }
+        for (long mask = getValidMoveMask(player); mask != 0; mask &= mask - 1) {
+            int square = Long.numberOfTrailingZeros(mask);
+            moves.add(new int[]{Bitboards.row(square), Bitboards.col(square)});
         }
         return moves;
     }
 
+    /**
+     * Adds the [row, col] positions of the squares in a two-word 10x10 mask to a list.
+     */
+    private static void addSquares(List<int[]> positions, long low, long high) {
+        for (; low != 0; low &= low - 1) {
+            int square = Long.numberOfTrailingZeros(low);
+            positions.add(new int[]{WideBitboards.row(square), WideBitboards.col(square)});
+        }
+        for (; high != 0; high &= high - 1) {
+            int square = 64 + Long.numberOfTrailingZeros(high);
+            positions.add(new int[]{WideBitboards.row(square), WideBitboards.col(square)});
+        }
+    }
+
     /**
      * Counts the stones for a specific player.
      * @param player the player
      * @return the number of stones of that color on the board
      */
     public int countStones(Stone player) {
-        int count = 0;
-        for (int row = 0; row < SIZE; row++) {
-            for (int col = 0; col < SIZE; col++) {
-                if (grid[row][col] == player) {
-                    count++;
-                }
+        if (isWide()) {
+            if (player == Stone.EMPTY) {
+                return WideBitboards.SQUARES - countStones(Stone.BLACK) - countStones(Stone.WHITE);
             }
+            return Long.bitCount(wideLow(player)) + Long.bitCount(wideHigh(player));
         }
-        return count;
+        return Long.bitCount(getBitboard(player));
     }
 
     /**
      * Checks if the game is over.
+     * A player without moves is skipped, so the player to move has none only when
+     * neither player has; this makes the check as cheap as the cached move mask.
      * @return true if neither player can make a move
      */
     public boolean isGameOver() {
-        return !hasValidMoves(Stone.BLACK) && !hasValidMoves(Stone.WHITE);
+        return !hasValidMoves(currentPlayer);
     }
 
     /**
@@ -279,6 +824,38 @@ public class Board {
         }
     }
 
+    /**
+     * Gets the Zobrist key of the position (stones and player to move).
+     * @return the 64-bit hash key
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Checks whether another board has the same stones and player to move.
+     * Move history is not compared.
+     * @param obj the object to compare with
+     * @return true if the positions are the same
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Board other)) {
+            return false;
+        }
+        return size == other.size && black == other.black && white == other.white
+            && blackHigh == other.blackHigh && whiteHigh == other.whiteHigh
+            && currentPlayer == other.currentPlayer;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
     /**
      * Returns a string representation of the board.
      * @return the board as a string
@@ -286,11 +863,15 @@ public class Board {
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        sb.append("  0 1 2 3 4 5 6 7\n");
-        for (int row = 0; row < SIZE; row++) {
+        sb.append(" ");
+        for (int col = 0; col < size; col++) {
+            sb.append(" ").append(col);
+        }
+        sb.append("\n");
+        for (int row = 0; row < size; row++) {
             sb.append(row).append(" ");
-            for (int col = 0; col < SIZE; col++) {
-                sb.append(grid[row][col].toChar()).append(" ");
+            for (int col = 0; col < size; col++) {
+                sb.append(getStone(row, col).toChar()).append(" ");
             }
             sb.append("\n");
         }
@@ -2,16 +2,20 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.List;
+import java.awt.image.BufferedImage;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.function.BiConsumer;
 
 /**
  * Swing panel that renders the Othello game board.
+ * The board background and the stones are drawn from images rendered once, and
+ * {@link #refresh()} repaints only the cells that changed; a 10x10 board, which does
+ * not fit the square masks this relies on, is repainted whole.
  */
 public class BoardPanel extends JPanel {
     
     private static final int CELL_SIZE = 60;
-    private static final int BOARD_SIZE = Board.SIZE * CELL_SIZE;
     private static final int STONE_PADDING = 5;
     
     // Colors
@@ -21,11 +25,28 @@ public class BoardPanel extends JPanel {
     private static final Color BLACK_STONE = new Color(0x212121);
     private static final Color WHITE_STONE = new Color(0xFAFAFA);
     private static final Color STONE_BORDER = new Color(0x424242);
+    private static final Color WHITE_HIGHLIGHT = new Color(255, 255, 255, 100);
+    private static final Color BLACK_HIGHLIGHT = new Color(100, 100, 100, 80);
     
     private Board board;
     private BiConsumer<Integer, Integer> moveCallback;
     private boolean inputEnabled = true;
     
+    // Pre-rendered layers, created on first paint
+    private BufferedImage background;
+    private final Map<Stone, BufferedImage> stoneSprites = new EnumMap<>(Stone.class);
+    private BufferedImage moveSprite;
+    
+    // Legal moves of the position they were worked out for
+    private boolean overlayValid;
+    private long overlayHash;
+    private long overlayMoves;
+    
+    // What the last refresh showed, so the next one repaints only the cells that changed
+    private long shownBlack;
+    private long shownWhite;
+    private long shownMoves;
+    
     /**
      * Creates a new board panel.
      * @param board the game board to display
@@ -33,7 +54,7 @@ public class BoardPanel extends JPanel {
     public BoardPanel(Board board) {
         this.board = board;
         
-        setPreferredSize(new Dimension(BOARD_SIZE, BOARD_SIZE));
+        setPreferredSize(new Dimension(boardPixels(), boardPixels()));
         setBackground(BOARD_COLOR);
         
         // Add mouse listener for player moves
@@ -44,7 +65,7 @@ public class BoardPanel extends JPanel {
                     int col = e.getX() / CELL_SIZE;
                     int row = e.getY() / CELL_SIZE;
                     
-                    if (row >= 0 && row < Board.SIZE && col >= 0 && col < Board.SIZE) {
+                    if (BoardPanel.this.board.isValidPosition(row, col)) {
                         moveCallback.accept(row, col);
                     }
                 }
@@ -61,11 +82,12 @@ public class BoardPanel extends JPanel {
     }
 
     /**
-     * Sets whether player input is enabled.
+     * Sets whether player input is enabled; the valid moves are only shown while it is.
      * @param enabled true to enable input
      */
     public void setInputEnabled(boolean enabled) {
         this.inputEnabled = enabled;
+        refresh();
     }
 
     /**
@@ -73,27 +95,140 @@ public class BoardPanel extends JPanel {
      * @param board the new board state
      */
     public void setBoard(Board board) {
+        if (board.getSize() != this.board.getSize()) {
+            // The background is drawn for one size
+            background = null;
+            setPreferredSize(new Dimension(board.getSize() * CELL_SIZE, board.getSize() * CELL_SIZE));
+            revalidate();
+        }
         this.board = board;
+        overlayValid = false;
+        refresh();
         repaint();
     }
 
+    /**
+     * Repaints the cells whose stones or move indicators changed since the last refresh.
+     * Call it after every change to the board.
+     */
+    public void refresh() {
+        if (board.getSize() > Board.SIZE) {
+            repaint();
+            return;
+        }
+        long black = board.getBitboard(Stone.BLACK);
+        long white = board.getBitboard(Stone.WHITE);
+        long moves = shownMoves();
+        long dirty = (black ^ shownBlack) | (white ^ shownWhite) | (moves ^ shownMoves);
+        shownBlack = black;
+        shownWhite = white;
+        shownMoves = moves;
+        
+        for (; dirty != 0; dirty &= dirty - 1) {
+            int square = Long.numberOfTrailingZeros(dirty);
+            repaint(Bitboards.col(square) * CELL_SIZE, Bitboards.row(square) * CELL_SIZE, CELL_SIZE, CELL_SIZE);
+        }
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
+        if (background == null) {
+            createLayers();
+        }
         
-        Graphics2D g2d = (Graphics2D) g;
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        // The background image covers the whole panel; the clip limits it to the dirty cells
+        g.drawImage(background, 0, 0, null);
+        
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, boardPixels(), boardPixels());
+        }
+        int firstCol = Math.max(0, clip.x / CELL_SIZE);
+        int lastCol = Math.min(board.getSize() - 1, (clip.x + clip.width - 1) / CELL_SIZE);
+        int firstRow = Math.max(0, clip.y / CELL_SIZE);
+        int lastRow = Math.min(board.getSize() - 1, (clip.y + clip.height - 1) / CELL_SIZE);
         
-        // Draw the grid
+        // Draw valid moves for current player (if it's the human's turn), then the stones
+        boolean wide = board.getSize() > Board.SIZE;
+        long moves = wide ? 0 : shownMoves();
+        boolean humanToMove = inputEnabled && board.getCurrentPlayer() == Stone.WHITE;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                Stone stone = board.getStone(row, col);
+                if (stone != Stone.EMPTY) {
+                    g.drawImage(stoneSprites.get(stone), col * CELL_SIZE, row * CELL_SIZE, null);
+                } else if (wide ? humanToMove && board.isValidMove(row, col, Stone.WHITE)
+                        : (moves & (1L << Bitboards.square(row, col))) != 0) {
+                    g.drawImage(moveSprite, col * CELL_SIZE, row * CELL_SIZE, null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the squares to mark as valid moves: the human's legal moves, while it is their turn.
+     * The legal moves are worked out once per position.
+     */
+    private long shownMoves() {
+        if (!inputEnabled || board.getCurrentPlayer() != Stone.WHITE) {
+            return 0;
+        }
+        if (!overlayValid || board.getHash() != overlayHash) {
+            overlayMoves = board.getValidMoveMask(Stone.WHITE);
+            overlayHash = board.getHash();
+            overlayValid = true;
+        }
+        return overlayMoves;
+    }
+
+    /**
+     * Renders the layers that never change: the board background and one sprite per stone
+     * color and for the valid-move indicator, in the screen's native format.
+     */
+    private void createLayers() {
+        background = createLayerImage(boardPixels(), Transparency.OPAQUE);
+        Graphics2D g2d = background.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setColor(BOARD_COLOR);
+        g2d.fillRect(0, 0, boardPixels(), boardPixels());
         drawGrid(g2d);
+        g2d.dispose();
         
-        // Draw valid moves for current player (if it's the human's turn)
-        if (inputEnabled && board.getCurrentPlayer() == Stone.WHITE) {
-            drawValidMoves(g2d);
+        for (Stone stone : new Stone[]{Stone.BLACK, Stone.WHITE}) {
+            BufferedImage sprite = createLayerImage(CELL_SIZE, Transparency.TRANSLUCENT);
+            g2d = sprite.createGraphics();
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            drawStone(g2d, stone);
+            g2d.dispose();
+            stoneSprites.put(stone, sprite);
         }
         
-        // Draw the stones
-        drawStones(g2d);
+        moveSprite = createLayerImage(CELL_SIZE, Transparency.TRANSLUCENT);
+        g2d = moveSprite.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setColor(VALID_MOVE_COLOR);
+        int indicatorSize = CELL_SIZE - STONE_PADDING * 4;
+        int offset = (CELL_SIZE - indicatorSize) / 2;
+        g2d.fillOval(offset, offset, indicatorSize, indicatorSize);
+        g2d.dispose();
+    }
+
+    /**
+     * Gets the width (and height) of the board in pixels.
+     */
+    private int boardPixels() {
+        return board.getSize() * CELL_SIZE;
+    }
+
+    /**
+     * Creates a square image compatible with the screen, so drawing it is a plain copy.
+     */
+    private BufferedImage createLayerImage(int size, int transparency) {
+        GraphicsConfiguration config = getGraphicsConfiguration();
+        if (config == null) {
+            return new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        }
+        return config.createCompatibleImage(size, size, transparency);
     }
 
     /**
@@ -104,19 +239,20 @@ public class BoardPanel extends JPanel {
         g2d.setStroke(new BasicStroke(2));
         
         // Vertical lines
-        for (int i = 0; i <= Board.SIZE; i++) {
+        int size = board.getSize();
+        for (int i = 0; i <= size; i++) {
             int x = i * CELL_SIZE;
-            g2d.drawLine(x, 0, x, BOARD_SIZE);
+            g2d.drawLine(x, 0, x, boardPixels());
         }
         
         // Horizontal lines
-        for (int i = 0; i <= Board.SIZE; i++) {
+        for (int i = 0; i <= size; i++) {
             int y = i * CELL_SIZE;
-            g2d.drawLine(0, y, BOARD_SIZE, y);
+            g2d.drawLine(0, y, boardPixels(), y);
         }
         
         // Draw small circles at the four star points (traditional board markers)
-        int[] starPoints = {2, 6};
+        int[] starPoints = {2, size - 2};
         int dotSize = 8;
         for (int row : starPoints) {
             for (int col : starPoints) {
@@ -128,57 +264,24 @@ public class BoardPanel extends JPanel {
     }
 
     /**
-     * Draws indicators for valid moves.
+     * Draws one stone filling a cell-sized sprite.
      */
-    private void drawValidMoves(Graphics2D g2d) {
-        List<int[]> validMoves = board.getValidMoves(board.getCurrentPlayer());
+    private void drawStone(Graphics2D g2d, Stone stone) {
+        int stoneSize = CELL_SIZE - STONE_PADDING * 2;
+        int x = STONE_PADDING;
+        int y = STONE_PADDING;
         
-        g2d.setColor(VALID_MOVE_COLOR);
-        int indicatorSize = CELL_SIZE - STONE_PADDING * 4;
+        // Draw the stone
+        g2d.setColor(stone == Stone.BLACK ? BLACK_STONE : WHITE_STONE);
+        g2d.fillOval(x, y, stoneSize, stoneSize);
         
-        for (int[] move : validMoves) {
-            int x = move[1] * CELL_SIZE + (CELL_SIZE - indicatorSize) / 2;
-            int y = move[0] * CELL_SIZE + (CELL_SIZE - indicatorSize) / 2;
-            g2d.fillOval(x, y, indicatorSize, indicatorSize);
-        }
-    }
-
-    /**
-     * Draws all the stones on the board.
-     */
-    private void drawStones(Graphics2D g2d) {
-        int stoneSize = CELL_SIZE - STONE_PADDING * 2;
+        // Draw border
+        g2d.setColor(STONE_BORDER);
+        g2d.setStroke(new BasicStroke(1.5f));
+        g2d.drawOval(x, y, stoneSize, stoneSize);
         
-        for (int row = 0; row < Board.SIZE; row++) {
-            for (int col = 0; col < Board.SIZE; col++) {
-                Stone stone = board.getStone(row, col);
-                
-                if (stone != Stone.EMPTY) {
-                    int x = col * CELL_SIZE + STONE_PADDING;
-                    int y = row * CELL_SIZE + STONE_PADDING;
-                    
-                    // Draw the stone
-                    Color stoneColor = (stone == Stone.BLACK) ? BLACK_STONE : WHITE_STONE;
-                    g2d.setColor(stoneColor);
-                    g2d.fillOval(x, y, stoneSize, stoneSize);
-                    
-                    // Draw border
-                    g2d.setColor(STONE_BORDER);
-                    g2d.setStroke(new BasicStroke(1.5f));
-                    g2d.drawOval(x, y, stoneSize, stoneSize);
-                    
-                    // Add subtle gradient/highlight effect
-                    if (stone == Stone.WHITE) {
-                        g2d.setColor(new Color(255, 255, 255, 100));
-                        g2d.fillOval(x + 5, y + 5, stoneSize / 3, stoneSize / 3);
-                    } else {
-                        g2d.setColor(new Color(100, 100, 100, 80));
-                        g2d.fillOval(x + 5, y + 5, stoneSize / 3, stoneSize / 3);
-                    }
-                }
-            }
-        }
+        // Add subtle gradient/highlight effect
+        g2d.setColor(stone == Stone.WHITE ? WHITE_HIGHLIGHT : BLACK_HIGHLIGHT);
+        g2d.fillOval(x + 5, y + 5, stoneSize / 3, stoneSize / 3);
     }
 }
-
-
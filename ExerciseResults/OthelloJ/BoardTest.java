@@ -3,6 +3,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -45,9 +46,9 @@ class BoardTest {
     }
     
     @Test
-    @DisplayName("Black moves first")
-    void testBlackMovesFirst() {
-        assertEquals(Stone.BLACK, board.getCurrentPlayer(), "Black should move first");
+    @DisplayName("White moves first")
+    void testWhiteMovesFirst() {
+        assertEquals(Stone.WHITE, board.getCurrentPlayer(), "White should move first");
     }
     
     @Test
@@ -62,11 +63,11 @@ class BoardTest {
     @Test
     @DisplayName("Valid move on empty cell that flanks opponent is accepted")
     void testValidMoveIsAccepted() {
-        // Black's valid opening moves are: (2,3), (3,2), (4,5), (5,4)
-        assertTrue(board.isValidMove(2, 3), "Move at (2,3) should be valid for Black");
-        assertTrue(board.isValidMove(3, 2), "Move at (3,2) should be valid for Black");
-        assertTrue(board.isValidMove(4, 5), "Move at (4,5) should be valid for Black");
-        assertTrue(board.isValidMove(5, 4), "Move at (5,4) should be valid for Black");
+        // White's valid opening moves are: (2,4), (3,5), (4,2), (5,3)
+        assertTrue(board.isValidMove(2, 4), "Move at (2,4) should be valid for White");
+        assertTrue(board.isValidMove(3, 5), "Move at (3,5) should be valid for White");
+        assertTrue(board.isValidMove(4, 2), "Move at (4,2) should be valid for White");
+        assertTrue(board.isValidMove(5, 3), "Move at (5,3) should be valid for White");
     }
     
     @Test
@@ -97,32 +98,32 @@ class BoardTest {
     @Test
     @DisplayName("Making a move flips opponent pieces horizontally")
     void testFlipHorizontal() {
-        // Black plays at (3, 2), should flip (3, 3) from WHITE to BLACK
-        board.makeMove(3, 2);
+        // White plays at (3, 5), should flip (3, 4) from BLACK to WHITE
+        board.makeMove(3, 5);
         
-        assertEquals(Stone.BLACK, board.getStone(3, 2), "Placed stone should be BLACK");
-        assertEquals(Stone.BLACK, board.getStone(3, 3), "Flipped stone at (3,3) should now be BLACK");
+        assertEquals(Stone.WHITE, board.getStone(3, 5), "Placed stone should be WHITE");
+        assertEquals(Stone.WHITE, board.getStone(3, 4), "Flipped stone at (3,4) should now be WHITE");
     }
     
     @Test
     @DisplayName("Making a move flips opponent pieces vertically")
     void testFlipVertical() {
-        // Black plays at (2, 3), should flip (3, 3) from WHITE to BLACK vertically
-        board.makeMove(2, 3);
+        // White plays at (2, 4), should flip (3, 4) from BLACK to WHITE vertically
+        board.makeMove(2, 4);
         
-        assertEquals(Stone.BLACK, board.getStone(2, 3), "Placed stone should be BLACK");
-        assertEquals(Stone.BLACK, board.getStone(3, 3), "Flipped stone at (3,3) should now be BLACK");
+        assertEquals(Stone.WHITE, board.getStone(2, 4), "Placed stone should be WHITE");
+        assertEquals(Stone.WHITE, board.getStone(3, 4), "Flipped stone at (3,4) should now be WHITE");
     }
     
     @Test
     @DisplayName("Score updates correctly after move")
     void testScoreUpdatesAfterMove() {
         // Initial: 2 black, 2 white
-        // Black plays at (3, 2): places 1 black, flips 1 white -> 4 black, 1 white
-        board.makeMove(3, 2);
+        // White plays at (3, 5): places 1 white, flips 1 black -> 4 white, 1 black
+        board.makeMove(3, 5);
         
-        assertEquals(4, board.countStones(Stone.BLACK), "Black should have 4 stones after move");
-        assertEquals(1, board.countStones(Stone.WHITE), "White should have 1 stone after move");
+        assertEquals(4, board.countStones(Stone.WHITE), "White should have 4 stones after move");
+        assertEquals(1, board.countStones(Stone.BLACK), "Black should have 1 stone after move");
     }
     
     @Test
@@ -135,16 +136,35 @@ class BoardTest {
         assertEquals(3, flips.get(0)[1], "Flipped stone should be at column 3");
     }
     
+    @Test
+    @DisplayName("countFlips and getFlipMask agree with getStonesToFlip")
+    void testFlipCountAndMask() {
+        assertEquals(1, board.countFlips(3, 2, Stone.BLACK), "Should flip exactly 1 stone");
+        assertEquals(1L << 27, board.getFlipMask(3, 2, Stone.BLACK), "Flip mask should contain (3,3)");
+        assertEquals(0, board.countFlips(3, 3, Stone.BLACK), "Occupied cell should flip nothing");
+        assertEquals(0L, board.getFlipMask(-1, 0, Stone.BLACK), "Off-board cell should flip nothing");
+    }
+    
+    @Test
+    @DisplayName("getFlippedSquares writes square indices into the buffer")
+    void testGetFlippedSquares() {
+        int[] buffer = new int[Board.SIZE * Board.SIZE];
+        int count = board.getFlippedSquares(3, 2, Stone.BLACK, buffer);
+        
+        assertEquals(1, count, "Should write exactly 1 square");
+        assertEquals(27, buffer[0], "Flipped square should be (3,3) = 27");
+    }
+    
     // ==================== Turn Management Tests ====================
     
     @Test
     @DisplayName("Turn switches to opponent after valid move")
     void testTurnSwitchesAfterMove() {
-        assertEquals(Stone.BLACK, board.getCurrentPlayer(), "Should start as Black's turn");
+        assertEquals(Stone.WHITE, board.getCurrentPlayer(), "Should start as White's turn");
         
-        board.makeMove(3, 2);
+        board.makeMove(3, 5);
         
-        assertEquals(Stone.WHITE, board.getCurrentPlayer(), "Should be White's turn after Black moves");
+        assertEquals(Stone.BLACK, board.getCurrentPlayer(), "Should be Black's turn after White moves");
     }
     
     @Test
@@ -166,6 +186,19 @@ class BoardTest {
         assertEquals(4, blackMoves.size(), "Black should have 4 valid moves at game start");
     }
     
+    @Test
+    @DisplayName("Move iterator yields the same squares as getValidMoves")
+    void testValidMoveIterator() {
+        List<int[]> expected = board.getValidMoves(Stone.BLACK);
+        MoveIterator moves = board.getValidMoves(Stone.BLACK, new MoveIterator());
+        
+        for (int[] move : expected) {
+            assertTrue(moves.hasNext(), "Iterator should not run out early");
+            assertEquals(move[0] * Board.SIZE + move[1], moves.nextInt(), "Squares should be in row-major order");
+        }
+        assertFalse(moves.hasNext(), "Iterator should be exhausted");
+    }
+    
     @Test
     @DisplayName("hasValidMoves returns true when moves exist")
     void testHasValidMovesTrue() {
@@ -194,11 +227,96 @@ class BoardTest {
         Board copy = new Board(board);
         
         // Make a move on the original
-        board.makeMove(3, 2);
+        board.makeMove(3, 5);
         
         // Copy should still have original state
-        assertEquals(Stone.WHITE, copy.getStone(3, 3), "Copy should not be affected by original");
-        assertEquals(Stone.BLACK, board.getStone(3, 3), "Original should have the flipped stone");
+        assertEquals(Stone.BLACK, copy.getStone(3, 4), "Copy should not be affected by original");
+        assertEquals(Stone.WHITE, board.getStone(3, 4), "Original should have the flipped stone");
+    }
+    
+    // ==================== Undo Tests ====================
+    
+    @Test
+    @DisplayName("Square-index makeMove returns the flip mask and records history")
+    void testMakeMoveBySquare() {
+        Stone mover = board.getCurrentPlayer();
+        int square = Long.numberOfTrailingZeros(board.getValidMoveMask(mover));
+        
+        long flips = board.makeMove(square);
+        
+        assertNotEquals(0L, flips, "Valid move should flip stones");
+        assertEquals(1, board.getHistorySize(), "Move should be recorded");
+        assertEquals(square, board.getHistoryMove(0), "Recorded square should match");
+        assertEquals(mover, board.getHistoryPlayer(0), "Recorded player should match");
+        assertEquals(0L, board.makeMove(0), "Invalid move should return 0");
+        assertEquals(1, board.getHistorySize(), "Invalid move should not be recorded");
+    }
+    
+    @Test
+    @DisplayName("Undoing every move restores the starting position")
+    void testUndoRestoresPosition() {
+        String start = board.toString();
+        Stone startPlayer = board.getCurrentPlayer();
+        long black = board.getBitboard(Stone.BLACK);
+        long white = board.getBitboard(Stone.WHITE);
+        
+        // Play the first valid move until the game ends
+        while (!board.isGameOver()) {
+            board.makeMove(Long.numberOfTrailingZeros(board.getValidMoveMask(board.getCurrentPlayer())));
+        }
+        while (board.getHistorySize() > 0) {
+            board.undoMove();
+        }
+        
+        assertEquals(start, board.toString(), "Stones should be restored");
+        assertEquals(black, board.getBitboard(Stone.BLACK), "Black mask should be restored");
+        assertEquals(white, board.getBitboard(Stone.WHITE), "White mask should be restored");
+        assertEquals(startPlayer, board.getCurrentPlayer(), "Player to move should be restored");
+    }
+    
+    @Test
+    @DisplayName("Undo with empty history throws exception")
+    void testUndoWithoutHistory() {
+        assertThrows(IllegalStateException.class, () -> board.undoMove());
+    }
+    
+    // ==================== Hashing Tests ====================
+    
+    @Test
+    @DisplayName("Incremental hash matches a full recomputation and is restored by undo")
+    void testIncrementalHash() {
+        long startHash = board.getHash();
+        
+        while (!board.isGameOver()) {
+            board.makeMove(Long.numberOfTrailingZeros(board.getValidMoveMask(board.getCurrentPlayer())));
+            long expected = Zobrist.hash(board.getBitboard(Stone.BLACK), board.getBitboard(Stone.WHITE),
+                board.getCurrentPlayer());
+            assertEquals(expected, board.getHash(), "Hash should match recomputation");
+        }
+        while (board.getHistorySize() > 0) {
+            board.undoMove();
+        }
+        
+        assertEquals(startHash, board.getHash(), "Hash should be restored by undo");
+    }
+    
+    @Test
+    @DisplayName("Transposed move orders give equal boards with equal hashes")
+    void testTranspositionsAreEqual() {
+        // The first player's e3 and f4 do not interact, so either can be played first
+        Board other = new Board();
+        for (String move : new String[]{"e3", "f3", "f4"}) {
+            board.makeMove(Bitboards.parseSquare(move));
+        }
+        for (String move : new String[]{"f4", "f3", "e3"}) {
+            other.makeMove(Bitboards.parseSquare(move));
+        }
+        assertNotEquals(board.getHistoryMove(0), other.getHistoryMove(0), "The move orders should differ");
+        
+        assertEquals(board, other, "Transposed moves should give equal boards");
+        assertEquals(board.getHash(), other.getHash(), "Transposed moves should give equal Zobrist hashes");
+        assertEquals(board.hashCode(), other.hashCode(), "Equal boards should have equal hash codes");
+        assertNotEquals(new Board(), board, "Different positions should not be equal");
     }
     
     // ==================== Stone Enum Tests ====================
@@ -224,17 +342,17 @@ class BoardTest {
     @Test
     @DisplayName("Multiple consecutive moves work correctly")
     void testMultipleMoves() {
-        // Black moves
-        assertTrue(board.makeMove(3, 2), "First move should succeed");
-        assertEquals(Stone.WHITE, board.getCurrentPlayer());
-        
         // White moves
-        assertTrue(board.makeMove(2, 2), "Second move should succeed");
+        assertTrue(board.makeMove(3, 5), "First move should succeed");
         assertEquals(Stone.BLACK, board.getCurrentPlayer());
         
-        // Black moves again
-        assertTrue(board.makeMove(2, 3), "Third move should succeed");
+        // Black moves
+        assertTrue(board.makeMove(2, 5), "Second move should succeed");
         assertEquals(Stone.WHITE, board.getCurrentPlayer());
+        
+        // White moves again
+        assertTrue(board.makeMove(2, 4), "Third move should succeed");
+        assertEquals(Stone.BLACK, board.getCurrentPlayer());
     }
     
     @Test
@@ -248,6 +366,125 @@ class BoardTest {
         assertEquals(blackCountBefore, board.countStones(Stone.BLACK), "Stone count should not change");
         assertEquals(playerBefore, board.getCurrentPlayer(), "Current player should not change");
     }
+    
+    @Test
+    @DisplayName("Cached legal moves and game-over state match a fresh computation through moves and undos")
+    void testCachedMovesMatchFreshComputation() {
+        Random random = new Random(18);
+        for (int game = 0; game < 50; game++) {
+            Board board = new Board();
+            while (!board.isGameOver()) {
+                assertCacheMatches(board);
+                assertCacheMatches(new Board(board));
+                int square = Bitboards.randomSquare(board.getValidMoveMask(board.getCurrentPlayer()), random);
+                board.makeMove(square);
+                if (random.nextInt(4) == 0) {
+                    board.undoMove();
+                    assertCacheMatches(board);
+                    board.makeMove(square);
+                }
+            }
+            assertCacheMatches(board);
+        }
+    }
+    
+    @Test
+    @DisplayName("Smaller boards start in their own middle and never play off the board")
+    void testSmallerBoards() {
+        Random random = new Random(23);
+        for (int size : new int[]{4, 6}) {
+            long squares = Bitboards.squareMask(size);
+            assertEquals(size * size, Long.bitCount(squares));
+            for (int game = 0; game < 20; game++) {
+                Board board = new Board(size);
+                assertEquals(size, board.getSize());
+                assertEquals(Stone.WHITE, board.getStone(size / 2 - 1, size / 2 - 1));
+                assertEquals(size * size - 4, Long.bitCount(board.getBitboard(Stone.EMPTY)));
+                while (!board.isGameOver()) {
+                    long moves = board.getValidMoveMask(board.getCurrentPlayer());
+                    assertEquals(0, moves & ~squares, "Moves should stay on the board:\n" + board);
+                    board.makeMove(Bitboards.randomSquare(moves, random));
+                }
+                assertEquals(0, (board.getBitboard(Stone.BLACK) | board.getBitboard(Stone.WHITE)) & ~squares);
+                assertFalse(board.isValidPosition(size, 0));
+                assertEquals(0L, board.makeMove(size), "Off-board squares cannot be played");
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Board sizes are checked and take part in equality and the hash")
+    void testBoardSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new Board(12));
+        assertThrows(IllegalArgumentException.class, () -> new Board(5));
+        assertThrows(IllegalArgumentException.class, () -> new Board(2));
+        assertThrows(IllegalArgumentException.class, () -> new Board(6, 1L << 7, 0L, Stone.BLACK),
+            "Stone off a 6x6 board");
+        
+        Board small = new Board(6);
+        Board copy = new Board(small);
+        assertEquals(6, copy.getSize());
+        assertEquals(small, copy);
+        assertEquals(small.getHash(), copy.getHash());
+        
+        Board sameStones = new Board(8, small.getBitboard(Stone.BLACK), small.getBitboard(Stone.WHITE),
+            small.getCurrentPlayer());
+        assertNotEquals(small, sameStones);
+        assertNotEquals(small.getHash(), sameStones.getHash());
+        assertEquals(new Board().getHash(), new Board(8).getHash());
+    }
+    
+    @Test
+    @DisplayName("10x10 boards undo moves, hash transpositions equally and reject 64-bit masks")
+    void testTenByTenBoard() {
+        Board wide = new Board(10);
+        assertEquals(Stone.WHITE, wide.getStone(4, 4));
+        assertEquals(Stone.BLACK, wide.getStone(4, 5));
+        assertNotEquals(new Board().getHash(), wide.getHash());
+        
+        // Play into the high word (squares 64 and up) and back out again
+        String start = wide.toString();
+        long startHash = wide.getHash();
+        Random random = new Random(10);
+        while (!wide.isGameOver()) {
+            List<int[]> moves = wide.getValidMoves(wide.getCurrentPlayer());
+            int[] move = moves.get(random.nextInt(moves.size()));
+            assertTrue(wide.makeMove(move[0], move[1]));
+            assertEquals(new Board(wide), wide, "Copies should be equal");
+        }
+        assertTrue(wide.getHistorySize() > 64, "A 10x10 game should outlast an 8x8 one");
+        while (wide.getHistorySize() > 0) {
+            wide.undoMove();
+        }
+        assertEquals(start, wide.toString(), "Stones should be restored");
+        assertEquals(startHash, wide.getHash(), "Hash should be restored by undo");
+        
+        // The 8x8 transposition above, turned half around so it plays on squares 63 and 64
+        Board other = new Board(10);
+        for (int[] move : new int[][]{{6, 4}, {6, 3}, {5, 3}}) {
+            assertTrue(wide.makeMove(move[0], move[1]));
+        }
+        for (int[] move : new int[][]{{5, 3}, {6, 3}, {6, 4}}) {
+            assertTrue(other.makeMove(move[0], move[1]));
+        }
+        assertEquals(wide, other, "Transposed moves should give equal boards");
+        assertEquals(wide.getHash(), other.getHash(), "Transposed moves should give equal Zobrist hashes");
+        
+        assertThrows(IllegalStateException.class, () -> wide.getBitboard(Stone.BLACK));
+        assertThrows(IllegalStateException.class, () -> wide.getValidMoveMask(Stone.BLACK));
+        assertThrows(IllegalStateException.class, () -> wide.makeMove(0));
+        assertThrows(IllegalArgumentException.class, () -> new Board(10, 0L, 0L, Stone.BLACK));
+    }
+    
+    private void assertCacheMatches(Board board) {
+        Stone player = board.getCurrentPlayer();
+        long black = board.getBitboard(Stone.BLACK);
+        long white = board.getBitboard(Stone.WHITE);
+        long own = player == Stone.BLACK ? Bitboards.legalMoves(black, white) : Bitboards.legalMoves(white, black);
+        long other = player == Stone.BLACK ? Bitboards.legalMoves(white, black) : Bitboards.legalMoves(black, white);
+        assertEquals(own, board.getValidMoveMask(player), "Cached moves should match");
+        assertEquals(own, board.getValidMoveMask(player), "Cached moves should stay the same");
+        assertEquals(other, board.getValidMoveMask(player.opposite()));
+        assertEquals(own == 0 && other == 0, board.isGameOver());
+    }
 }
-
-
@@ -0,0 +1,43 @@
+/**
+ * Strength levels for the AI player.
+ */
+public enum Difficulty {
+    /** One-ply greedy play with some randomness. */
+    BEGINNER(null),
+    /** Shallow fixed-depth search. */
+    INTERMEDIATE(SearchLimits.depth(4).withTime(250)),
+    /** Iterative deepening search for up to a second per move. */
+    EXPERT(SearchLimits.time(1000));
+
+    private final SearchLimits searchLimits;
+
+    Difficulty(SearchLimits searchLimits) {
+        this.searchLimits = searchLimits;
+    }
+
+    /**
+     * Checks whether this level uses the search engine.
+     * @return true if moves are chosen by search rather than the greedy strategy
+     */
+    public boolean usesSearch() {
+        return searchLimits != null;
+    }
+
+    /**
+     * Checks whether this level can play on a board of a given size. The search, book and
+     * pattern tables are for boards up to 8x8, so larger boards are played greedily only.
+     * @param size the board size
+     * @return true if the level plays on boards of that size
+     */
+    public boolean supportsBoardSize(int size) {
+        return !usesSearch() || size <= Board.SIZE;
+    }
+
+    /**
+     * Gets the search budget for this level.
+     * @return the search limits, or null for the greedy level
+     */
+    public SearchLimits getSearchLimits() {
+        return searchLimits;
+    }
+}
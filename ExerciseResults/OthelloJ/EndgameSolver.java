@@ -0,0 +1,446 @@
+import java.util.Random;
+
+/**
+ * Exact solver for positions with few empty squares.
+ * Computes the final disc margin with perfect play, or in win/loss/draw mode only
+ * whether the player to move wins, which needs far fewer nodes.
+ * <p>
+ * Works directly on player/opponent masks. Moves are ordered fastest-first (fewest
+ * opponent replies) while many squares are empty, then by parity (squares in
+ * quadrants with an odd number of empties first); the last three empties have
+ * dedicated routines that skip move generation entirely.
+ */
+public class EndgameSolver {
+
+    /**
+     * Default number of empties at which the search switches to the solver,
+     * configurable with {@code -Dothello.endgameEmpties=N}.
+     */
+    public static final int DEFAULT_THRESHOLD = Integer.getInteger("othello.endgameEmpties", 14);
+
+    private static final int INFINITY = 65;
+
+    // Below this many empties, cheap parity ordering beats fastest-first
+    private static final int FASTEST_FIRST_EMPTIES = 7;
+
+    private static final int CHECK_INTERVAL = 4096;
+
+    // The four 4x4 quadrants, used for parity ordering
+    private static final long[] QUADRANTS = {
+        0x000000000F0F0F0FL, 0x00000000F0F0F0F0L,
+        0x0F0F0F0F00000000L, 0xF0F0F0F000000000L
+    };
+
+    private static final long CORNERS = 0x8100000000000081L;
+
+    // The squares and corners of the board being solved; smaller boards leave some squares out
+    private long squareMask = -1L;
+    private long corners = CORNERS;
+
+    // Move ordering scratch space, one row per empty count so recursion never allocates;
+    // a position can have more than 32 moves, so each row holds one per square
+    private final int[][] moveBuffers = new int[65][64];
+    private final int[][] keyBuffers = new int[65][64];
+
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private boolean aborted;
+    private volatile boolean stopRequested;
+
+    /**
+     * Solves a position exactly.
+     * @param board the position to solve
+     * @return the best move with its exact score (disc margin in hundredths of a disc)
+     */
+    public SearchResult solve(Board board) {
+        return solve(board, false, 0, 0);
+    }
+
+    /**
+     * Solves a position for win, loss or draw only.
+     * @param board the position to solve
+     * @return the best move; its score is +DISC for a win, 0 for a draw and -DISC for a loss
+     */
+    public SearchResult solveWinLossDraw(Board board) {
+        return solve(board, true, 0, 0);
+    }
+
+    /**
+     * Solves a position within a budget.
+     * @param board the position to solve
+     * @param winLossDraw true to only determine the game result
+     * @param timeMillis time budget in milliseconds, or 0 for none
+     * @param maxNodes node budget, or 0 for none
+     * @return the solved result, or null if the budget ran out or the solve was stopped
+     */
+    public SearchResult solve(Board board, boolean winLossDraw, long timeMillis, long maxNodes) {
+        clearStop();
+        return solveSubmitted(board, winLossDraw, timeMillis, maxNodes);
+    }
+
+    /**
+     * Solves a position within a budget without clearing an earlier stop request,
+     * for a solve that is part of a search whose caller already cleared it.
+     */
+    SearchResult solveSubmitted(Board board, boolean winLossDraw, long timeMillis, long maxNodes) {
+        EngineEvents.EndgameSolve event = new EngineEvents.EndgameSolve();
+        event.begin();
+        SearchResult result = solveRoot(board, winLossDraw, timeMillis, maxNodes);
+        if (event.shouldCommit()) {
+            event.empties = Long.bitCount(board.getBitboard(Stone.EMPTY));
+            event.winLossDraw = winLossDraw;
+            event.nodes = nodes;
+            event.completed = result != null;
+            event.bestMove = EngineEvents.moveName(result != null ? result.getMove() : -1);
+            event.score = result != null ? result.getScore() : 0;
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * Solves a position within a budget, for {@link #solveSubmitted(Board, boolean, long, long)}.
+     */
+    private SearchResult solveRoot(Board board, boolean winLossDraw, long timeMillis, long maxNodes) {
+        long start = System.nanoTime();
+        nodes = 0;
+        nodeLimit = maxNodes;
+        deadline = timeMillis > 0 ? start + timeMillis * 1_000_000 : Long.MAX_VALUE;
+        aborted = false;
+
+        squareMask = board.getSquareMask();
+        corners = Bitboards.cornerMask(board.getSize());
+        Stone player = board.getCurrentPlayer();
+        long own = board.getBitboard(player);
+        long opponent = board.getBitboard(player.opposite());
+        int empties = Long.bitCount(squareMask & ~(own | opponent));
+
+        int alpha = winLossDraw ? -1 : -INFINITY;
+        int beta = winLossDraw ? 1 : INFINITY;
+
+        long moves = Bitboards.legalMoves(own, opponent) & squareMask;
+        if (moves == 0) {
+            int score = solve(own, opponent, alpha, beta, false);
+            if (aborted) {
+                return null;
+            }
+            if (winLossDraw) {
+                score = Integer.signum(score);
+            }
+            return new SearchResult(-1, score * Evaluator.DISC, empties, nodes, elapsedMillis(start));
+        }
+
+        int bestScore = -INFINITY;
+        int bestMove = -1;
+
+        int count = orderMoves(own, opponent, moves, empties);
+        int[] order = moveBuffers[empties];
+        for (int i = 0; i < count; i++) {
+            int square = order[i];
+            long flipped = Bitboards.flips(own, opponent, square);
+            int score = -solve(opponent & ~flipped, own | flipped | (1L << square), -beta, -alpha, false);
+            if (aborted) {
+                return null;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = square;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (winLossDraw) {
+            bestScore = Integer.signum(bestScore);
+        }
+        return new SearchResult(bestMove, bestScore * Evaluator.DISC, empties, nodes, elapsedMillis(start));
+    }
+
+    /**
+     * Asks a running solve to stop as soon as possible.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Clears a stop request so the next solve runs.
+     */
+    void clearStop() {
+        stopRequested = false;
+    }
+
+    /**
+     * Fail-soft alpha-beta down to the end of the game.
+     * @return the final disc margin for the player to move (a bound outside the window)
+     */
+    private int solve(long own, long opponent, int alpha, int beta, boolean passed) {
+        nodes++;
+        if (nodes % CHECK_INTERVAL == 0) {
+            checkLimits();
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        long empty = squareMask & ~(own | opponent);
+        int empties = Long.bitCount(empty);
+
+        switch (empties) {
+            case 0:
+                return margin(own, opponent);
+            case 1:
+                return solveLast(own, opponent, Long.numberOfTrailingZeros(empty));
+            case 2:
+            case 3:
+                return solveFew(own, opponent, empty, alpha, beta, passed);
+            default:
+                break;
+        }
+
+        long moves = Bitboards.legalMoves(own, opponent) & squareMask;
+        if (moves == 0) {
+            if (passed) {
+                return margin(own, opponent);
+            }
+            return -solve(opponent, own, -beta, -alpha, true);
+        }
+
+        int bestScore = -INFINITY;
+        int count = orderMoves(own, opponent, moves, empties);
+        int[] order = moveBuffers[empties];
+
+        for (int i = 0; i < count; i++) {
+            int square = order[i];
+            long flipped = Bitboards.flips(own, opponent, square);
+            long nextOwn = opponent & ~flipped;
+            long nextOpponent = own | flipped | (1L << square);
+
+            int score;
+            if (i == 0) {
+                score = -solve(nextOwn, nextOpponent, -beta, -alpha, false);
+            } else {
+                // Null-window probe; re-search only if the move might be better
+                score = -solve(nextOwn, nextOpponent, -alpha - 1, -alpha, false);
+                if (score > alpha && score < beta) {
+                    score = -solve(nextOwn, nextOpponent, -beta, -alpha, false);
+                }
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * Solves two or three empties by trying each empty square directly,
+     * odd-parity squares first, without generating a move mask.
+     */
+    private int solveFew(long own, long opponent, long empty, int alpha, int beta, boolean passed) {
+        nodes++;
+        int bestScore = -INFINITY;
+        boolean moved = false;
+
+        for (long remaining = empty; remaining != 0; ) {
+            int square = nextParitySquare(remaining, empty);
+            remaining &= ~(1L << square);
+
+            long flipped = Bitboards.flips(own, opponent, square);
+            if (flipped == 0) {
+                continue;
+            }
+            moved = true;
+
+            long nextOwn = opponent & ~flipped;
+            long nextOpponent = own | flipped | (1L << square);
+            long nextEmpty = empty & ~(1L << square);
+            int score = Long.bitCount(nextEmpty) == 1
+                ? -solveLast(nextOwn, nextOpponent, Long.numberOfTrailingZeros(nextEmpty))
+                : -solveFew(nextOwn, nextOpponent, nextEmpty, -beta, -alpha, false);
+
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        return bestScore;
+                    }
+                }
+            }
+        }
+
+        if (!moved) {
+            if (passed) {
+                return margin(own, opponent);
+            }
+            return -solveFew(opponent, own, empty, -beta, -alpha, true);
+        }
+        return bestScore;
+    }
+
+    /**
+     * Solves the last empty square: the player moves there if possible,
+     * otherwise the opponent does, otherwise the game ends with it empty.
+     */
+    private int solveLast(long own, long opponent, int square) {
+        nodes++;
+        long placed = 1L << square;
+
+        long flipped = Bitboards.flips(own, opponent, square);
+        if (flipped != 0) {
+            return margin(own | flipped | placed, opponent & ~flipped);
+        }
+
+        flipped = Bitboards.flips(opponent, own, square);
+        if (flipped != 0) {
+            return margin(own & ~flipped, opponent | flipped | placed);
+        }
+
+        return margin(own, opponent);
+    }
+
+    /**
+     * Orders moves into {@code moveBuffers[empties]}: fastest-first (fewest opponent
+     * replies, corners preferred) when many squares are empty, parity otherwise.
+     * @return the number of moves
+     */
+    private int orderMoves(long own, long opponent, long moves, int empties) {
+        int[] order = moveBuffers[empties];
+        int[] keys = keyBuffers[empties];
+        long empty = squareMask & ~(own | opponent);
+        int count = 0;
+
+        for (long m = moves; m != 0; m &= m - 1) {
+            int square = Long.numberOfTrailingZeros(m);
+            long placed = 1L << square;
+            int key;
+
+            if (empties >= FASTEST_FIRST_EMPTIES) {
+                long flipped = Bitboards.flips(own, opponent, square);
+                long replies = Bitboards.legalMoves(opponent & ~flipped, own | flipped | placed) & squareMask;
+                key = Long.bitCount(replies) * 4 - ((placed & corners) != 0 ? 2 : 0);
+            } else {
+                key = hasOddParity(empty, square) ? 0 : 1;
+            }
+
+            // Insertion sort by key, stable so ties keep square order
+            int i = count++;
+            while (i > 0 && keys[i - 1] > key) {
+                order[i] = order[i - 1];
+                keys[i] = keys[i - 1];
+                i--;
+            }
+            order[i] = square;
+            keys[i] = key;
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether a square's quadrant has an odd number of empty squares.
+     */
+    private static boolean hasOddParity(long empty, int square) {
+        for (long quadrant : QUADRANTS) {
+            if ((quadrant & (1L << square)) != 0) {
+                return (Long.bitCount(empty & quadrant) & 1) != 0;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Picks the next square to try from the remaining ones, odd-parity quadrants first.
+     */
+    private static int nextParitySquare(long remaining, long empty) {
+        for (long r = remaining; r != 0; r &= r - 1) {
+            int square = Long.numberOfTrailingZeros(r);
+            if (hasOddParity(empty, square)) {
+                return square;
+            }
+        }
+        return Long.numberOfTrailingZeros(remaining);
+    }
+
+    private static int margin(long own, long opponent) {
+        return Long.bitCount(own) - Long.bitCount(opponent);
+    }
+
+    private void checkLimits() {
+        if (stopRequested
+                || (nodeLimit > 0 && nodes >= nodeLimit)
+                || System.nanoTime() >= deadline) {
+            aborted = true;
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * Reports solve time and speed for random positions at each empty count,
+     * to tune the endgame threshold against a per-move latency target.
+     * Usage: {@code java EndgameSolver [minEmpties] [maxEmpties] [positions]}
+     * @param args optional empty-count range and positions per count
+     */
+    public static void main(String[] args) {
+        int minEmpties = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int maxEmpties = args.length > 1 ? Integer.parseInt(args[1]) : 18;
+        int positionCount = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        EndgameSolver solver = new EndgameSolver();
+        Random random = new Random(1);
+
+        System.out.printf("%8s %5s %12s %14s %12s %12s%n", "empties", "mode", "avg ms", "avg nodes", "max ms", "nodes/sec");
+        for (int empties = minEmpties; empties <= maxEmpties; empties++) {
+            Board[] positions = new Board[positionCount];
+            for (int i = 0; i < positionCount; i++) {
+                positions[i] = randomPosition(random, empties);
+            }
+            for (boolean winLossDraw : new boolean[]{false, true}) {
+                long totalTime = 0;
+                long maxTime = 0;
+                long totalNodes = 0;
+                for (Board position : positions) {
+                    long start = System.nanoTime();
+                    SearchResult result = solver.solve(position, winLossDraw, 0, 0);
+                    long time = (System.nanoTime() - start) / 1_000_000;
+                    totalTime += time;
+                    maxTime = Math.max(maxTime, time);
+                    totalNodes += result.getNodes();
+                }
+                System.out.printf("%8d %5s %12.1f %14d %12d %12d%n", empties, winLossDraw ? "wld" : "exact",
+                    (double) totalTime / positionCount, totalNodes / positionCount, maxTime,
+                    totalTime == 0 ? 0 : totalNodes * 1000 / totalTime);
+            }
+        }
+    }
+
+    /**
+     * Plays random moves until the given number of empties remain with a move available.
+     */
+    private static Board randomPosition(Random random, int empties) {
+        while (true) {
+            Board board = new Board();
+            while (!board.isGameOver() && Long.bitCount(board.getBitboard(Stone.EMPTY)) > empties) {
+                board.makeMove(Bitboards.randomSquare(board.getValidMoveMask(board.getCurrentPlayer()), random));
+            }
+            if (!board.isGameOver()) {
+                return board;
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the EndgameSolver class.
+ */
+class EndgameSolverTest {
+
+    @Test
+    @DisplayName("Exact solve matches a full minimax to the end of the game")
+    void testMatchesMinimax() {
+        Random random = new Random(21);
+        EndgameSolver solver = new EndgameSolver();
+
+        for (int i = 0; i < 30; i++) {
+            Board board = TestPositions.positionWithEmpties(random, 1 + random.nextInt(8));
+            SearchResult result = solver.solve(board);
+
+            assertEquals(minimax(board) * Evaluator.DISC, result.getScore(), "Exact score mismatch:\n" + board);
+            assertTrue(board.isValidMove(result.getMovePosition()[0], result.getMovePosition()[1]), "Move should be valid");
+        }
+    }
+
+    @Test
+    @DisplayName("Win/loss/draw solve agrees with the sign of the exact score")
+    void testWinLossDraw() {
+        Random random = new Random(22);
+        EndgameSolver solver = new EndgameSolver();
+
+        for (int i = 0; i < 30; i++) {
+            Board board = TestPositions.positionWithEmpties(random, 4 + random.nextInt(8));
+            int exact = solver.solve(board).getScore();
+            int result = solver.solveWinLossDraw(board).getScore();
+
+            assertEquals(Integer.signum(exact) * Evaluator.DISC, result, "Result mismatch:\n" + board);
+        }
+    }
+
+    @Test
+    @DisplayName("Solve gives up when the node budget runs out")
+    void testNodeBudget() {
+        Board board = TestPositions.positionWithEmpties(new Random(23), 20);
+
+        assertNull(new EndgameSolver().solve(board, false, 0, 10_000), "Solve should give up");
+    }
+
+    @Test
+    @DisplayName("Solve orders a root with more than 32 moves")
+    void testManyMoves() {
+        assertNull(new EndgameSolver().solve(TestPositions.manyMoves(), false, 0, 10_000), "Solve should give up");
+    }
+
+    @Test
+    @DisplayName("Search engine switches to the solver below the threshold")
+    void testSearchUsesSolver() {
+        Board board = TestPositions.positionWithEmpties(new Random(24), 8);
+
+        SearchResult result = new SearchEngine().search(board, SearchLimits.depth(2));
+
+        assertEquals(8, result.getDepth(), "Solved result should report every empty as searched");
+        assertEquals(new EndgameSolver().solve(board).getScore(), result.getScore(), "Score should be exact");
+    }
+
+    @Test
+    @DisplayName("Small boards are solved exactly, counting only their own squares")
+    void testSmallBoard() {
+        Board board = new Board(4);
+        SearchResult result = new EndgameSolver().solve(board);
+
+        assertEquals(minimax(board) * Evaluator.DISC, result.getScore());
+        assertEquals(12, result.getDepth(), "Depth should be the empties on the 4x4 board");
+        assertTrue(board.isValidMove(result.getMovePosition()[0], result.getMovePosition()[1]));
+    }
+
+    private static int minimax(Board board) {
+        Stone player = board.getCurrentPlayer();
+        long moves = board.getValidMoveMask(player);
+        if (moves == 0) {
+            return board.countStones(player) - board.countStones(player.opposite());
+        }
+
+        int best = Integer.MIN_VALUE;
+        for (; moves != 0; moves &= moves - 1) {
+            board.makeMove(Long.numberOfTrailingZeros(moves));
+            int score = board.getCurrentPlayer() == player ? minimax(board) : -minimax(board);
+            board.undoMove();
+            best = Math.max(best, score);
+        }
+        return best;
+    }
+}
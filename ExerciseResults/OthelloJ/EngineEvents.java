@@ -0,0 +1,147 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for engine activity, so slow AI moves can be lined up with
+ * GC pauses, safepoints and CPU contention in a recording, e.g. one started with
+ * {@code -XX:StartFlightRecording:filename=othello.jfr}.
+ * <p>
+ * The events are enabled by default in a recording and cost next to nothing when no
+ * recording is running. Stack traces are off, as the call sites are fixed.
+ */
+public final class EngineEvents {
+
+    private EngineEvents() {
+    }
+
+    /**
+     * One move chosen by an {@link AIPlayer}, from the book, by search, as the only legal
+     * move or greedily.
+     */
+    @Name("othello.ChooseMove")
+    @Label("Choose Move")
+    @Category({"Othello", "AI"})
+    @Description("An AI player choosing a move")
+    @StackTrace(false)
+    public static class ChooseMove extends Event {
+        @Label("Player")
+        String player;
+
+        @Label("Difficulty")
+        String difficulty;
+
+        @Label("Source")
+        @Description("book, search, ponder, forced or greedy")
+        String source;
+
+        @Label("Move")
+        String move;
+
+        @Label("Empties")
+        int empties;
+
+        @Label("Depth")
+        int depth;
+
+        @Label("Nodes")
+        long nodes;
+
+        @Label("Score")
+        @Description("Search score in hundredths of a disc")
+        int score;
+
+        @Label("Ponder Hit")
+        boolean ponderHit;
+    }
+
+    /**
+     * One iteration of iterative deepening in a {@link SearchEngine}, on any search thread.
+     */
+    @Name("othello.SearchIteration")
+    @Label("Search Iteration")
+    @Category({"Othello", "Search"})
+    @Description("One depth of an iterative-deepening search")
+    @StackTrace(false)
+    public static class SearchIteration extends Event {
+        @Label("Depth")
+        int depth;
+
+        @Label("Nodes")
+        @Description("Nodes searched in this iteration")
+        long nodes;
+
+        @Label("Best Move")
+        String bestMove;
+
+        @Label("Score")
+        @Description("Score in hundredths of a disc, if the iteration completed")
+        int score;
+
+        @Label("Completed")
+        @Description("False if the time, node budget or a stop cut the iteration short")
+        boolean completed;
+    }
+
+    /**
+     * One exact or win/loss/draw solve by the {@link EndgameSolver}.
+     */
+    @Name("othello.EndgameSolve")
+    @Label("Endgame Solve")
+    @Category({"Othello", "Search"})
+    @Description("An exact endgame solve")
+    @StackTrace(false)
+    public static class EndgameSolve extends Event {
+        @Label("Empties")
+        int empties;
+
+        @Label("Win/Loss/Draw Only")
+        boolean winLossDraw;
+
+        @Label("Nodes")
+        long nodes;
+
+        @Label("Best Move")
+        String bestMove;
+
+        @Label("Score")
+        @Description("Score in hundredths of a disc, if the solve completed")
+        int score;
+
+        @Label("Completed")
+        boolean completed;
+    }
+
+    /**
+     * One {@link Perft} count, with its move generation, board copies and make/undo moves.
+     * Only Perft records it: move generation during play and analysis is part of each
+     * {@link SearchIteration}, whose node count it drives, as a per-call event would cost
+     * more than the move generation it measured.
+     */
+    @Name("othello.PerftCount")
+    @Label("Perft Count")
+    @Category({"Othello", "Board"})
+    @Description("A perft count of the positions reachable in some number of moves")
+    @StackTrace(false)
+    public static class PerftCount extends Event {
+        @Label("Depth")
+        int depth;
+
+        @Label("Threads")
+        int threads;
+
+        @Label("Leaves")
+        long leaves;
+    }
+
+    /**
+     * Names a move for an event.
+     * @return the square name, or "pass" for no move
+     */
+    static String moveName(int square) {
+        return square < 0 ? "pass" : Bitboards.squareName(square);
+    }
+}
@@ -0,0 +1,127 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the flight recorder events in EngineEvents.
+ */
+class EngineEventsTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Records the engine events of some work and reads them back.
+     */
+    private List<RecordedEvent> record(Runnable work) throws IOException {
+        Path file = directory.resolve("engine.jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : new String[]{"othello.ChooseMove", "othello.SearchIteration",
+                    "othello.EndgameSolve", "othello.PerftCount"}) {
+                recording.enable(name);
+            }
+            recording.start();
+            work.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream()
+            .filter(event -> event.getEventType().getName().equals(name))
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("A search records one event per iteration")
+    void testSearchIterations() throws IOException {
+        SearchResult[] result = new SearchResult[1];
+        List<RecordedEvent> events = named(record(() -> result[0] =
+            new SearchEngine(new HeuristicEvaluator(), new TranspositionTable(1))
+                .search(new Board(), SearchLimits.depth(4))), "othello.SearchIteration");
+
+        assertEquals(4, events.size());
+        long nodes = 0;
+        for (int i = 0; i < events.size(); i++) {
+            RecordedEvent event = events.get(i);
+            assertEquals(i + 1, event.getInt("depth"));
+            assertTrue(event.getBoolean("completed"));
+            assertTrue(event.getLong("nodes") > 0);
+            nodes += event.getLong("nodes");
+        }
+        RecordedEvent last = events.get(events.size() - 1);
+        assertEquals(Bitboards.squareName(result[0].getMove()), last.getString("bestMove"));
+        assertEquals(result[0].getScore(), last.getInt("score"));
+        assertEquals(result[0].getNodes(), nodes, "Iterations should add up to the search");
+    }
+
+    @Test
+    @DisplayName("Endgame solves record the position size and whether they finished")
+    void testEndgameSolves() throws IOException {
+        Board board = TestPositions.positionWithEmpties(new Random(20), 10);
+        SearchResult[] solved = new SearchResult[1];
+        List<RecordedEvent> events = named(record(() -> {
+            solved[0] = new EndgameSolver().solve(board);
+            new EndgameSolver().solve(TestPositions.positionWithEmpties(new Random(23), 20), false, 0, 10_000);
+        }), "othello.EndgameSolve");
+
+        assertEquals(2, events.size());
+        RecordedEvent exact = events.get(0);
+        assertEquals(10, exact.getInt("empties"));
+        assertTrue(exact.getBoolean("completed"));
+        assertFalse(exact.getBoolean("winLossDraw"));
+        assertEquals(solved[0].getNodes(), exact.getLong("nodes"));
+        assertEquals(Bitboards.squareName(solved[0].getMove()), exact.getString("bestMove"));
+        assertEquals(solved[0].getScore(), exact.getInt("score"));
+
+        RecordedEvent aborted = events.get(1);
+        assertFalse(aborted.getBoolean("completed"));
+        assertEquals("pass", aborted.getString("bestMove"));
+    }
+
+    @Test
+    @DisplayName("AI moves record the player, the source of the move and the move")
+    void testChooseMove() throws IOException {
+        Board board = new Board();
+        Stone player = board.getCurrentPlayer();
+        int[][] move = new int[1][];
+        List<RecordedEvent> events = named(record(() -> move[0] = new AIPlayer(player).chooseMove(board)),
+            "othello.ChooseMove");
+
+        assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        assertEquals(player.name(), event.getString("player"));
+        assertEquals(Difficulty.BEGINNER.name(), event.getString("difficulty"));
+        assertEquals("greedy", event.getString("source"));
+        assertEquals(Bitboards.squareName(Bitboards.square(move[0][0], move[0][1])), event.getString("move"));
+        assertEquals(60, event.getInt("empties"));
+        assertFalse(event.getBoolean("ponderHit"));
+    }
+
+    @Test
+    @DisplayName("Perft counts record their depth and leaf count")
+    void testPerftCount() throws IOException {
+        long[] leaves = new long[1];
+        List<RecordedEvent> events = named(record(() -> leaves[0] = new Perft(1, 0).count(new Board(), 5)),
+            "othello.PerftCount");
+
+        assertEquals(1, events.size());
+        assertEquals(5, events.get(0).getInt("depth"));
+        assertEquals(1, events.get(0).getInt("threads"));
+        assertEquals(leaves[0], events.get(0).getLong("leaves"));
+    }
+}
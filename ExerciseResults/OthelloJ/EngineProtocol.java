@@ -0,0 +1,388 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Headless engine that speaks a line-based text protocol, modelled on NBoard's, so the AI
+ * can run as a subprocess of a GUI or tournament manager. Commands, one per line:
+ * <ul>
+ *   <li>{@code nboard <version>} - answered with {@code set myname OthelloJ}</li>
+ *   <li>{@code set game <GGF>} - sets the start position (BO) and plays its moves (B, W)</li>
+ *   <li>{@code set position <64 squares> <side>} - sets a position directly, squares in
+ *       a1..h8 order as {@code *} black, {@code O} white or {@code -} empty, side {@code *} or {@code O}</li>
+ *   <li>{@code set depth <plies>} or {@code set time <ms>} - the budget for each search</li>
+ *   <li>{@code move <square>[/eval/time]} - plays a move, {@code PA} for a pass</li>
+ *   <li>{@code go} - searches, streaming {@code status} lines, and answers {@code === <move>/<eval>/<time>}</li>
+ *   <li>{@code hint <n>} - searches, streaming {@code search <move> <eval> 0 <depth>} lines;
+ *       only the best move is given, whatever n is</li>
+ *   <li>{@code ponder on|off} - whether to think on the opponent's time after {@code go}</li>
+ *   <li>{@code ping <n>} - answered with {@code pong <n>} once earlier commands are done</li>
+ *   <li>{@code quit}</li>
+ * </ul>
+ * Evaluations are in discs from the point of view of the player to move. Other NBoard
+ * commands are ignored; errors are reported on {@code status} lines.
+ */
+public class EngineProtocol {
+
+    static final String NAME = "OthelloJ";
+
+    // A move in a GGF game: B[f5] or W[pa//1.2]; the lookbehind skips tags such as PB[...]
+    private static final Pattern GGF_MOVE = Pattern.compile("(?<![A-Z])([BW])\\[([^\\]]*)\\]");
+    private static final Pattern GGF_BOARD = Pattern.compile("BO\\[(\\d+)\\s+(\\S+)\\s+(\\S)\\]");
+
+    private final BufferedReader in;
+    private final PrintWriter out;
+    private final Difficulty difficulty;
+
+    // One AI per color, created when the engine is first asked to move for it
+    private final Map<Stone, AIPlayer> players = new EnumMap<>(Stone.class);
+    private Board board = startPosition();
+    private SearchLimits limits;
+    private boolean ponder;
+    private SearchResult lastProgress;
+
+    /**
+     * Creates an engine reading commands from one stream and answering on another.
+     * @param in the commands
+     * @param out the answers; each line is flushed as it is written
+     */
+    public EngineProtocol(Reader in, Writer out) {
+        this(in, out, Difficulty.EXPERT);
+    }
+
+    /**
+     * Creates an engine playing at a given search level until a depth or time is set.
+     * @param in the commands
+     * @param out the answers; each line is flushed as it is written
+     * @param difficulty the level; it must search
+     * @throws IllegalArgumentException if the level does not search
+     */
+    public EngineProtocol(Reader in, Writer out, Difficulty difficulty) {
+        if (!difficulty.usesSearch()) {
+            throw new IllegalArgumentException(difficulty + " level does not search");
+        }
+        this.in = in instanceof BufferedReader buffered ? buffered : new BufferedReader(in);
+        this.out = new PrintWriter(out, true);
+        this.difficulty = difficulty;
+        this.limits = difficulty.getSearchLimits();
+    }
+
+    /**
+     * Answers commands until {@code quit} or the end of the input, then releases the AI threads.
+     * @throws IOException if the commands cannot be read
+     */
+    public void run() throws IOException {
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                try {
+                    if (!handle(line.trim())) {
+                        break;
+                    }
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    out.println("status Error: " + e.getMessage());
+                }
+            }
+        } finally {
+            for (AIPlayer player : players.values()) {
+                player.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Gets the position the engine is in.
+     * @return the board; it must not be modified
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Carries out one command.
+     * @return false if the engine should quit
+     */
+    private boolean handle(String line) {
+        String[] words = line.split("\\s+", 3);
+        switch (words[0]) {
+            case "" -> {
+                // Blank line
+            }
+            case "nboard" -> out.println("set myname " + NAME);
+            case "set" -> set(words.length > 1 ? words[1] : "", words.length > 2 ? words[2] : "");
+            // Pondering carries on: the AI's next move choice checks what was played
+            case "move" -> play(null, argument(words, "move"));
+            case "go" -> go();
+            case "hint" -> hint();
+            case "ponder" -> {
+                ponder = "on".equals(argument(words, "ponder"));
+                if (!ponder) {
+                    stopPondering();
+                }
+            }
+            case "ping" -> out.println("pong" + (words.length > 1 ? " " + words[1] : ""));
+            case "quit" -> {
+                return false;
+            }
+            default -> {
+                // Other NBoard commands (learn, analyze, ...) are not supported
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Carries out a {@code set} command.
+     */
+    private void set(String name, String value) {
+        switch (name) {
+            case "game" -> {
+                stopPondering();
+                board = parseGame(value);
+            }
+            case "position" -> {
+                stopPondering();
+                String[] parts = value.trim().split("\\s+");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Expected squares and side to move: " + value);
+                }
+                board = parseBoard(parts[0], parts[1]);
+            }
+            case "depth" -> setLimits(SearchLimits.depth(parseNumber(value)));
+            case "time" -> setLimits(SearchLimits.time(parseNumber(value)));
+            default -> {
+                // Other settings (contempt, ...) are not supported
+            }
+        }
+    }
+
+    /**
+     * Searches the position and answers with the move to play, without playing it;
+     * the controller sends it back with {@code move}. Pondering, if on, starts afterwards.
+     */
+    private void go() {
+        if (board.isGameOver()) {
+            out.println("=== PA");
+            return;
+        }
+        AIPlayer ai = player(board.getCurrentPlayer());
+        long start = System.nanoTime();
+        int square = chooseMove(ai, result -> out.println("status " + describe(result)));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        SearchResult searched = lastProgress;
+        if (searched != null) {
+            out.printf(Locale.ROOT, "nodestats %d %.3f%n", searched.getNodes(), seconds);
+        }
+        String eval = searched != null && searched.getMove() == square ? formatEval(searched.getScore()) : "";
+        out.printf(Locale.ROOT, "=== %s/%s/%.2f%n", moveName(square), eval, seconds);
+
+        if (ponder) {
+            Board after = new Board(board);
+            after.makeMove(square);
+            ai.startPondering(after);
+        }
+    }
+
+    /**
+     * Searches the position and streams the best move at each depth, without playing it.
+     */
+    private void hint() {
+        if (board.isGameOver()) {
+            out.println("status");
+            return;
+        }
+        AIPlayer ai = player(board.getCurrentPlayer());
+        int square = chooseMove(ai, result -> out.printf("search %s %s 0 %d%n",
+            moveName(result.getMove()), formatEval(result.getScore()), result.getDepth()));
+        if (lastProgress == null || lastProgress.getMove() != square) {
+            // The only legal move or from the opening book; no score
+            String source = Long.bitCount(board.getValidMoveMask(board.getCurrentPlayer())) == 1 ? "forced" : "book";
+            out.printf("search %s 0.00 0 %s%n", moveName(square), source);
+        }
+        out.println("status");
+    }
+
+    /**
+     * Has an AI choose its move, telling a listener of its progress.
+     * @return the square chosen
+     */
+    private int chooseMove(AIPlayer ai, Consumer<SearchResult> listener) {
+        lastProgress = null;
+        ai.setProgressListener(result -> {
+            lastProgress = result;
+            listener.accept(result);
+        });
+        try {
+            int[] move = ai.chooseMove(board);
+            return Bitboards.square(move[0], move[1]);
+        } finally {
+            ai.setProgressListener(null);
+        }
+    }
+
+    /**
+     * Gets the AI for a color, creating it with the current budget if needed.
+     */
+    private AIPlayer player(Stone color) {
+        AIPlayer ai = players.computeIfAbsent(color, c -> new AIPlayer(c, difficulty));
+        ai.setSearchLimits(limits);
+        return ai;
+    }
+
+    /**
+     * Sets the budget for the AIs' searches.
+     */
+    private void setLimits(SearchLimits searchLimits) {
+        limits = searchLimits;
+        for (AIPlayer ai : players.values()) {
+            ai.setSearchLimits(searchLimits);
+        }
+    }
+
+    /**
+     * Stops the AIs thinking on the opponent's time, before the position changes.
+     */
+    private void stopPondering() {
+        for (AIPlayer ai : players.values()) {
+            ai.stopPondering();
+        }
+    }
+
+    /**
+     * Plays a move in the engine's position.
+     * @param mover the color the move is recorded for, or null for the player to move
+     * @param move the square, optionally followed by /eval/time, or PA for a pass
+     * @throws IllegalArgumentException if the move is not legal
+     */
+    private void play(Stone mover, String move) {
+        String name = move.split("/", 2)[0].trim();
+        Stone player = board.getCurrentPlayer();
+        if (name.equalsIgnoreCase("PA")) {
+            // The board passes by itself; only check that the pass was forced
+            if ((mover == null || mover == player) && !board.isGameOver()) {
+                throw new IllegalArgumentException(player + " has a move and cannot pass");
+            }
+            return;
+        }
+        int square = Bitboards.parseSquare(name);
+        if (mover != null && mover != player) {
+            throw new IllegalArgumentException("Not " + mover + "'s turn for " + name);
+        }
+        if (!board.isValidMove(Bitboards.row(square), Bitboards.col(square))) {
+            throw new IllegalArgumentException("Illegal move " + name + " for " + player);
+        }
+        board.makeMove(square);
+    }
+
+    /**
+     * Reads the start position and moves of a game in GGF.
+     * @param ggf the game, e.g. {@code (;GM[Othello]BO[8 ---...--- *]B[f5]W[f6];)}
+     * @return the position after the game's moves
+     * @throws IllegalArgumentException if the game is not an 8x8 game or has an illegal move
+     */
+    Board parseGame(String ggf) {
+        Matcher start = GGF_BOARD.matcher(ggf);
+        if (!start.find()) {
+            throw new IllegalArgumentException("Game has no BO[...] start position");
+        }
+        if (Integer.parseInt(start.group(1)) != Board.SIZE) {
+            throw new IllegalArgumentException("Only " + Board.SIZE + "x" + Board.SIZE + " games are supported");
+        }
+        board = parseBoard(start.group(2), start.group(3));
+        Matcher moves = GGF_MOVE.matcher(ggf);
+        while (moves.find()) {
+            play(moves.group(1).equals("B") ? Stone.BLACK : Stone.WHITE, moves.group(2));
+        }
+        return board;
+    }
+
+    /**
+     * Reads a position written one character per square in a1..h8 order.
+     * @param squares {@code *} or {@code X} for black, {@code O} for white, {@code -} or {@code .} for empty
+     * @param side the player to move, {@code *} or {@code X} for black and {@code O} for white
+     * @return the position
+     * @throws IllegalArgumentException if a square or the side cannot be read
+     */
+    static Board parseBoard(String squares, String side) {
+        if (squares.length() != Board.SIZE * Board.SIZE) {
+            throw new IllegalArgumentException("Expected " + Board.SIZE * Board.SIZE + " squares: " + squares);
+        }
+        long black = 0L;
+        long white = 0L;
+        for (int square = 0; square < squares.length(); square++) {
+            switch (Character.toUpperCase(squares.charAt(square))) {
+                case '*', 'X' -> black |= 1L << square;
+                case 'O' -> white |= 1L << square;
+                case '-', '.' -> {
+                    // Empty
+                }
+                default -> throw new IllegalArgumentException("Not a square: " + squares.charAt(square));
+            }
+        }
+        Stone toMove = switch (side.toUpperCase()) {
+            case "*", "X" -> Stone.BLACK;
+            case "O" -> Stone.WHITE;
+            default -> throw new IllegalArgumentException("Not a side to move: " + side);
+        };
+        return new Board(black, white, toMove);
+    }
+
+    /**
+     * Gets the standard starting position with black to move, as NBoard plays it.
+     */
+    private static Board startPosition() {
+        Board initial = new Board();
+        return new Board(initial.getBitboard(Stone.BLACK), initial.getBitboard(Stone.WHITE), Stone.BLACK);
+    }
+
+    /**
+     * Gets the argument of a command that needs one.
+     */
+    private static String argument(String[] words, String command) {
+        if (words.length < 2) {
+            throw new IllegalArgumentException(command + " needs an argument");
+        }
+        return words.length > 2 ? words[1] + " " + words[2] : words[1];
+    }
+
+    private static int parseNumber(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + value);
+        }
+    }
+
+    private static String moveName(int square) {
+        return square < 0 ? "PA" : Bitboards.squareName(square).toUpperCase();
+    }
+
+    private static String formatEval(int score) {
+        return String.format(Locale.ROOT, "%.2f", (double) score / Evaluator.DISC);
+    }
+
+    private static String describe(SearchResult result) {
+        return String.format(Locale.ROOT, "depth %d %s %s %d nodes", result.getDepth(),
+            moveName(result.getMove()), formatEval(result.getScore()), result.getNodes());
+    }
+
+    /**
+     * Runs the engine on standard input and output.
+     * @param args command line arguments (not used)
+     * @throws IOException if the commands cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        new EngineProtocol(new InputStreamReader(System.in), new OutputStreamWriter(System.out)).run();
+    }
+}
@@ -0,0 +1,119 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the EngineProtocol text engine.
+ */
+class EngineProtocolTest {
+
+    private static final String START =
+        "---------------------------O*------*O--------------------------- *";
+
+    /**
+     * Runs the engine on some commands.
+     * @return the engine's answers, one per line
+     */
+    private static List<String> run(EngineProtocol[] engine, String... commands) throws IOException {
+        StringWriter out = new StringWriter();
+        engine[0] = new EngineProtocol(new StringReader(String.join("\n", commands)), out, Difficulty.INTERMEDIATE);
+        engine[0].run();
+        return Arrays.asList(out.toString().split("\\R"));
+    }
+
+    private static String last(List<String> lines, String prefix) {
+        String found = null;
+        for (String line : lines) {
+            if (line.startsWith(prefix)) {
+                found = line;
+            }
+        }
+        assertNotNull(found, "Expected a line starting with " + prefix + " in " + lines);
+        return found;
+    }
+
+    @Test
+    @DisplayName("The engine names itself, answers pings and plays black first from the start")
+    void testHandshake() throws IOException {
+        EngineProtocol[] engine = new EngineProtocol[1];
+        List<String> lines = run(engine, "nboard 2", "set depth 3", "ping 1", "quit", "ping 2");
+
+        assertEquals(List.of("set myname " + EngineProtocol.NAME, "pong 1"), lines, "Nothing is read after quit");
+        assertEquals(Stone.BLACK, engine[0].getBoard().getCurrentPlayer());
+        assertEquals(4, Long.bitCount(engine[0].getBoard().getBitboard(Stone.BLACK)
+            | engine[0].getBoard().getBitboard(Stone.WHITE)));
+    }
+
+    @Test
+    @DisplayName("A GGF game sets the start position and plays its moves")
+    void testSetGame() throws IOException {
+        EngineProtocol[] engine = new EngineProtocol[1];
+        run(engine, "set game (;GM[Othello]PC[NBoard]PB[me]PW[you]RE[?]TI[5:00]TY[8]BO[8 " + START
+            + "]B[F5//1.2]W[f6]B[E6];)");
+
+        Board expected = EngineProtocol.parseBoard(START.substring(0, 64), "*");
+        for (String move : new String[]{"f5", "f6", "e6"}) {
+            expected.makeMove(Bitboards.parseSquare(move));
+        }
+        assertEquals(expected, engine[0].getBoard());
+    }
+
+    @Test
+    @DisplayName("Go streams search lines and answers with a legal move it does not play")
+    void testGo() throws IOException {
+        EngineProtocol[] engine = new EngineProtocol[1];
+        List<String> lines = run(engine, "set position " + START, "set depth 4", "move d3", "go");
+
+        Board board = EngineProtocol.parseBoard(START.substring(0, 64), "*");
+        board.makeMove(Bitboards.parseSquare("d3"));
+        assertEquals(board, engine[0].getBoard(), "The engine should not play its own move");
+
+        String answer = last(lines, "===");
+        String move = answer.substring(4).split("/")[0];
+        int square = Bitboards.parseSquare(move);
+        assertTrue(board.isValidMove(Bitboards.row(square), Bitboards.col(square)), "Move should be legal: " + answer);
+        assertTrue(last(lines, "status depth").startsWith("status depth 4 " + move), "The last iteration picks the move");
+        assertTrue(lines.indexOf(last(lines, "nodestats")) < lines.indexOf(answer));
+    }
+
+    @Test
+    @DisplayName("Hint gives the best move at each depth and ends with a status line")
+    void testHint() throws IOException {
+        EngineProtocol[] engine = new EngineProtocol[1];
+        List<String> lines = run(engine, "set position " + START, "move f5", "set depth 3", "hint 1");
+
+        assertEquals("search", last(lines, "search").split(" ")[0]);
+        assertTrue(last(lines, "search").endsWith(" 0 3"), "Deepest line last: " + lines);
+        assertEquals("status", lines.get(lines.size() - 1));
+    }
+
+    @Test
+    @DisplayName("Bad commands are reported and leave the position alone")
+    void testErrors() throws IOException {
+        EngineProtocol[] engine = new EngineProtocol[1];
+        List<String> lines = run(engine, "move a1", "move pa", "set depth x", "set position ---", "move f5");
+
+        assertEquals(4, lines.size(), "One error per bad command: " + lines);
+        for (String line : lines) {
+            assertTrue(line.startsWith("status Error: "), line);
+        }
+        assertEquals(Stone.WHITE, engine[0].getBoard().getCurrentPlayer(), "The good move should be played");
+    }
+
+    @Test
+    @DisplayName("A position where the side to move must pass has the opponent to move")
+    void testForcedPass() {
+        // White cannot outflank the black stone in the corner, but black can take c1
+        Board board = EngineProtocol.parseBoard("*O" + "-".repeat(62), "*");
+        assertEquals(Stone.BLACK, board.getCurrentPlayer());
+        board = EngineProtocol.parseBoard("*O" + "-".repeat(62), "O");
+        assertEquals(Stone.BLACK, board.getCurrentPlayer(), "White has no move, so black is to move");
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * Static evaluation of a position for the search.
+ * Implementations must be safe to call from several search threads at once.
+ */
+public interface Evaluator {
+
+    /**
+     * Score units per disc of final margin, so evaluations and exact results share a scale.
+     */
+    int DISC = 100;
+
+    /**
+     * Evaluates a position from the point of view of the player to move.
+     * @param board the position to evaluate
+     * @return a score in hundredths of a disc; positive favors the player to move
+     */
+    int evaluate(Board board);
+}
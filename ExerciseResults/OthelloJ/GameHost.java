@@ -0,0 +1,607 @@
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless host for many concurrent games against the AI, e.g. behind a play service.
+ * <p>
+ * A live game is a few longs and its move list rather than a {@link Board}; a board is
+ * built only while a move is checked or searched. AI turns are queued for a fixed pool
+ * of worker threads, earliest deadline first, where a turn's deadline is when it was
+ * queued plus its level's time budget; a timed search gets only the time left before
+ * its deadline, so time spent waiting in the queue does not add to the reply time.
+ * Each worker has its own {@link SearchEngine} and table, shared by every game it plays.
+ * <p>
+ * Games idle for longer than the idle time are evicted to compact storage (their move
+ * list) and brought back by replaying it the next time they are used.
+ */
+public class GameHost {
+
+    /**
+     * A copy of a game's position.
+     * @param gameId the game
+     * @param black the mask of black stones
+     * @param white the mask of white stones
+     * @param toMove the player to move
+     * @param moveCount the number of moves played
+     * @param lastMove the square of the last move, or -1 if none was played
+     * @param gameOver whether neither player can move
+     */
+    public record GameState(long gameId, long black, long white, Stone toMove, int moveCount, int lastMove,
+                            boolean gameOver) {
+
+        /**
+         * Builds a board for the position, without its move history.
+         * @return a new board
+         */
+        public Board toBoard() {
+            return new Board(black, white, toMove);
+        }
+    }
+
+    /**
+     * Host totals at one moment.
+     * @param liveGames the games held in full
+     * @param storedGames the games evicted to compact storage
+     * @param queuedAiTurns the AI turns waiting for a worker
+     * @param aiTurns the AI turns played
+     * @param averageAiMillis the average time from queueing an AI turn to its move
+     * @param maxAiMillis the longest such time
+     */
+    public record Stats(int liveGames, int storedGames, int queuedAiTurns, long aiTurns, double averageAiMillis,
+                        double maxAiMillis) {
+    }
+
+    // A search always gets at least this long, even if its deadline has passed
+    private static final long MIN_SEARCH_MILLIS = 10;
+    private static final int INITIAL_MOVE_CAPACITY = 16;
+
+    // Stored game layout: AI color (0 for none), difficulty, then one byte per move
+    private static final int STORED_HEADER_SIZE = 2;
+
+    /**
+     * One game. All fields are guarded by the session's monitor.
+     */
+    private static final class Session {
+        final long id;
+        final Stone aiColor;
+        final Difficulty difficulty;
+        long black;
+        long white;
+        Stone toMove;
+        byte[] moves = new byte[INITIAL_MOVE_CAPACITY];
+        int moveCount;
+        long lastActive;
+        boolean aiPending;
+        // Evicted or ended: this object is stale and the game must be looked up again
+        boolean closed;
+        CompletableFuture<GameState> waiting;
+
+        Session(long id, Stone aiColor, Difficulty difficulty, Board board) {
+            this.id = id;
+            this.aiColor = aiColor;
+            this.difficulty = difficulty;
+            setPosition(board);
+            lastActive = System.nanoTime();
+        }
+
+        void setPosition(Board board) {
+            black = board.getBitboard(Stone.BLACK);
+            white = board.getBitboard(Stone.WHITE);
+            toMove = board.getCurrentPlayer();
+        }
+
+        GameState state() {
+            return new GameState(id, black, white, toMove, moveCount, moveCount > 0 ? moves[moveCount - 1] : -1,
+                Bitboards.legalMoves(black, white) == 0 && Bitboards.legalMoves(white, black) == 0);
+        }
+
+        boolean isAiTurn() {
+            return toMove == aiColor && !state().gameOver();
+        }
+    }
+
+    /**
+     * An AI turn waiting for a worker, ordered by deadline and then by queueing order.
+     */
+    private final class AiTurn implements Runnable, Comparable<AiTurn> {
+        final Session session;
+        final long queued;
+        final long deadline;
+        final long sequence;
+
+        AiTurn(Session session, long queued, long deadline, long sequence) {
+            this.session = session;
+            this.queued = queued;
+            this.deadline = deadline;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            playAiTurn(this);
+        }
+
+        @Override
+        public int compareTo(AiTurn other) {
+            int order = Long.compare(deadline, other.deadline);
+            return order != 0 ? order : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private final ConcurrentHashMap<Long, Session> live = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, byte[]> stored = new ConcurrentHashMap<>();
+    private final AtomicLong nextGameId = new AtomicLong();
+    private final AtomicLong nextTurn = new AtomicLong();
+
+    private final ThreadPoolExecutor aiWorkers;
+    private final ScheduledExecutorService evictor;
+    private final ThreadLocal<SearchEngine> engines;
+    private final ThreadLocal<Map<Stone, AIPlayer>> greedyPlayers =
+        ThreadLocal.withInitial(() -> new EnumMap<>(Stone.class));
+    private final OpeningBook book = OpeningBook.getDefault();
+
+    private final LongAdder aiTurns = new LongAdder();
+    private final LongAdder aiNanos = new LongAdder();
+    private final LongAccumulator maxAiNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Creates a host.
+     * @param aiThreads the number of AI turns played at once
+     * @param hashMegabytes the table size of each AI worker
+     * @param idleMillis how long a game may go unused before it is evicted, or 0 to evict
+     *                   only on {@link #evictIdle(long)}
+     */
+    public GameHost(int aiThreads, int hashMegabytes, long idleMillis) {
+        this(aiThreads, hashMegabytes, idleMillis, PatternEvaluator.getDefault());
+    }
+
+    /**
+     * Creates a host whose searches use a given evaluation.
+     * @param aiThreads the number of AI turns played at once
+     * @param hashMegabytes the table size of each AI worker
+     * @param idleMillis how long a game may go unused before it is evicted, or 0
+     * @param evaluator the evaluation, shared by the AI workers
+     */
+    GameHost(int aiThreads, int hashMegabytes, long idleMillis, Evaluator evaluator) {
+        if (aiThreads < 1) {
+            throw new IllegalArgumentException("Need at least one AI thread: " + aiThreads);
+        }
+        if (idleMillis < 0) {
+            throw new IllegalArgumentException("Idle time cannot be negative: " + idleMillis);
+        }
+        engines = ThreadLocal.withInitial(() -> new SearchEngine(evaluator, new TranspositionTable(hashMegabytes)));
+        aiWorkers = new ThreadPoolExecutor(aiThreads, aiThreads, 0, TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "othello-host-ai");
+                thread.setDaemon(true);
+                return thread;
+            });
+        if (idleMillis > 0) {
+            evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "othello-host-evictor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(1, idleMillis / 2);
+            evictor.scheduleWithFixedDelay(() -> evictIdle(idleMillis), period, period, TimeUnit.MILLISECONDS);
+        } else {
+            evictor = null;
+        }
+    }
+
+    /**
+     * Starts a game from the standard position. If the AI moves first, its turn is queued.
+     * @param aiColor the color the AI plays, or null for a game between two people
+     * @param difficulty the AI's level
+     * @return the new game's id
+     */
+    public long newGame(Stone aiColor, Difficulty difficulty) {
+        if (aiColor == Stone.EMPTY) {
+            throw new IllegalArgumentException("The AI must play BLACK or WHITE");
+        }
+        Session session = new Session(nextGameId.getAndIncrement(), aiColor, difficulty, new Board());
+        live.put(session.id, session);
+        synchronized (session) {
+            if (session.isAiTurn()) {
+                queueAiTurn(session);
+            }
+        }
+        return session.id;
+    }
+
+    /**
+     * Plays a person's move. If the AI is to move next its turn is queued, and the result
+     * completes once it has replied (and again, if the person has to pass).
+     * @param gameId the game
+     * @param square the square to play
+     * @return the position once it is a person's turn again or the game is over
+     * @throws IllegalArgumentException if there is no such game or the move is illegal
+     * @throws IllegalStateException if it is the AI's turn
+     */
+    public CompletableFuture<GameState> play(long gameId, int square) {
+        while (true) {
+            Session session = session(gameId);
+            synchronized (session) {
+                if (session.closed) {
+                    continue;  // Evicted meanwhile; restore it
+                }
+                if (session.aiPending || session.isAiTurn()) {
+                    throw new IllegalStateException("Game " + gameId + " is waiting for the AI");
+                }
+                playMove(session, square);
+                if (session.isAiTurn()) {
+                    session.waiting = new CompletableFuture<>();
+                    queueAiTurn(session);
+                    return session.waiting;
+                }
+                return CompletableFuture.completedFuture(session.state());
+            }
+        }
+    }
+
+    /**
+     * Waits for a person's turn (or the end of the game), e.g. after starting a game in
+     * which the AI moves first.
+     * @param gameId the game
+     * @return the position once the AI is not thinking
+     * @throws IllegalArgumentException if there is no such game
+     */
+    public CompletableFuture<GameState> whenReady(long gameId) {
+        while (true) {
+            Session session = session(gameId);
+            synchronized (session) {
+                if (session.closed) {
+                    continue;
+                }
+                if (!session.aiPending) {
+                    return CompletableFuture.completedFuture(session.state());
+                }
+                if (session.waiting == null) {
+                    session.waiting = new CompletableFuture<>();
+                }
+                return session.waiting;
+            }
+        }
+    }
+
+    /**
+     * Gets a game's position, restoring it if it was evicted.
+     * @param gameId the game
+     * @return the position
+     * @throws IllegalArgumentException if there is no such game
+     */
+    public GameState getState(long gameId) {
+        while (true) {
+            Session session = session(gameId);
+            synchronized (session) {
+                if (!session.closed) {
+                    return session.state();
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the moves of a game, restoring it if it was evicted.
+     * @param gameId the game
+     * @return the squares played, in order
+     * @throws IllegalArgumentException if there is no such game
+     */
+    public int[] getMoves(long gameId) {
+        while (true) {
+            Session session = session(gameId);
+            synchronized (session) {
+                if (!session.closed) {
+                    int[] squares = new int[session.moveCount];
+                    for (int i = 0; i < squares.length; i++) {
+                        squares[i] = session.moves[i];
+                    }
+                    return squares;
+                }
+            }
+        }
+    }
+
+    /**
+     * Ends a game and forgets it. A queued AI turn for it is dropped, and a move waiting
+     * for the AI completes with the position as it is.
+     * @param gameId the game
+     * @return true if there was such a game
+     */
+    public boolean endGame(long gameId) {
+        boolean found = stored.remove(gameId) != null;
+        Session session = live.remove(gameId);
+        if (session == null) {
+            return found;
+        }
+        CompletableFuture<GameState> waiting;
+        GameState state;
+        synchronized (session) {
+            session.closed = true;
+            waiting = session.waiting;
+            session.waiting = null;
+            state = session.state();
+        }
+        if (waiting != null) {
+            waiting.complete(state);
+        }
+        return true;
+    }
+
+    /**
+     * Moves games that have not been used for a while, and are not waiting for the AI,
+     * to compact storage.
+     * @param idleMillis how long a game must have been unused
+     * @return the number of games evicted
+     */
+    public int evictIdle(long idleMillis) {
+        long cutoff = System.nanoTime() - idleMillis * 1_000_000;
+        int[] evicted = new int[1];
+        for (Long gameId : live.keySet()) {
+            live.computeIfPresent(gameId, (id, session) -> {
+                synchronized (session) {
+                    if (session.aiPending || session.lastActive - cutoff > 0) {
+                        return session;
+                    }
+                    stored.put(id, encode(session));
+                    session.closed = true;
+                    evicted[0]++;
+                    return null;
+                }
+            });
+        }
+        return evicted[0];
+    }
+
+    /**
+     * Gets the host totals.
+     * @return the current stats
+     */
+    public Stats getStats() {
+        long turns = aiTurns.sum();
+        return new Stats(live.size(), stored.size(), aiWorkers.getQueue().size(), turns,
+            turns == 0 ? 0.0 : aiNanos.sum() / 1e6 / turns, maxAiNanos.get() / 1e6);
+    }
+
+    /**
+     * Stops the AI workers and eviction. The host cannot be used afterwards.
+     */
+    public void shutdown() {
+        aiWorkers.shutdownNow();
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+    }
+
+    /**
+     * Finds a live game, restoring it from storage if it was evicted.
+     * @throws IllegalArgumentException if there is no such game
+     */
+    private Session session(long gameId) {
+        Session session = live.computeIfAbsent(gameId, id -> {
+            byte[] data = stored.remove(id);
+            return data == null ? null : decode(id, data);
+        });
+        if (session == null) {
+            throw new IllegalArgumentException("No game " + gameId);
+        }
+        return session;
+    }
+
+    /**
+     * Plays a move in a session, which must be locked.
+     * @throws IllegalArgumentException if the move is illegal
+     */
+    private static void playMove(Session session, int square) {
+        Board board = new Board(session.black, session.white, session.toMove);
+        if (square < 0 || square >= Board.SIZE * Board.SIZE
+                || !board.isValidMove(Bitboards.row(square), Bitboards.col(square))) {
+            throw new IllegalArgumentException("Illegal move " + square + " in game " + session.id);
+        }
+        board.makeMove(square);
+        session.setPosition(board);
+        if (session.moveCount == session.moves.length) {
+            session.moves = Arrays.copyOf(session.moves, session.moves.length * 2);
+        }
+        session.moves[session.moveCount++] = (byte) square;
+        session.lastActive = System.nanoTime();
+    }
+
+    /**
+     * Queues the AI's turn in a session, which must be locked.
+     */
+    private void queueAiTurn(Session session) {
+        session.aiPending = true;
+        SearchLimits limits = session.difficulty.getSearchLimits();
+        long budget = limits != null ? limits.getTimeMillis() : 0;
+        long now = System.nanoTime();
+        aiWorkers.execute(new AiTurn(session, now, now + budget * 1_000_000, nextTurn.getAndIncrement()));
+    }
+
+    /**
+     * Plays an AI turn on a worker thread; the search runs without the session locked.
+     * If the search fails, a greedy move is played instead and the failure logged.
+     */
+    private void playAiTurn(AiTurn turn) {
+        Session session = turn.session;
+        Board board;
+        synchronized (session) {
+            if (session.closed) {
+                return;
+            }
+            board = new Board(session.black, session.white, session.toMove);
+        }
+
+        CompletableFuture<GameState> done = null;
+        GameState state = null;
+        RuntimeException failure = null;
+        int square = -1;
+        try {
+            square = chooseMove(board, session.difficulty, turn.deadline);
+        } catch (RuntimeException e) {
+            // A failed search must not leave the game waiting on the AI for good
+            System.getLogger(GameHost.class.getName()).log(System.Logger.Level.WARNING,
+                "AI search failed in game " + session.id + ", playing a greedy move instead", e);
+            try {
+                square = chooseMove(board, Difficulty.BEGINNER, turn.deadline);
+            } catch (RuntimeException greedyFailure) {
+                failure = greedyFailure;
+            }
+        }
+        long latency = System.nanoTime() - turn.queued;
+        aiTurns.increment();
+        aiNanos.add(latency);
+        maxAiNanos.accumulate(latency);
+
+        synchronized (session) {
+            if (session.closed) {
+                return;
+            }
+            session.aiPending = false;
+            if (failure == null) {
+                playMove(session, square);
+                if (session.isAiTurn()) {
+                    // The person has to pass
+                    queueAiTurn(session);
+                    return;
+                }
+                state = session.state();
+            }
+            done = session.waiting;
+            session.waiting = null;
+        }
+        // Completed outside the lock, so callbacks can play the next move
+        if (done != null) {
+            if (failure != null) {
+                done.completeExceptionally(failure);
+            } else {
+                done.complete(state);
+            }
+        }
+    }
+
+    /**
+     * Chooses the AI's move: greedily at the beginner level, otherwise the only legal move,
+     * from the book or by search, with a time budget cut to what is left before the deadline.
+     */
+    private int chooseMove(Board board, Difficulty difficulty, long deadline) {
+        if (!difficulty.usesSearch()) {
+            int[] move = greedyPlayers.get().computeIfAbsent(board.getCurrentPlayer(), AIPlayer::new).chooseMove(board);
+            return Bitboards.square(move[0], move[1]);
+        }
+        long moves = board.getValidMoveMask(board.getCurrentPlayer());
+        if (Long.bitCount(moves) == 1) {
+            return Long.numberOfTrailingZeros(moves);
+        }
+        int bookMove = book != null ? book.chooseMove(board, ThreadLocalRandom.current()) : -1;
+        if (bookMove >= 0) {
+            return bookMove;
+        }
+        SearchLimits limits = difficulty.getSearchLimits();
+        if (limits.getTimeMillis() > 0) {
+            long left = (deadline - System.nanoTime()) / 1_000_000;
+            limits = limits.withTime(Math.max(MIN_SEARCH_MILLIS, left));
+        }
+        return engines.get().search(board, limits).getMove();
+    }
+
+    /**
+     * Packs a session into its stored form.
+     */
+    private static byte[] encode(Session session) {
+        byte[] data = new byte[STORED_HEADER_SIZE + session.moveCount];
+        data[0] = (byte) (session.aiColor == null ? 0 : session.aiColor.ordinal() + 1);
+        data[1] = (byte) session.difficulty.ordinal();
+        System.arraycopy(session.moves, 0, data, STORED_HEADER_SIZE, session.moveCount);
+        return data;
+    }
+
+    /**
+     * Rebuilds a session from its stored form by replaying its moves.
+     */
+    private static Session decode(long gameId, byte[] data) {
+        Stone aiColor = data[0] == 0 ? null : Stone.values()[data[0] - 1];
+        Session session = new Session(gameId, aiColor, Difficulty.values()[data[1]], new Board());
+        for (int i = STORED_HEADER_SIZE; i < data.length; i++) {
+            playMove(session, data[i]);
+        }
+        return session;
+    }
+
+    /**
+     * Load test: plays many games at once against the AI, with simulated people answering
+     * at once with a random legal move, and reports every second how the host keeps up.
+     * Finished games are replaced by new ones, so the number of games stays the same.
+     * @param args games, AI threads, seconds and difficulty (all optional)
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        Difficulty difficulty = args.length > 3 ? Difficulty.valueOf(args[3].toUpperCase()) : Difficulty.INTERMEDIATE;
+
+        GameHost host = new GameHost(threads, 4, 10_000);
+        ExecutorService people = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "othello-host-people");
+            thread.setDaemon(true);
+            return thread;
+        });
+        LongAdder finished = new LongAdder();
+        Runnable[] startGame = new Runnable[1];
+        startGame[0] = () -> {
+            long gameId = host.newGame(ThreadLocalRandom.current().nextBoolean() ? Stone.BLACK : Stone.WHITE,
+                difficulty);
+            host.whenReady(gameId)
+                .thenAcceptAsync(state -> answer(host, people, gameId, state, finished, startGame[0]), people);
+        };
+        for (int i = 0; i < games; i++) {
+            startGame[0].run();
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        long lastTurns = 0;
+        for (int second = 1; second <= seconds; second++) {
+            Thread.sleep(1000);
+            Stats stats = host.getStats();
+            System.out.printf("%3d s: %d live, %d stored, %d queued, %d AI moves/s (avg %.0f ms, max %.0f ms), "
+                    + "%d games finished, %d MB heap%n",
+                second, stats.liveGames(), stats.storedGames(), stats.queuedAiTurns(), stats.aiTurns() - lastTurns,
+                stats.averageAiMillis(), stats.maxAiMillis(), finished.sum(),
+                (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+            lastTurns = stats.aiTurns();
+        }
+        host.shutdown();
+        people.shutdownNow();
+    }
+
+    /**
+     * Has a simulated person answer the AI with a random legal move, or replace the game if it is over.
+     */
+    private static void answer(GameHost host, ExecutorService people, long gameId, GameState state,
+                               LongAdder finished, Runnable startGame) {
+        if (state.gameOver()) {
+            host.endGame(gameId);
+            finished.increment();
+            startGame.run();
+            return;
+        }
+        Board board = state.toBoard();
+        host.play(gameId, Bitboards.randomSquare(board.getValidMoveMask(board.getCurrentPlayer()),
+                ThreadLocalRandom.current()))
+            .thenAcceptAsync(next -> answer(host, people, gameId, next, finished, startGame), people);
+    }
+}
@@ -0,0 +1,170 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the GameHost.
+ */
+class GameHostTest {
+
+    private static int randomMove(GameHost.GameState state, Random random) {
+        Board board = state.toBoard();
+        return Bitboards.randomSquare(board.getValidMoveMask(board.getCurrentPlayer()), random);
+    }
+
+    /**
+     * Plays a person's random moves until the game is over.
+     */
+    private static GameHost.GameState playOut(GameHost host, long gameId, Random random) throws Exception {
+        GameHost.GameState state = host.whenReady(gameId).get(10, TimeUnit.SECONDS);
+        while (!state.gameOver()) {
+            state = host.play(gameId, randomMove(state, random)).get(10, TimeUnit.SECONDS);
+        }
+        return state;
+    }
+
+    private static Board replay(int[] moves) {
+        Board board = new Board();
+        for (int move : moves) {
+            assertTrue(board.isValidMove(Bitboards.row(move), Bitboards.col(move)), "Logged move should be legal");
+            board.makeMove(move);
+        }
+        return board;
+    }
+
+    @Test
+    @DisplayName("A game against the AI is played to the end, with the AI moving first")
+    void testGameAgainstAI() throws Exception {
+        GameHost host = new GameHost(2, 1, 0);
+        try {
+            Stone aiColor = new Board().getCurrentPlayer();
+            long gameId = host.newGame(aiColor, Difficulty.INTERMEDIATE);
+            GameHost.GameState end = playOut(host, gameId, new Random(22));
+
+            int[] moves = host.getMoves(gameId);
+            assertEquals(end.moveCount(), moves.length);
+            Board board = replay(moves);
+            assertTrue(board.isGameOver());
+            assertEquals(board, end.toBoard());
+            assertEquals(aiColor, board.getHistoryPlayer(0), "The AI should have made the first move");
+            assertTrue(host.getStats().aiTurns() > 0);
+        } finally {
+            host.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Idle games are evicted to storage and restored by replaying their moves")
+    void testEviction() throws Exception {
+        GameHost host = new GameHost(1, 1, 0);
+        try {
+            Stone person = new Board().getCurrentPlayer();
+            long gameId = host.newGame(person.opposite(), Difficulty.BEGINNER);
+            Random random = new Random(23);
+            GameHost.GameState state = host.play(gameId, randomMove(host.getState(gameId), random)).get();
+            state = host.play(gameId, randomMove(state, random)).get();
+
+            assertEquals(1, host.evictIdle(0));
+            assertEquals(0, host.getStats().liveGames());
+            assertEquals(1, host.getStats().storedGames());
+
+            assertEquals(state, host.getState(gameId), "Restored game should have the same position");
+            assertEquals(1, host.getStats().liveGames());
+            assertEquals(0, host.getStats().storedGames());
+            assertEquals(0, host.evictIdle(60_000), "Just used, so not idle");
+
+            host.evictIdle(0);
+            GameHost.GameState end = playOut(host, gameId, random);
+            assertEquals(replay(host.getMoves(gameId)), end.toBoard());
+        } finally {
+            host.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Many games are played at once on a small pool")
+    void testConcurrentGames() throws Exception {
+        GameHost host = new GameHost(2, 1, 0);
+        try {
+            List<CompletableFuture<GameHost.GameState>> games = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                long gameId = host.newGame(i % 2 == 0 ? Stone.BLACK : Stone.WHITE,
+                    i % 4 < 2 ? Difficulty.BEGINNER : Difficulty.INTERMEDIATE);
+                Random random = new Random(i);
+                games.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return playOut(host, gameId, random);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }));
+            }
+            for (CompletableFuture<GameHost.GameState> game : games) {
+                assertTrue(game.get(60, TimeUnit.SECONDS).gameOver());
+            }
+            GameHost.Stats stats = host.getStats();
+            assertEquals(40, stats.liveGames());
+            assertEquals(0, stats.queuedAiTurns());
+            assertTrue(stats.maxAiMillis() >= stats.averageAiMillis());
+        } finally {
+            host.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Bad moves and unknown or ended games are rejected")
+    void testErrors() throws Exception {
+        GameHost host = new GameHost(1, 1, 0);
+        try {
+            long gameId = host.newGame(null, Difficulty.BEGINNER);
+            assertThrows(IllegalArgumentException.class, () -> host.play(gameId, 0));
+            assertThrows(IllegalArgumentException.class, () -> host.play(gameId, 64));
+            assertEquals(0, host.getState(gameId).moveCount(), "Rejected moves are not logged");
+
+            assertTrue(host.endGame(gameId));
+            assertFalse(host.endGame(gameId));
+            assertThrows(IllegalArgumentException.class, () -> host.getState(gameId));
+
+            long aiGame = host.newGame(new Board().getCurrentPlayer(), Difficulty.INTERMEDIATE);
+            GameHost.GameState state = host.whenReady(aiGame).get(10, TimeUnit.SECONDS);
+            assertEquals(1, state.moveCount());
+            // Keep the only worker busy so the AI's reply is still queued when the next move comes
+            host.newGame(new Board().getCurrentPlayer(), Difficulty.EXPERT);
+            while (host.getStats().queuedAiTurns() > 0) {
+                Thread.onSpinWait();
+            }
+            int square = randomMove(state, new Random(24));
+            host.play(aiGame, square);
+            assertThrows(IllegalStateException.class, () -> host.play(aiGame, square), "The AI is to move");
+        } finally {
+            host.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("A failed AI search falls back to a greedy move and the game goes on")
+    void testSearchFailure() throws Exception {
+        GameHost host = new GameHost(1, 1, 0, board -> {
+            throw new IllegalStateException("Evaluation failed");
+        });
+        try {
+            long gameId = host.newGame(new Board().getCurrentPlayer(), Difficulty.INTERMEDIATE);
+            GameHost.GameState state = host.whenReady(gameId).get(10, TimeUnit.SECONDS);
+            assertEquals(1, state.moveCount(), "The AI should still have moved");
+            assertNotEquals(new Board().getCurrentPlayer(), state.toMove(), "The person should be to move");
+
+            GameHost.GameState end = playOut(host, gameId, new Random(24));
+            assertTrue(end.gameOver());
+            assertEquals(replay(host.getMoves(gameId)), end.toBoard());
+        } finally {
+            host.shutdown();
+        }
+    }
+}
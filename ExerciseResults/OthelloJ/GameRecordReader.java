@@ -0,0 +1,211 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a game archive written by {@link GameRecordWriter}, one game at a time.
+ * The reader is a cursor: {@link #next()} moves to the next game and the getters read
+ * that game straight from the buffer, so iterating an archive allocates nothing per game.
+ * Files are memory-mapped in windows, so archives larger than 2 GB can be read too.
+ */
+public class GameRecordReader implements Closeable {
+
+    // Size of each mapped window of a file
+    private static final int WINDOW_SIZE = 1 << 28;
+
+    // Difficulty.values() copies the array on every call, so it is read once
+    private static final Difficulty[] LEVELS = Difficulty.values();
+
+    private final FileChannel channel;
+    private final long size;
+    private long windowStart;
+    private ByteBuffer buffer;
+
+    // Offset of the current game's header in the buffer, or -1 before the first game
+    private int record = -1;
+    private int moveCount;
+    private long gameIndex = -1;
+
+    /**
+     * Creates a reader over an archive held in a buffer, e.g. a whole file read into memory.
+     * @param buffer the archive, from its position to its limit
+     */
+    public GameRecordReader(ByteBuffer buffer) {
+        this(null, buffer.remaining(), buffer.slice());
+    }
+
+    private GameRecordReader(FileChannel channel, long size, ByteBuffer buffer) {
+        this.channel = channel;
+        this.size = size;
+        this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.remaining() < GameRecordWriter.FILE_HEADER_SIZE || buffer.getInt(0) != GameRecordWriter.MAGIC) {
+            throw new IllegalArgumentException("Not a game archive");
+        }
+        if (buffer.getInt(4) != GameRecordWriter.VERSION) {
+            throw new IllegalArgumentException("Unsupported game archive version: " + buffer.getInt(4));
+        }
+        buffer.position(GameRecordWriter.FILE_HEADER_SIZE);
+    }
+
+    /**
+     * Opens an archive file by mapping it into memory.
+     * @param path the archive file
+     * @return the reader, positioned before the first game
+     * @throws IOException if the file cannot be read
+     */
+    public static GameRecordReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            return new GameRecordReader(channel, size,
+                channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, WINDOW_SIZE)));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Moves to the next game.
+     * @return true if there is another game, false at the end of the archive
+     * @throws IOException if the next part of the file cannot be mapped
+     * @throws IllegalStateException if the archive ends partway through a game
+     */
+    public boolean next() throws IOException {
+        if (record >= 0) {
+            buffer.position(record + GameRecordWriter.GAME_HEADER_SIZE + moveCount);
+        }
+        if (!ensureAvailable(1)) {
+            record = -1;
+            return false;
+        }
+        int count = buffer.get(buffer.position()) & 0xFF;
+        if (!ensureAvailable(GameRecordWriter.GAME_HEADER_SIZE + count)) {
+            throw new IllegalStateException("Game archive ends partway through game " + (gameIndex + 1));
+        }
+        record = buffer.position();
+        moveCount = count;
+        gameIndex++;
+        return true;
+    }
+
+    /**
+     * Gets the number of the current game.
+     * @return the game's position in the archive, counting from 0
+     */
+    public long getGameIndex() {
+        return gameIndex;
+    }
+
+    /**
+     * Gets the number of move bytes of the current game, passes included.
+     * @return the move count
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Gets a move of the current game.
+     * @param index the move number, from 0 to getMoveCount() - 1
+     * @return the square index, or {@link GameRecordWriter#PASS}
+     */
+    public int getMove(int index) {
+        if (index < 0 || index >= moveCount) {
+            throw new IndexOutOfBoundsException("No move at index " + index);
+        }
+        return buffer.get(record + GameRecordWriter.GAME_HEADER_SIZE + index) & 0xFF;
+    }
+
+    /**
+     * Gets Black's final stone count in the current game.
+     * @return the stone count
+     */
+    public int getBlackStones() {
+        return buffer.get(record + 1) & 0xFF;
+    }
+
+    /**
+     * Gets White's final stone count in the current game.
+     * @return the stone count
+     */
+    public int getWhiteStones() {
+        return buffer.get(record + 2) & 0xFF;
+    }
+
+    /**
+     * Gets the level of Black's player in the current game.
+     * @return the difficulty, or null for a human or unrecorded player
+     */
+    public Difficulty getBlackPlayer() {
+        return player(buffer.get(record + 3) & 0xFF);
+    }
+
+    /**
+     * Gets the level of White's player in the current game.
+     * @return the difficulty, or null for a human or unrecorded player
+     */
+    public Difficulty getWhitePlayer() {
+        return player(buffer.get(record + 4) & 0xFF);
+    }
+
+    /**
+     * Gets the seed of the current game.
+     * @return the seed, or 0 if the game had none
+     */
+    public long getSeed() {
+        return buffer.getLong(record + 8);
+    }
+
+    /**
+     * Plays the first moves of the current game onto a board; pass markers are skipped,
+     * since the board passes by itself.
+     * @param board a board at the starting position
+     * @param moves the number of move bytes to play, passes included
+     */
+    public void replay(Board board, int moves) {
+        for (int i = 0; i < moves; i++) {
+            int move = getMove(i);
+            if (move != GameRecordWriter.PASS) {
+                board.makeMove(move);
+            }
+        }
+    }
+
+    /**
+     * Releases the file, if the reader has one.
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Makes sure the buffer holds the given number of bytes from its position,
+     * mapping the next window of the file if needed.
+     * @return false if the archive has fewer bytes left
+     */
+    private boolean ensureAvailable(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        long offset = windowStart + buffer.position();
+        if (channel == null || size - offset < bytes) {
+            return false;
+        }
+        windowStart = offset;
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(size - offset, WINDOW_SIZE));
+        return true;
+    }
+
+    private static Difficulty player(int value) {
+        return value < LEVELS.length ? LEVELS[value] : null;
+    }
+}
@@ -0,0 +1,125 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the GameRecordWriter and GameRecordReader game archive.
+ */
+class GameRecordTest {
+
+    private byte[] archive(List<Board> games) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GameRecordWriter writer = new GameRecordWriter(bytes)) {
+            for (int i = 0; i < games.size(); i++) {
+                writer.write(games.get(i), 1000 + i, Difficulty.BEGINNER, i % 2 == 0 ? null : Difficulty.EXPERT);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    @DisplayName("Games read back with their moves, scores, players and seeds")
+    void testRoundTrip() throws IOException {
+        Random random = new Random(21);
+        List<Board> games = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            games.add(TestPositions.randomGame(random));
+        }
+
+        GameRecordReader reader = new GameRecordReader(ByteBuffer.wrap(archive(games)));
+        for (int i = 0; i < games.size(); i++) {
+            Board game = games.get(i);
+            assertTrue(reader.next(), "Game " + i + " should be in the archive");
+            assertEquals(i, reader.getGameIndex());
+            assertEquals(1000 + i, reader.getSeed());
+            assertEquals(Difficulty.BEGINNER, reader.getBlackPlayer());
+            assertEquals(i % 2 == 0 ? null : Difficulty.EXPERT, reader.getWhitePlayer());
+            assertEquals(game.countStones(Stone.BLACK), reader.getBlackStones());
+            assertEquals(game.countStones(Stone.WHITE), reader.getWhiteStones());
+
+            Board replayed = new Board();
+            reader.replay(replayed, reader.getMoveCount());
+            assertTrue(replayed.isGameOver(), "Replayed game " + i + " should be finished");
+            assertEquals(game.getHash(), replayed.getHash(), "Replay should reach the final position");
+        }
+        assertFalse(reader.next(), "There should be no more games");
+        assertFalse(reader.next(), "The end of the archive should stay the end");
+    }
+
+    @Test
+    @DisplayName("A forced pass is recorded as a pass marker before the same player's next move")
+    void testPassMarker() throws IOException {
+        Random random = new Random(22);
+        Board game = null;
+        int passIndex = -1;
+        for (int attempt = 0; attempt < 1000 && passIndex < 0; attempt++) {
+            game = TestPositions.randomGame(random);
+            for (int i = 1; i < game.getHistorySize() && passIndex < 0; i++) {
+                if (game.getHistoryPlayer(i) == game.getHistoryPlayer(i - 1)) {
+                    passIndex = i;
+                }
+            }
+        }
+        assertTrue(passIndex > 0, "Some random game should contain a pass");
+
+        GameRecordReader reader = new GameRecordReader(ByteBuffer.wrap(archive(List.of(game))));
+        assertTrue(reader.next());
+        assertEquals(game.getHistoryMove(passIndex - 1), reader.getMove(passIndex - 1));
+        assertEquals(GameRecordWriter.PASS, reader.getMove(passIndex), "The pass should be marked");
+        assertEquals(game.getHistoryMove(passIndex), reader.getMove(passIndex + 1));
+        assertTrue(reader.getMoveCount() > game.getHistorySize(), "Passes add to the move bytes");
+    }
+
+    @Test
+    @DisplayName("A mapped archive file reads the same games")
+    void testMappedFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("games.bin");
+        Random random = new Random(23);
+        List<Board> games = new ArrayList<>();
+        try (GameRecordWriter writer = GameRecordWriter.create(file)) {
+            for (int i = 0; i < 20; i++) {
+                games.add(TestPositions.randomGame(random));
+                writer.write(games.get(i), i, null, null);
+            }
+        }
+
+        try (GameRecordReader reader = GameRecordReader.open(file)) {
+            int count = 0;
+            while (reader.next()) {
+                Board game = games.get(count);
+                assertEquals(count, reader.getSeed());
+                assertNull(reader.getBlackPlayer());
+                assertEquals(game.getHistoryMove(0), reader.getMove(0));
+                assertEquals(game.countStones(Stone.BLACK), reader.getBlackStones());
+                count++;
+            }
+            assertEquals(games.size(), count, "Every game should be read");
+        }
+    }
+
+    @Test
+    @DisplayName("Truncated and foreign files are rejected")
+    void testBadArchives() throws IOException {
+        byte[] bytes = archive(List.of(TestPositions.randomGame(new Random(24))));
+
+        GameRecordReader truncated = new GameRecordReader(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 1)));
+        assertThrows(IllegalStateException.class, truncated::next);
+
+        byte[] foreign = bytes.clone();
+        foreign[0] = 'X';
+        assertThrows(IllegalArgumentException.class, () -> new GameRecordReader(ByteBuffer.wrap(foreign)));
+        assertThrows(IllegalArgumentException.class, () -> new GameRecordReader(ByteBuffer.allocate(3)));
+    }
+}
@@ -0,0 +1,118 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Streams finished games to a compact binary archive, read back by {@link GameRecordReader}.
+ * <p>
+ * File layout (big-endian): an 8-byte file header (magic, version), then one record per
+ * game: a 16-byte game header followed by one byte per move. The game header holds the
+ * move byte count (1 byte), Black's and White's final stone counts (1 each), the Black
+ * and White player levels (1 each, a {@link Difficulty} ordinal or {@link #UNKNOWN_PLAYER}),
+ * three reserved bytes and the game's seed (8). A move byte is the square index, or
+ * {@link #PASS} where a player had to pass. Games are replayed from {@code new Board()}.
+ * <p>
+ * A writer is not thread-safe; callers writing from several threads must synchronize.
+ */
+public class GameRecordWriter implements Closeable {
+
+    /** Move byte for a forced pass. */
+    public static final int PASS = 64;
+
+    /** Player byte for a human or unrecorded player. */
+    public static final int UNKNOWN_PLAYER = 0xFF;
+
+    static final int MAGIC = 0x4F544847;  // "OTHG"
+    static final int VERSION = 1;
+    static final int FILE_HEADER_SIZE = 8;
+    static final int GAME_HEADER_SIZE = 16;
+
+    // Longest possible record: 60 moves with a pass before each of them
+    private static final int MAX_MOVE_BYTES = 120;
+
+    private final OutputStream out;
+    private final byte[] record = new byte[GAME_HEADER_SIZE + MAX_MOVE_BYTES];
+
+    /**
+     * Creates a writer and writes the file header.
+     * @param out the stream to write to; buffer it for efficiency
+     * @throws IOException if the header cannot be written
+     */
+    public GameRecordWriter(OutputStream out) throws IOException {
+        this.out = out;
+        putInt(record, 0, MAGIC);
+        putInt(record, 4, VERSION);
+        out.write(record, 0, FILE_HEADER_SIZE);
+    }
+
+    /**
+     * Creates a buffered writer for a new file, replacing any existing one.
+     * @param path the archive file
+     * @return the writer
+     * @throws IOException if the file cannot be created
+     */
+    public static GameRecordWriter create(Path path) throws IOException {
+        return new GameRecordWriter(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+    }
+
+    /**
+     * Writes a game from a board's move history, adding a pass marker wherever the same
+     * player moved twice in a row.
+     * @param game the board the game was played on from the start, usually finished
+     * @param seed the game's seed, or 0 if it had none
+     * @param black Black's level, or null for a human or unrecorded player
+     * @param white White's level, or null for a human or unrecorded player
+     * @throws IOException if the record cannot be written
+     */
+    public void write(Board game, long seed, Difficulty black, Difficulty white) throws IOException {
+        if (game.getSize() != Board.SIZE) {
+            throw new IllegalArgumentException("Only " + Board.SIZE + "x" + Board.SIZE + " games can be archived");
+        }
+        int count = 0;
+        for (int i = 0; i < game.getHistorySize(); i++) {
+            if (i > 0 && game.getHistoryPlayer(i) == game.getHistoryPlayer(i - 1)) {
+                record[GAME_HEADER_SIZE + count++] = (byte) PASS;
+            }
+            record[GAME_HEADER_SIZE + count++] = (byte) game.getHistoryMove(i);
+        }
+
+        record[0] = (byte) count;
+        record[1] = (byte) game.countStones(Stone.BLACK);
+        record[2] = (byte) game.countStones(Stone.WHITE);
+        record[3] = (byte) (black == null ? UNKNOWN_PLAYER : black.ordinal());
+        record[4] = (byte) (white == null ? UNKNOWN_PLAYER : white.ordinal());
+        record[5] = 0;
+        record[6] = 0;
+        record[7] = 0;
+        putInt(record, 8, (int) (seed >>> 32));
+        putInt(record, 12, (int) seed);
+        out.write(record, 0, GAME_HEADER_SIZE + count);
+    }
+
+    /**
+     * Writes any buffered records to the underlying stream.
+     * @throws IOException if the records cannot be written
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Flushes and closes the underlying stream.
+     * @throws IOException if the stream cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Hand-tuned evaluation combining square values and mobility.
+ * Squares are grouped into masks so each term is a handful of bit counts;
+ * smaller boards get the same groups, found from their corners and edges.
+ */
+public class HeuristicEvaluator implements Evaluator {
+
+    // Square groups, each mirrored into all four corners
+    private static final long CORNERS = 0x8100000000000081L;
+    private static final long X_SQUARES = 0x0042000000004200L;   // Diagonally next to a corner
+    private static final long C_SQUARES = 0x4281000000008142L;   // Edge squares next to a corner
+    private static final long A_SQUARES = 0x2400810000810024L;   // Edge squares two away from a corner
+    private static final long B_SQUARES = 0x1800008181000018L;   // Middle of the edges
+
+    private static final long[] GROUPS = {CORNERS, X_SQUARES, C_SQUARES, A_SQUARES, B_SQUARES};
+    private static final int[] GROUP_WEIGHTS = {500, -250, -100, 50, 25};
+
+    // The groups of each supported board size, indexed by size
+    private static final long[][] GROUPS_BY_SIZE = new long[Board.SIZE + 1][];
+
+    static {
+        for (int size = Bitboards.MIN_SIZE; size <= Board.SIZE; size += 2) {
+            GROUPS_BY_SIZE[size] = squareGroups(size);
+        }
+    }
+
+    static final int MOBILITY_WEIGHT = 40;
+    private static final int MAX_SCORE = 64 * DISC - 1;
+
+    @Override
+    public int evaluate(Board board) {
+        Stone player = board.getCurrentPlayer();
+        long own = board.getBitboard(player);
+        long opponent = board.getBitboard(player.opposite());
+        long[] groups = GROUPS_BY_SIZE[board.getSize()];
+
+        int score = 0;
+        for (int i = 0; i < groups.length; i++) {
+            score += GROUP_WEIGHTS[i] * (Long.bitCount(own & groups[i]) - Long.bitCount(opponent & groups[i]));
+        }
+
+        long squares = board.getSquareMask();
+        int ownMobility = Long.bitCount(Bitboards.legalMoves(own, opponent) & squares);
+        int opponentMobility = Long.bitCount(Bitboards.legalMoves(opponent, own) & squares);
+        score += MOBILITY_WEIGHT * (ownMobility - opponentMobility);
+
+        // Keep heuristic scores strictly inside the range of exact results
+        return Math.max(-MAX_SCORE, Math.min(MAX_SCORE, score));
+    }
+
+    /**
+     * Works out the square groups of a board size: corners, X-squares, then edge squares
+     * one (C), two (A) and more (B) squares from the nearest corner.
+     * @param size the board size
+     * @return the group masks, in the order of {@link #GROUP_WEIGHTS}
+     */
+    static long[] squareGroups(int size) {
+        long[] groups = new long[GROUP_WEIGHTS.length];
+        int last = size - 1;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int rowDistance = Math.min(row, last - row);
+                int colDistance = Math.min(col, last - col);
+                int group;
+                if (rowDistance == 0 && colDistance == 0) {
+                    group = 0;
+                } else if (rowDistance == 1 && colDistance == 1) {
+                    group = 1;
+                } else if (rowDistance == 0 || colDistance == 0) {
+                    // Distance along the edge to the nearest corner
+                    group = Math.min(4, 1 + Math.max(rowDistance, colDistance));
+                } else {
+                    continue;
+                }
+                groups[group] |= 1L << Bitboards.square(row, col);
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Gets the value of holding a square, e.g. to seed other evaluators.
+     * @param square the square index
+     * @return the square's weight in hundredths of a disc
+     */
+    static int squareValue(int square) {
+        for (int i = 0; i < GROUPS.length; i++) {
+            if ((GROUPS[i] & (1L << square)) != 0) {
+                return GROUP_WEIGHTS[i];
+            }
+        }
+        return 0;
+    }
+}
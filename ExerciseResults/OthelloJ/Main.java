@@ -1,4 +1,7 @@
 import javax.swing.*;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 
 /**
  * Entry point for the Othello game application.
@@ -6,10 +9,17 @@ import javax.swing.*;
 public class Main {
     
     /**
-     * Main method - launches the Othello game.
-     * @param args command line arguments (not used)
+     * Main method - launches the Othello game, or with the argument {@code engine}
+     * runs the AI headless as an {@link EngineProtocol} engine on standard input and output.
+     * @param args command line arguments: nothing, or "engine"
+     * @throws IOException if the engine cannot read its commands
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("engine")) {
+            new EngineProtocol(new InputStreamReader(System.in), new OutputStreamWriter(System.out)).run();
+            return;
+        }
+        
         // Set look and feel to system default for better appearance
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
@@ -24,5 +34,3 @@ public class Main {
         });
     }
 }
-
-
@@ -0,0 +1,55 @@
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Iterates the square indices set in a move mask, lowest square first.
+ * Instances can be reset and reused so walking moves never allocates.
+ */
+public class MoveIterator implements PrimitiveIterator.OfInt {
+
+    private long remaining;
+
+    /**
+     * Creates an empty iterator.
+     */
+    public MoveIterator() {
+        this(0L);
+    }
+
+    /**
+     * Creates an iterator over the squares in a mask.
+     * @param mask the squares to iterate
+     */
+    public MoveIterator(long mask) {
+        this.remaining = mask;
+    }
+
+    /**
+     * Restarts the iterator over a new mask.
+     * @param mask the squares to iterate
+     * @return this iterator
+     */
+    public MoveIterator reset(long mask) {
+        this.remaining = mask;
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return remaining != 0;
+    }
+
+    /**
+     * Returns the next square index (row * 8 + col).
+     * @return the next square index
+     */
+    @Override
+    public int nextInt() {
+        if (remaining == 0) {
+            throw new NoSuchElementException();
+        }
+        int square = Long.numberOfTrailingZeros(remaining);
+        remaining &= remaining - 1;
+        return square;
+    }
+}
@@ -0,0 +1,396 @@
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Move ordering for the {@link SearchEngine}: the transposition table's move first, then
+ * the killer moves of the ply, then the rest by opponent mobility (fewest replies first)
+ * at shallow nodes, where a move generation per move is cheap next to the subtree below,
+ * or by history score nearer the leaves, with square order for ties.
+ * <p>
+ * Each heuristic can be switched off to measure what it is worth, and the moves tried
+ * and beta cutoffs are counted by the heuristic that placed the move. The default set
+ * comes from {@code -Dothello.moveOrdering=hash,killers,history,mobility} (all of them
+ * unless set). One instance belongs to one engine and is not thread-safe.
+ */
+public class MoveOrdering {
+
+    /**
+     * A way of choosing which moves to try first.
+     */
+    public enum Heuristic {
+        /** The best move stored in the transposition table for the position. */
+        HASH_MOVE("hash"),
+        /** The last two moves that caused a cutoff at the same ply. */
+        KILLERS("killers"),
+        /** Squares by how often and how deep they caused cutoffs, per color. */
+        HISTORY("history"),
+        /** Moves that leave the opponent the fewest replies, at nodes far from the leaves. */
+        MOBILITY("mobility");
+
+        private final String label;
+
+        Heuristic(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Gets the name used in the system property and statistics.
+         * @return the label
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * Parses a comma-separated list of labels.
+         * @param labels e.g. {@code "hash,killers"}; blank for none
+         * @return the heuristics named
+         * @throws IllegalArgumentException if a label is unknown
+         */
+        public static Set<Heuristic> parse(String labels) {
+            Set<Heuristic> heuristics = EnumSet.noneOf(Heuristic.class);
+            for (String label : labels.split(",")) {
+                String name = label.trim().toLowerCase(Locale.ROOT);
+                if (name.isEmpty()) {
+                    continue;
+                }
+                Heuristic found = null;
+                for (Heuristic heuristic : values()) {
+                    if (heuristic.label.equals(name)) {
+                        found = heuristic;
+                    }
+                }
+                if (found == null) {
+                    throw new IllegalArgumentException("Unknown move ordering heuristic: " + label);
+                }
+                heuristics.add(found);
+            }
+            return heuristics;
+        }
+    }
+
+    /**
+     * Heuristics used by new instances, configurable with {@code -Dothello.moveOrdering=...}.
+     */
+    public static final Set<Heuristic> DEFAULT_HEURISTICS = Heuristic.parse(
+        System.getProperty("othello.moveOrdering", "hash,killers,history,mobility"));
+
+    // Nodes with at least this much depth left are ordered by mobility
+    private static final int MOBILITY_MIN_DEPTH = 3;
+
+    // History scores are halved once one passes this, and at the start of each search
+    private static final int MAX_HISTORY = 1 << 24;
+
+    // Per-ply scratch rows; a position can have more than 32 moves, so allow one per square
+    private static final int MAX_PLY = 64;
+    private static final int MAX_MOVES = 64;
+
+    // Statistics slot for moves no heuristic placed
+    private static final int UNORDERED = Heuristic.values().length;
+
+    private final boolean[] enabled = new boolean[Heuristic.values().length];
+
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[][] history = new int[Stone.values().length][64];
+
+    // Ordered moves and the heuristic that placed each, one row per ply so recursion never allocates
+    private final int[][] moveBuffers = new int[MAX_PLY][MAX_MOVES];
+    private final int[][] keyBuffers = new int[MAX_PLY][MAX_MOVES];
+    private final byte[][] sourceBuffers = new byte[MAX_PLY][MAX_MOVES];
+
+    private final long[] tries = new long[UNORDERED + 1];
+    private final long[] cutoffs = new long[UNORDERED + 1];
+
+    /**
+     * Creates a move ordering with the default heuristics.
+     */
+    public MoveOrdering() {
+        for (Heuristic heuristic : DEFAULT_HEURISTICS) {
+            enabled[heuristic.ordinal()] = true;
+        }
+        clearKillers();
+    }
+
+    /**
+     * Switches a heuristic on or off.
+     * @param heuristic the heuristic
+     * @param on whether to use it
+     */
+    public void setEnabled(Heuristic heuristic, boolean on) {
+        enabled[heuristic.ordinal()] = on;
+    }
+
+    /**
+     * Checks whether a heuristic is used.
+     * @param heuristic the heuristic
+     * @return true if it is switched on
+     */
+    public boolean isEnabled(Heuristic heuristic) {
+        return enabled[heuristic.ordinal()];
+    }
+
+    /**
+     * Prepares for a new search: killers are forgotten, since plies now count from a
+     * new root, and history is aged so recent cutoffs count most.
+     */
+    void newSearch() {
+        clearKillers();
+        ageHistory();
+    }
+
+    /**
+     * Forgets killers and history, e.g. before a new game.
+     */
+    public void clear() {
+        clearKillers();
+        for (int[] scores : history) {
+            Arrays.fill(scores, 0);
+        }
+    }
+
+    /**
+     * Gets the buffer that {@link #order} fills for a ply.
+     * @param ply the distance from the root
+     * @return the ordered moves
+     */
+    int[] moves(int ply) {
+        return moveBuffers[ply];
+    }
+
+    /**
+     * Checks whether the transposition table's move should be tried before any others.
+     * @param hashMove the stored move, or -1 if none
+     * @param moves the legal moves
+     * @return true if the move is legal and the heuristic is on
+     */
+    boolean useHashMove(int hashMove, long moves) {
+        return enabled[Heuristic.HASH_MOVE.ordinal()] && hashMove >= 0 && (moves & (1L << hashMove)) != 0;
+    }
+
+    /**
+     * Puts the hash move first in a ply's buffer.
+     * @return the number of moves in the buffer, 1
+     */
+    int orderHashMove(int ply, int hashMove) {
+        moveBuffers[ply][0] = hashMove;
+        sourceBuffers[ply][0] = (byte) Heuristic.HASH_MOVE.ordinal();
+        return 1;
+    }
+
+    /**
+     * Orders moves into a ply's buffer after those already there: killers first, then the
+     * rest by mobility or history, as switched on.
+     * @param position the position, with the player to move
+     * @param moves the moves to order
+     * @param ply the distance from the root
+     * @param depth the remaining depth
+     * @param start the number of moves already in the buffer
+     * @return the number of moves in the buffer
+     */
+    int order(Board position, long moves, int ply, int depth, int start) {
+        int[] order = moveBuffers[ply];
+        int[] keys = keyBuffers[ply];
+        byte[] sources = sourceBuffers[ply];
+        int count = start;
+
+        if (enabled[Heuristic.KILLERS.ordinal()]) {
+            for (int killer : killers[ply]) {
+                if (killer >= 0 && (moves & (1L << killer)) != 0) {
+                    order[count] = killer;
+                    sources[count++] = (byte) Heuristic.KILLERS.ordinal();
+                    moves &= ~(1L << killer);
+                }
+            }
+        }
+
+        Stone player = position.getCurrentPlayer();
+        int source = depth >= MOBILITY_MIN_DEPTH && enabled[Heuristic.MOBILITY.ordinal()]
+            ? Heuristic.MOBILITY.ordinal()
+            : enabled[Heuristic.HISTORY.ordinal()] ? Heuristic.HISTORY.ordinal() : UNORDERED;
+        long own = position.getBitboard(player);
+        long opponent = position.getBitboard(player.opposite());
+        long squares = position.getSquareMask();
+        int[] scores = history[player.ordinal()];
+        int first = count;
+
+        for (long m = moves; m != 0; m &= m - 1) {
+            int square = Long.numberOfTrailingZeros(m);
+            int key;
+            if (source == Heuristic.MOBILITY.ordinal()) {
+                long placed = 1L << square;
+                long flipped = Bitboards.flips(own, opponent, square);
+                key = Long.bitCount(Bitboards.legalMoves(opponent & ~flipped, own | flipped | placed) & squares);
+            } else if (source == Heuristic.HISTORY.ordinal()) {
+                key = -scores[square];
+            } else {
+                key = 0;
+            }
+
+            // Insertion sort by key, stable so ties keep square order
+            int i = count++;
+            while (i > first && keys[i - 1] > key) {
+                order[i] = order[i - 1];
+                keys[i] = keys[i - 1];
+                i--;
+            }
+            order[i] = square;
+            keys[i] = key;
+        }
+        for (int i = first; i < count; i++) {
+            sources[i] = (byte) source;
+        }
+        return count;
+    }
+
+    /**
+     * Counts a move tried from a ply's buffer.
+     * @param ply the distance from the root
+     * @param index the move's place in the buffer
+     */
+    void recordTry(int ply, int index) {
+        tries[sourceBuffers[ply][index]]++;
+    }
+
+    /**
+     * Learns from a beta cutoff: the move becomes a killer of its ply and gains history.
+     * @param player the player who made the move
+     * @param ply the distance from the root
+     * @param depth the remaining depth
+     * @param index the move's place in the buffer
+     */
+    void recordCutoff(Stone player, int ply, int depth, int index) {
+        int move = moveBuffers[ply][index];
+        cutoffs[sourceBuffers[ply][index]]++;
+
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != move) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+
+        int[] scores = history[player.ordinal()];
+        scores[move] += depth * depth;
+        if (scores[move] > MAX_HISTORY) {
+            ageHistory();
+        }
+    }
+
+    /**
+     * Gets how many moves placed by a heuristic were searched.
+     * @param heuristic the heuristic, or null for moves in plain square order
+     * @return the count since the statistics were last reset
+     */
+    public long getTries(Heuristic heuristic) {
+        return tries[heuristic == null ? UNORDERED : heuristic.ordinal()];
+    }
+
+    /**
+     * Gets how many beta cutoffs were caused by moves placed by a heuristic.
+     * @param heuristic the heuristic, or null for moves in plain square order
+     * @return the count since the statistics were last reset
+     */
+    public long getCutoffs(Heuristic heuristic) {
+        return cutoffs[heuristic == null ? UNORDERED : heuristic.ordinal()];
+    }
+
+    /**
+     * Sets the statistics back to zero.
+     */
+    public void resetStatistics() {
+        Arrays.fill(tries, 0);
+        Arrays.fill(cutoffs, 0);
+    }
+
+    /**
+     * Formats the cutoffs and cutoff rate of each heuristic on one line.
+     * @return the formatted statistics
+     */
+    public String formatStatistics() {
+        StringBuilder text = new StringBuilder();
+        for (int source = 0; source <= UNORDERED; source++) {
+            String label = source == UNORDERED ? "other" : Heuristic.values()[source].getLabel();
+            double rate = tries[source] == 0 ? 0.0 : 100.0 * cutoffs[source] / tries[source];
+            text.append(String.format("%s%s %d (%.1f%%)", text.length() > 0 ? ", " : "", label, cutoffs[source], rate));
+        }
+        return text.toString();
+    }
+
+    private void clearKillers() {
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = -1;
+            plyKillers[1] = -1;
+        }
+    }
+
+    private void ageHistory() {
+        for (int[] scores : history) {
+            for (int square = 0; square < scores.length; square++) {
+                scores[square] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * Compares node counts and times of fixed-depth searches with each heuristic switched
+     * off in turn, and with none, on the same random middle-game positions.
+     * Usage: {@code java MoveOrdering [depth] [positions]}
+     * @param args optional search depth and number of positions
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int positions = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+
+        Random random = new Random(25);
+        Board[] boards = new Board[positions];
+        for (int i = 0; i < positions; i++) {
+            boards[i] = randomPosition(random, 16 + random.nextInt(20));
+        }
+
+        Evaluator evaluator = PatternEvaluator.getDefault();
+        // An untimed pass first, so the first row is not slowed by JIT compilation
+        searchAll(new SearchEngine(evaluator, new TranspositionTable(16)), boards, depth);
+
+        System.out.printf("%-16s %12s %9s  %s%n", "without", "nodes", "ms", "cutoffs (rate)");
+        // Everything on, then each heuristic off in turn, then everything off
+        Heuristic[] heuristics = Heuristic.values();
+        for (int skip = -1; skip <= heuristics.length; skip++) {
+            SearchEngine engine = new SearchEngine(evaluator, new TranspositionTable(16));
+            MoveOrdering ordering = engine.getMoveOrdering();
+            for (Heuristic heuristic : heuristics) {
+                ordering.setEnabled(heuristic, skip < 0 || (skip < heuristics.length && heuristic.ordinal() != skip));
+            }
+            String label = skip < 0 ? "nothing" : skip < heuristics.length ? heuristics[skip].getLabel() : "all";
+
+            long start = System.nanoTime();
+            long nodes = searchAll(engine, boards, depth);
+            System.out.printf("%-16s %12d %9d  %s%n", label, nodes, (System.nanoTime() - start) / 1_000_000,
+                ordering.formatStatistics());
+        }
+    }
+
+    /**
+     * Searches each position from scratch, without the endgame solver.
+     * @return the total nodes
+     */
+    private static long searchAll(SearchEngine engine, Board[] boards, int depth) {
+        engine.setEndgameThreshold(0);
+        long nodes = 0;
+        for (Board board : boards) {
+            engine.getTranspositionTable().clear();
+            engine.getMoveOrdering().clear();
+            nodes += engine.search(board, SearchLimits.depth(depth)).getNodes();
+        }
+        return nodes;
+    }
+
+    private static Board randomPosition(Random random, int plies) {
+        Board board = new Board();
+        for (int i = 0; i < plies && !board.isGameOver(); i++) {
+            board.makeMove(Bitboards.randomSquare(board.getValidMoveMask(board.getCurrentPlayer()), random));
+        }
+        return board;
+    }
+}
@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.EnumSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the MoveOrdering heuristics.
+ */
+class MoveOrderingTest {
+
+    private final Evaluator evaluator = new HeuristicEvaluator();
+
+    private SearchEngine engine(boolean on) {
+        SearchEngine engine = new SearchEngine(evaluator, new TranspositionTable(1));
+        engine.setEndgameThreshold(0);
+        for (MoveOrdering.Heuristic heuristic : MoveOrdering.Heuristic.values()) {
+            engine.getMoveOrdering().setEnabled(heuristic, on);
+        }
+        return engine;
+    }
+
+    @Test
+    @DisplayName("Ordering changes the nodes searched but not the score")
+    void testSameScoreFewerNodes() {
+        Random random = new Random(25);
+        long orderedNodes = 0;
+        long plainNodes = 0;
+        for (int game = 0; game < 10; game++) {
+            Board board = TestPositions.randomPosition(random, 12 + random.nextInt(20));
+            if (board.isGameOver()) {
+                continue;
+            }
+            SearchResult ordered = engine(true).search(board, SearchLimits.depth(5));
+            SearchResult plain = engine(false).search(board, SearchLimits.depth(5));
+            assertEquals(plain.getScore(), ordered.getScore(), "Same score at the same depth:\n" + board);
+            orderedNodes += ordered.getNodes();
+            plainNodes += plain.getNodes();
+        }
+        assertTrue(orderedNodes < plainNodes, "Ordering should save nodes: " + orderedNodes + " vs " + plainNodes);
+    }
+
+    @Test
+    @DisplayName("Cutoffs are counted by the heuristic that placed the move, and only for those switched on")
+    void testStatistics() {
+        Board board = TestPositions.randomPosition(new Random(26), 20);
+        SearchEngine engine = engine(false);
+        MoveOrdering ordering = engine.getMoveOrdering();
+        ordering.setEnabled(MoveOrdering.Heuristic.HASH_MOVE, true);
+        ordering.setEnabled(MoveOrdering.Heuristic.KILLERS, true);
+        engine.search(board, SearchLimits.depth(6));
+
+        assertTrue(ordering.getCutoffs(MoveOrdering.Heuristic.HASH_MOVE) > 0);
+        assertTrue(ordering.getCutoffs(MoveOrdering.Heuristic.KILLERS) > 0);
+        assertTrue(ordering.getCutoffs(null) > 0, "Moves after the killers are in square order");
+        assertEquals(0, ordering.getTries(MoveOrdering.Heuristic.HISTORY));
+        assertEquals(0, ordering.getTries(MoveOrdering.Heuristic.MOBILITY));
+        for (MoveOrdering.Heuristic heuristic : MoveOrdering.Heuristic.values()) {
+            assertTrue(ordering.getCutoffs(heuristic) <= ordering.getTries(heuristic));
+        }
+
+        ordering.resetStatistics();
+        assertEquals(0, ordering.getTries(MoveOrdering.Heuristic.HASH_MOVE));
+        assertEquals(0, ordering.getCutoffs(null));
+    }
+
+    @Test
+    @DisplayName("Positions with more than 32 moves are ordered and searched")
+    void testManyMoves() {
+        Board board = TestPositions.manyMoves();
+        assertEquals(35, Long.bitCount(board.getValidMoveMask(board.getCurrentPlayer())));
+
+        SearchResult result = engine(true).search(board, SearchLimits.depth(3));
+
+        assertEquals(3, result.getDepth());
+        assertTrue(board.isValidMove(result.getMovePosition()[0], result.getMovePosition()[1]), "Move should be valid");
+    }
+
+    @Test
+    @DisplayName("Heuristic lists are parsed by label")
+    void testParse() {
+        assertEquals(EnumSet.of(MoveOrdering.Heuristic.HASH_MOVE, MoveOrdering.Heuristic.MOBILITY),
+            MoveOrdering.Heuristic.parse("mobility, Hash"));
+        assertEquals(EnumSet.noneOf(MoveOrdering.Heuristic.class), MoveOrdering.Heuristic.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> MoveOrdering.Heuristic.parse("hash,butterfly"));
+    }
+}
@@ -0,0 +1,318 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Opening book stored as a sorted binary file and memory-mapped for lookup.
+ * <p>
+ * Each position is stored once per symmetry class: the 8 rotations/reflections of
+ * a position share one canonical form (the smallest one), and book moves are stored
+ * relative to it. Lookup is a binary search over the mapped file, so opening a book
+ * reads nothing up front.
+ * <p>
+ * File layout (big-endian): a 16-byte header (magic, version, entry count, reserved)
+ * followed by 24-byte entries sorted by position: player-to-move stones (8 bytes),
+ * opponent stones (8), move square (1), reserved (1), score in hundredths of a disc (2),
+ * weight (4). A position with several book moves has one entry per move.
+ */
+public class OpeningBook {
+
+    /**
+     * Book file used by the AI, configurable with {@code -Dothello.book=path}; an empty
+     * path turns the book off.
+     */
+    public static final String DEFAULT_PATH = System.getProperty("othello.book", "book.bin");
+
+    private static final int MAGIC = 0x4F544842;  // "OTHB"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int ENTRY_SIZE = 24;
+
+    private static OpeningBook defaultBook;
+    private static boolean defaultLoaded;
+
+    private final MappedByteBuffer buffer;
+    private final int entryCount;
+
+    /**
+     * A book move for one canonical position.
+     * @param player the canonical player-to-move stones
+     * @param opponent the canonical opponent stones
+     * @param move the move square in the canonical orientation
+     * @param score the move's score in hundredths of a disc
+     * @param weight the relative probability of playing the move
+     */
+    public record Entry(long player, long opponent, int move, int score, int weight) {
+    }
+
+    private OpeningBook(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not an opening book file");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported opening book version: " + buffer.getInt(4));
+        }
+        this.entryCount = buffer.getInt(8);
+        if ((long) HEADER_SIZE + (long) entryCount * ENTRY_SIZE > buffer.capacity()) {
+            throw new IllegalArgumentException("Truncated opening book file");
+        }
+    }
+
+    /**
+     * Opens a book file by mapping it into memory.
+     * @param path the book file
+     * @return the opened book
+     * @throws IOException if the file cannot be read
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            return new OpeningBook(buffer);
+        }
+    }
+
+    /**
+     * Gets the book at {@link #DEFAULT_PATH}, opened once and shared. A book file that
+     * exists but cannot be opened is logged and left out.
+     * @return the default book, or null if there is no readable book file or it is turned off
+     */
+    public static synchronized OpeningBook getDefault() {
+        if (!defaultLoaded) {
+            defaultLoaded = true;
+            Path path = Paths.get(DEFAULT_PATH);
+            if (!DEFAULT_PATH.isEmpty() && Files.isReadable(path)) {
+                try {
+                    defaultBook = open(path);
+                } catch (IOException | IllegalArgumentException e) {
+                    System.getLogger(OpeningBook.class.getName()).log(System.Logger.Level.WARNING,
+                        "Could not open opening book " + path + ", playing without it: " + e.getMessage());
+                }
+            }
+        }
+        return defaultBook;
+    }
+
+    /**
+     * Gets the number of entries (book moves) in the book.
+     * @return the entry count
+     */
+    public int size() {
+        return entryCount;
+    }
+
+    /**
+     * Picks a book move for the player to move, at random in proportion to the weights.
+     * @param board the current position
+     * @param random source of randomness
+     * @return the move square, or -1 if the position is not in the book (or not 8x8)
+     */
+    public int chooseMove(Board board, Random random) {
+        if (board.getSize() != Board.SIZE) {
+            return -1;
+        }
+        Stone player = board.getCurrentPlayer();
+        long own = board.getBitboard(player);
+        long opponent = board.getBitboard(player.opposite());
+        int transform = Symmetry.canonicalTransform(own, opponent);
+        long canonicalOwn = Symmetry.apply(own, transform);
+        long canonicalOpponent = Symmetry.apply(opponent, transform);
+
+        int first = findFirst(canonicalOwn, canonicalOpponent);
+        if (first < 0) {
+            return -1;
+        }
+
+        long totalWeight = 0;
+        int last = first;
+        while (last < entryCount && matches(last, canonicalOwn, canonicalOpponent)) {
+            totalWeight += weight(last);
+            last++;
+        }
+        if (totalWeight <= 0) {
+            return -1;
+        }
+
+        long pick = (long) (random.nextDouble() * totalWeight);
+        int chosen = first;
+        for (int i = first; i < last; i++) {
+            pick -= weight(i);
+            if (pick < 0) {
+                chosen = i;
+                break;
+            }
+        }
+
+        int move = Symmetry.square(buffer.get(offset(chosen) + 16), Symmetry.inverse(transform));
+        return (board.getValidMoveMask(player) & (1L << move)) != 0 ? move : -1;
+    }
+
+    /**
+     * Binary-searches for the first entry of a canonical position.
+     * @return the entry index, or -1 if the position is not in the book
+     */
+    private int findFirst(long own, long opponent) {
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(mid, own, opponent) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < entryCount && matches(low, own, opponent) ? low : -1;
+    }
+
+    private int compare(int index, long own, long opponent) {
+        int offset = offset(index);
+        int result = Long.compareUnsigned(buffer.getLong(offset), own);
+        return result != 0 ? result : Long.compareUnsigned(buffer.getLong(offset + 8), opponent);
+    }
+
+    private boolean matches(int index, long own, long opponent) {
+        int offset = offset(index);
+        return buffer.getLong(offset) == own && buffer.getLong(offset + 8) == opponent;
+    }
+
+    private int weight(int index) {
+        return buffer.getInt(offset(index) + 20);
+    }
+
+    private static int offset(int index) {
+        return HEADER_SIZE + index * ENTRY_SIZE;
+    }
+
+    /**
+     * Creates a book entry for a move in a position, canonicalising both.
+     * @param board the position
+     * @param move the move square
+     * @param score the move's score in hundredths of a disc
+     * @param weight the relative probability of playing the move
+     * @return the entry
+     */
+    public static Entry entry(Board board, int move, int score, int weight) {
+        Stone player = board.getCurrentPlayer();
+        long own = board.getBitboard(player);
+        long opponent = board.getBitboard(player.opposite());
+        int t = Symmetry.canonicalTransform(own, opponent);
+        return new Entry(Symmetry.apply(own, t), Symmetry.apply(opponent, t), Symmetry.square(move, t), score, weight);
+    }
+
+    /**
+     * Writes entries to a book file, sorted for lookup.
+     * @param path the file to write
+     * @param entries the book moves
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, List<Entry> entries) throws IOException {
+        List<Entry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.<Entry, Long>comparing(Entry::player, Long::compareUnsigned)
+            .thenComparing(Entry::opponent, Long::compareUnsigned)
+            .thenComparing(Entry::move));
+
+        try (OutputStream file = Files.newOutputStream(path);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sorted.size());
+            out.writeInt(0);
+            for (Entry entry : sorted) {
+                out.writeLong(entry.player());
+                out.writeLong(entry.opponent());
+                out.writeByte(entry.move());
+                out.writeByte(0);
+                out.writeShort(entry.score());
+                out.writeInt(entry.weight());
+            }
+        }
+    }
+
+    /**
+     * Builds a book by searching from the starting position. Every move scoring within
+     * the window of the best move is kept, and positions after kept moves are expanded
+     * until the ply limit.
+     * Usage: {@code java OpeningBook [file] [plies] [depth] [window]}
+     * @param args optional output file, ply limit, search depth and window in hundredths of a disc
+     * @throws IOException if the book cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        Path path = Paths.get(args.length > 0 ? args[0] : DEFAULT_PATH);
+        int plies = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        int window = args.length > 3 ? Integer.parseInt(args[3]) : 2 * Evaluator.DISC;
+
+        SearchEngine engine = new SearchEngine();
+        engine.setEndgameThreshold(0);
+        List<Entry> entries = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        Deque<Board> queue = new ArrayDeque<>();
+        queue.add(new Board());
+        long start = System.nanoTime();
+
+        while (!queue.isEmpty()) {
+            Board board = queue.poll();
+            Stone player = board.getCurrentPlayer();
+            long own = board.getBitboard(player);
+            long opponent = board.getBitboard(player.opposite());
+            if (!seen.add(Symmetry.canonicalHash(board))) {
+                continue;
+            }
+
+            // Score every move by searching the position after it
+            long moves = board.getValidMoveMask(player);
+            int count = Long.bitCount(moves);
+            int[] squares = new int[count];
+            int[] scores = new int[count];
+            int best = Integer.MIN_VALUE;
+            for (int i = 0; moves != 0; moves &= moves - 1, i++) {
+                squares[i] = Long.numberOfTrailingZeros(moves);
+                Board next = new Board(board);
+                next.makeMove(squares[i]);
+                int score = next.isGameOver()
+                    ? (next.countStones(player) - next.countStones(player.opposite())) * Evaluator.DISC
+                    : engine.search(next, SearchLimits.depth(depth)).getScore();
+                scores[i] = next.getCurrentPlayer() == player ? score : -score;
+                best = Math.max(best, scores[i]);
+            }
+
+            // Every move adds one stone, so the ply is the stone count past the first four
+            int ply = Long.bitCount(own | opponent) - 4;
+            for (int i = 0; i < count; i++) {
+                if (scores[i] < best - window) {
+                    continue;
+                }
+                entries.add(entry(board, squares[i], scores[i], window + 1 - (best - scores[i])));
+                if (ply + 1 < plies) {
+                    Board next = new Board(board);
+                    next.makeMove(squares[i]);
+                    if (!next.isGameOver()) {
+                        queue.add(next);
+                    }
+                }
+            }
+        }
+
+        write(path, entries);
+        System.out.printf("Wrote %d moves for %d positions to %s in %d s%n",
+            entries.size(), seen.size(), path, (System.nanoTime() - start) / 1_000_000_000);
+    }
+}
@@ -0,0 +1,88 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the OpeningBook class.
+ */
+class OpeningBookTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    @DisplayName("Book move is found for a reflected or rotated position")
+    void testSymmetricLookup() throws IOException {
+        // All four first moves lead to the same position up to symmetry
+        Board start = new Board();
+        long firstMoves = start.getValidMoveMask(start.getCurrentPlayer());
+        int first = Long.numberOfTrailingZeros(firstMoves);
+        Board stored = new Board(start);
+        stored.makeMove(first);
+        int reply = Long.numberOfTrailingZeros(stored.getValidMoveMask(stored.getCurrentPlayer()));
+
+        OpeningBook book = writeBook(List.of(OpeningBook.entry(stored, reply, 0, 1)));
+        Board expected = new Board(stored);
+        expected.makeMove(reply);
+
+        for (long moves = firstMoves; moves != 0; moves &= moves - 1) {
+            Board board = new Board(start);
+            board.makeMove(Long.numberOfTrailingZeros(moves));
+
+            int move = book.chooseMove(board, new Random(1));
+            assertTrue(move >= 0, "Symmetric position should be in the book:\n" + board);
+            assertNotEquals(0L, board.getValidMoveMask(board.getCurrentPlayer()) & (1L << move), "Move should be valid");
+
+            board.makeMove(move);
+            assertArrayEquals(canonical(expected), canonical(board), "Book move should be the stored reply transformed");
+        }
+    }
+
+    @Test
+    @DisplayName("Every weighted choice is a valid move")
+    void testWeightedChoice() throws IOException {
+        Board board = new Board();
+        long moves = board.getValidMoveMask(board.getCurrentPlayer());
+        int move = Long.numberOfTrailingZeros(moves);
+        OpeningBook book = writeBook(List.of(OpeningBook.entry(board, move, 0, 5)));
+
+        Random random = new Random(2);
+        for (int i = 0; i < 20; i++) {
+            int chosen = book.chooseMove(board, random);
+            assertNotEquals(0L, moves & (1L << chosen), "Book move should be valid");
+        }
+        assertEquals(1, book.size());
+    }
+
+    @Test
+    @DisplayName("Position not in the book returns -1")
+    void testMiss() throws IOException {
+        Board board = new Board();
+        OpeningBook book = writeBook(List.of(OpeningBook.entry(board,
+            Long.numberOfTrailingZeros(board.getValidMoveMask(board.getCurrentPlayer())), 0, 1)));
+
+        board.makeMove(Long.numberOfTrailingZeros(board.getValidMoveMask(board.getCurrentPlayer())));
+        assertEquals(-1, book.chooseMove(board, new Random(3)));
+    }
+
+    private OpeningBook writeBook(List<OpeningBook.Entry> entries) throws IOException {
+        Path path = folder.resolve("book.bin");
+        OpeningBook.write(path, entries);
+        return OpeningBook.open(path);
+    }
+
+    private static long[] canonical(Board board) {
+        Stone player = board.getCurrentPlayer();
+        long own = board.getBitboard(player);
+        long opponent = board.getBitboard(player.opposite());
+        int t = Symmetry.canonicalTransform(own, opponent);
+        return new long[]{Symmetry.apply(own, t), Symmetry.apply(opponent, t)};
+    }
+}
@@ -1,5 +1,11 @@
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Main window for the Othello game.
@@ -10,8 +16,20 @@ public class OthelloFrame extends JFrame {
     private final BoardPanel boardPanel;
     private final AIPlayer aiPlayer;
     
+    // The AI thinks on its own thread so the window stays responsive
+    private final ExecutorService aiExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "othello-ai");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> aiTask;
+    // Numbers each AI move request; a result is only used if no newer request or cancel came since
+    private int aiRequest;
+    
     private JLabel blackScoreLabel;
     private JLabel whiteScoreLabel;
+    private JLabel metricsLabel;
+    private Timer metricsTimer;
     private final JLabel turnLabel;
     private final JLabel statusLabel;
     
@@ -20,6 +38,34 @@ public class OthelloFrame extends JFrame {
     private static final Color TEXT_COLOR = new Color(0xECEFF1);
     private static final Color ACCENT_COLOR = new Color(0x4CAF50);
     private static final Color SIDEBAR_COLOR = new Color(0x1A1A1A);  // Dark sidebar color
+    
+    // Board size for new games: 8, 6 or 4 for the smaller variants, or 10 for the larger one
+    private static final int BOARD_SIZE = Integer.getInteger("othello.boardSize", Board.SIZE);
+
+    // AI level: beginner (the default), intermediate or expert; 10x10 boards take beginner only
+    private static final Difficulty DIFFICULTY = difficulty(System.getProperty("othello.difficulty", "beginner"));
+
+    /**
+     * Reads the AI level, in any case. An unknown level, or a searching level on a board
+     * too large for the search, is logged and the beginner level used.
+     */
+    private static Difficulty difficulty(String name) {
+        System.Logger logger = System.getLogger(OthelloFrame.class.getName());
+        Difficulty difficulty;
+        try {
+            difficulty = Difficulty.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            logger.log(System.Logger.Level.WARNING, "Unknown difficulty " + name + ", playing at the beginner level");
+            return Difficulty.BEGINNER;
+        }
+        if (!difficulty.supportsBoardSize(BOARD_SIZE)) {
+            logger.log(System.Logger.Level.WARNING, "The " + name + " level searches, which needs a board of at most "
+                + Board.SIZE + "x" + Board.SIZE + "; playing " + BOARD_SIZE + "x" + BOARD_SIZE
+                + " at the beginner level");
+            return Difficulty.BEGINNER;
+        }
+        return difficulty;
+    }
 
     /**
      * Creates the main game window.
@@ -28,11 +74,17 @@ public class OthelloFrame extends JFrame {
         super("Othello");
         
         // Initialize game components
-        board = new Board();
-        aiPlayer = new AIPlayer(Stone.BLACK);
+        board = new Board(BOARD_SIZE);
+        aiPlayer = new AIPlayer(Stone.BLACK, DIFFICULTY);
         
         // Set up the frame
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                shutdownAI();
+            }
+        });
         setResizable(false);
         getContentPane().setBackground(BACKGROUND_COLOR);
         setLayout(new BorderLayout(10, 10));
@@ -201,23 +253,85 @@ public class OthelloFrame extends JFrame {
         // Get the score label from the white panel
         whiteScoreLabel = (JLabel) whitePanel.getComponent(1);
         
+        panel.add(Box.createVerticalStrut(15));
+        
+        // AI statistics overlay, hidden until toggled
+        metricsLabel = new JLabel();
+        metricsLabel.setForeground(TEXT_COLOR);
+        metricsLabel.setFont(new Font("Monospaced", Font.PLAIN, 10));
+        metricsLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        metricsLabel.setVisible(false);
+        panel.add(metricsLabel);
+        
         panel.add(Box.createVerticalGlue());
         
+        // AI Stats button
+        JButton statsButton = createButton("AI Stats");
+        statsButton.addActionListener(e -> toggleMetrics());
+        panel.add(statsButton);
+        
+        panel.add(Box.createVerticalStrut(10));
+        
+        // Take Back button
+        JButton takeBackButton = createButton("Take Back");
+        takeBackButton.addActionListener(e -> takeBackMove());
+        panel.add(takeBackButton);
+        
+        panel.add(Box.createVerticalStrut(10));
+        
         // New Game button
-        JButton newGameButton = new JButton("New Game");
-        newGameButton.setFont(new Font("Segoe UI", Font.BOLD, 12));
-        newGameButton.setBackground(ACCENT_COLOR);
-        newGameButton.setForeground(Color.WHITE);
-        newGameButton.setFocusPainted(false);
-        newGameButton.setBorderPainted(false);
-        newGameButton.setCursor(new Cursor(Cursor.HAND_CURSOR));
-        newGameButton.setAlignmentX(Component.CENTER_ALIGNMENT);
+        JButton newGameButton = createButton("New Game");
         newGameButton.addActionListener(e -> resetGame());
         panel.add(newGameButton);
         
         return panel;
     }
 
+    /**
+     * Shows or hides the AI statistics, which refresh twice a second while shown.
+     */
+    private void toggleMetrics() {
+        if (metricsTimer == null) {
+            metricsTimer = new Timer(500, e -> updateMetrics());
+        }
+        boolean show = !metricsLabel.isVisible();
+        metricsLabel.setVisible(show);
+        if (show) {
+            updateMetrics();
+            metricsTimer.start();
+        } else {
+            metricsTimer.stop();
+        }
+        pack();
+    }
+
+    /**
+     * Shows the latest AI statistics.
+     */
+    private void updateMetrics() {
+        SearchMetrics.Snapshot metrics = SearchMetrics.getGlobal().snapshot();
+        metricsLabel.setText(String.format("<html>Last move %d ms<br>Depth %d, EBF %.1f<br>Nodes %,d<br>"
+                + "%,d nodes/s<br>Table hits %.0f%%<br>Cutoffs %.0f%% (1st %.0f%%)<br>Avg move %.0f ms</html>",
+            metrics.lastMoveMillis(), metrics.lastDepth(), metrics.lastBranchingFactor(), metrics.lastNodes(),
+            metrics.nodesPerSecond(), metrics.tableHitRate() * 100, metrics.cutoffRate() * 100,
+            metrics.firstMoveCutoffRate() * 100, metrics.averageMoveMillis()));
+    }
+
+    /**
+     * Creates a button in the sidebar style.
+     */
+    private JButton createButton(String text) {
+        JButton button = new JButton(text);
+        button.setFont(new Font("Segoe UI", Font.BOLD, 12));
+        button.setBackground(ACCENT_COLOR);
+        button.setForeground(Color.WHITE);
+        button.setFocusPainted(false);
+        button.setBorderPainted(false);
+        button.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        button.setAlignmentX(Component.CENTER_ALIGNMENT);
+        return button;
+    }
+
     /**
      * Creates a row for displaying a player's score.
      */
@@ -274,9 +388,13 @@ public class OthelloFrame extends JFrame {
     }
 
     /**
-     * Makes a move for the AI player.
+     * Starts the AI thinking about its move in the background.
+     * The move is played on the event dispatch thread once it is chosen.
      */
     private void makeAIMove() {
+        if (aiExecutor.isShutdown()) {
+            return;
+        }
         if (board.getCurrentPlayer() != Stone.BLACK) {
             boardPanel.setInputEnabled(true);
             return;
@@ -284,11 +402,40 @@ public class OthelloFrame extends JFrame {
         
         turnLabel.setText("Black's turn (AI thinking...)");
         
-        int[] move = aiPlayer.chooseMove(board);
-        
+        // The AI searches a copy, so the board can be painted while it thinks
+        Board position = new Board(board);
+        int request = ++aiRequest;
+        aiTask = aiExecutor.submit(() -> {
+            try {
+                int[] move = aiPlayer.chooseMove(position);
+                SwingUtilities.invokeLater(() -> {
+                    if (request == aiRequest) {
+                        playAIMove(move, request);
+                    }
+                });
+            } catch (RuntimeException e) {
+                SwingUtilities.invokeLater(() -> {
+                    if (request == aiRequest) {
+                        statusLabel.setText("AI failed: " + e.getMessage());
+                        boardPanel.setInputEnabled(true);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Plays the move the AI chose, after a short pause.
+     * @param move the move as [row, col], or null if the AI had no move
+     * @param request the AI move request the move answers
+     */
+    private void playAIMove(int[] move, int request) {
         if (move != null) {
             // Small delay before making the move
             Timer timer = new Timer(300, e -> {
+                if (request != aiRequest) {
+                    return;
+                }
                 board.makeMove(move[0], move[1]);
                 updateDisplay();
                 
@@ -301,6 +448,7 @@ public class OthelloFrame extends JFrame {
                     nextTimer.start();
                 } else {
                     boardPanel.setInputEnabled(true);
+                    ponder();
                 }
             });
             timer.setRepeats(false);
@@ -312,10 +460,75 @@ public class OthelloFrame extends JFrame {
                 showGameOver();
             } else {
                 boardPanel.setInputEnabled(true);
+                ponder();
             }
         }
     }
 
+    /**
+     * Lets the AI think on the player's time; its next move stops the pondering.
+     * Pondering is started on the AI thread, like the AI's moves.
+     */
+    private void ponder() {
+        if (aiExecutor.isShutdown()) {
+            return;
+        }
+        Board position = new Board(board);
+        aiExecutor.submit(() -> aiPlayer.startPondering(position));
+    }
+
+    /**
+     * Cancels any AI move being thought about; its result, if any, is ignored.
+     */
+    private void cancelAI() {
+        aiRequest++;
+        if (aiTask != null) {
+            aiTask.cancel(true);
+            aiTask = null;
+        }
+        aiPlayer.stop();
+    }
+
+    /**
+     * Cancels the AI and releases its threads, when this window's game ends for good.
+     */
+    private void shutdownAI() {
+        if (aiExecutor.isShutdown()) {
+            return;
+        }
+        cancelAI();
+        if (metricsTimer != null) {
+            metricsTimer.stop();
+        }
+        // Released on the AI thread, after anything it is still doing
+        aiExecutor.submit(aiPlayer::shutdown);
+        aiExecutor.shutdown();
+    }
+
+    /**
+     * Takes back moves until it is the player's turn again before their last move.
+     */
+    private void takeBackMove() {
+        // Only while the player is to move (or the game has ended), never while the AI is thinking
+        if (board.getCurrentPlayer() != Stone.WHITE && !board.isGameOver()) {
+            return;
+        }
+        
+        // Undo the AI's replies and then the player's own last move
+        while (board.getHistorySize() > 0) {
+            board.undoMove();
+            if (board.getCurrentPlayer() == Stone.WHITE) {
+                break;
+            }
+        }
+        
+        boardPanel.setInputEnabled(board.getCurrentPlayer() == Stone.WHITE);
+        updateDisplay();
+        if (!board.isGameOver()) {
+            ponder();
+        }
+    }
+
     /**
      * Updates the display (scores, turn indicator, board).
      */
@@ -338,7 +551,7 @@ public class OthelloFrame extends JFrame {
         }
         
         // Refresh the board
-        boardPanel.repaint();
+        boardPanel.refresh();
     }
 
     /**
@@ -371,8 +584,11 @@ public class OthelloFrame extends JFrame {
      * Resets the game to start a new game.
      */
     private void resetGame() {
+        // Stop the AI of the game being abandoned
+        shutdownAI();
+        
         // Create a new board
-        Board newBoard = new Board();
+        Board newBoard = new Board(BOARD_SIZE);
         
         // Update references
         try {
@@ -0,0 +1,225 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Lazy SMP search: helper threads search the same position as the main thread,
+ * all sharing one lock-free {@link TranspositionTable}. The helpers' results reach
+ * the main thread only through the table; the main thread's result is returned.
+ * With one thread this is a plain {@link SearchEngine} search on the calling thread.
+ */
+public class ParallelSearch {
+
+    /**
+     * Default thread count, configurable with {@code -Dothello.threads=N}.
+     */
+    public static final int DEFAULT_THREADS = Integer.getInteger("othello.threads", 1);
+
+    private final TranspositionTable table;
+    private final SearchEngine[] engines;
+    private final ExecutorService helpers;
+
+    /**
+     * Creates a parallel search with the default thread count.
+     */
+    public ParallelSearch() {
+        this(DEFAULT_THREADS);
+    }
+
+    /**
+     * Creates a parallel search with the default evaluation and table size.
+     * @param threads the number of search threads, including the calling thread
+     */
+    public ParallelSearch(int threads) {
+        this(threads, PatternEvaluator.getDefault(), new TranspositionTable());
+    }
+
+    /**
+     * Creates a parallel search.
+     * @param threads the number of search threads, including the calling thread
+     * @param evaluator the static evaluation, shared by all threads
+     * @param table the transposition table, shared by all threads
+     */
+    public ParallelSearch(int threads, Evaluator evaluator, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread: " + threads);
+        }
+        this.table = table;
+        this.engines = new SearchEngine[threads];
+        for (int i = 0; i < threads; i++) {
+            engines[i] = new SearchEngine(evaluator, table);
+        }
+        this.helpers = threads > 1 ? Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "othello-search-helper");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * Searches a position for the best move of the player to move.
+     * The given board is not modified and must not be modified during the search.
+     * @param board the position to search
+     * @param limits the search budget
+     * @return the main thread's best move, with nodes counted over all threads
+     */
+    public SearchResult search(Board board, SearchLimits limits) {
+        clearStop();
+        return searchSubmitted(board, limits);
+    }
+
+    /**
+     * Searches a position without clearing an earlier stop request, for a search run on
+     * another thread after its caller cleared the request with {@link #clearStop()}.
+     * A stop that arrives before the search begins then still stops it.
+     */
+    SearchResult searchSubmitted(Board board, SearchLimits limits) {
+        long start = System.nanoTime();
+        SearchResult solved = engines[0].solveEndgame(board, limits);
+        if (solved != null) {
+            SearchMetrics.getGlobal().recordSearch(solved, System.nanoTime() - start, 0);
+            return solved;
+        }
+        SearchLimits remaining = SearchEngine.remainingLimits(limits, start);
+        table.newSearch();
+
+        List<Future<SearchResult>> helperResults = new ArrayList<>();
+        for (int i = 1; i < engines.length; i++) {
+            SearchEngine helper = engines[i];
+            int depthOffset = i % 2;
+            helperResults.add(helpers.submit(() -> helper.searchShared(board, remaining, depthOffset)));
+        }
+
+        SearchResult main = engines[0].searchShared(board, remaining, 0);
+
+        long nodes = main.getNodes();
+        for (int i = 1; i < engines.length; i++) {
+            engines[i].stop();
+            nodes += helperResult(helperResults.get(i - 1)).getNodes();
+        }
+
+        SearchResult result = new SearchResult(main.getMove(), main.getScore(), main.getDepth(), nodes,
+            main.getTimeMillis());
+        SearchMetrics.getGlobal().recordSearch(result, System.nanoTime() - start, engines[0].getBranchingFactor());
+        return result;
+    }
+
+    /**
+     * Waits for a stopped helper to finish. The stop request stays set until the next
+     * search is submitted, so a helper that had not started yet returns at once.
+     */
+    private static SearchResult helperResult(Future<SearchResult> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while stopping search helpers", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search helper failed", e.getCause());
+        }
+    }
+
+    /**
+     * Sets a listener told of each iteration completed by the main thread and each
+     * endgame solve, on the thread calling {@link #search(Board, SearchLimits)}.
+     * @param listener the listener, or null for none
+     */
+    public void setProgressListener(Consumer<SearchResult> listener) {
+        engines[0].setProgressListener(listener);
+    }
+
+    /**
+     * Asks a running search to stop as soon as possible.
+     */
+    public void stop() {
+        for (SearchEngine engine : engines) {
+            engine.stop();
+        }
+    }
+
+    /**
+     * Clears a stop request so the next search runs; done when a search is submitted.
+     */
+    void clearStop() {
+        for (SearchEngine engine : engines) {
+            engine.clearStop();
+        }
+    }
+
+    /**
+     * Gets the number of search threads.
+     * @return the thread count, including the calling thread
+     */
+    public int getThreadCount() {
+        return engines.length;
+    }
+
+    /**
+     * Gets the shared transposition table.
+     * @return the transposition table
+     */
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    /**
+     * Stops the helper threads. The search cannot be used afterwards.
+     */
+    public void shutdown() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+
+    /**
+     * Reports the speedup of N threads over one thread on a fixed set of positions.
+     * Usage: {@code java ParallelSearch [threads] [depth] [positions]}
+     * @param args optional thread count, search depth and number of positions
+     */
+    public static void main(String[] args) {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 11;
+        int positionCount = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+        List<Board> positions = new ArrayList<>();
+        Random random = new Random(1);
+        while (positions.size() < positionCount) {
+            Board board = new Board();
+            for (int ply = 0; ply < 20 && !board.isGameOver(); ply++) {
+                board.makeMove(Bitboards.randomSquare(board.getValidMoveMask(board.getCurrentPlayer()), random));
+            }
+            if (!board.isGameOver()) {
+                positions.add(board);
+            }
+        }
+
+        System.out.printf("%d positions searched to depth %d%n", positionCount, depth);
+        System.out.printf("%8s %10s %14s %12s %8s%n", "threads", "time(ms)", "nodes", "nodes/sec", "speedup");
+
+        long baseline = 0;
+        for (int count : threads > 1 ? new int[]{1, threads} : new int[]{1}) {
+            ParallelSearch search = new ParallelSearch(count, new HeuristicEvaluator(), new TranspositionTable(64));
+            long time = 0;
+            long nodes = 0;
+            for (Board position : positions) {
+                search.getTranspositionTable().clear();
+                long start = System.nanoTime();
+                SearchResult result = search.search(position, SearchLimits.depth(depth));
+                time += (System.nanoTime() - start) / 1_000_000;
+                nodes += result.getNodes();
+            }
+            search.shutdown();
+
+            if (count == 1) {
+                baseline = time;
+            }
+            System.out.printf("%8d %10d %14d %12d %7.2fx%n", count, time, nodes,
+                time == 0 ? 0 : nodes * 1000 / time, time == 0 ? 0.0 : (double) baseline / time);
+        }
+    }
+}
@@ -0,0 +1,514 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Evaluation by table lookup over board patterns (edges, corner regions, diagonals
+ * and lines) plus mobility.
+ * <p>
+ * Each pattern is a fixed list of squares near the top-left corner, matched against
+ * every rotation and reflection of the board. The stones on the pattern's squares,
+ * seen from the player to move, are gathered into a bit string and read as a base-3
+ * number (empty 0, own 1, opponent 2) that indexes the pattern's weight table. Every
+ * game phase has its own tables, since the value of a configuration changes as the
+ * board fills.
+ * <p>
+ * Weights are read from a weight file, which {@code java PatternEvaluator} trains from
+ * self-play; trained weights ship as {@code patterns.bin}. Seeded tables, built from the
+ * {@link HeuristicEvaluator} square values, score positions the same way as that
+ * evaluator and are where training starts.
+ * <p>
+ * Weight file layout (big-endian): magic, version, phase count and table size (4 bytes
+ * each), then the table of each phase as 2-byte weights in hundredths of a disc.
+ */
+public class PatternEvaluator implements Evaluator {
+
+    /**
+     * Weight file used by the AI, configurable with {@code -Dothello.patterns=path}.
+     */
+    public static final String DEFAULT_PATH = System.getProperty("othello.patterns", "patterns.bin");
+
+    /** Number of game phases with their own weights. */
+    public static final int PHASES = 12;
+    private static final int MOVES_PER_PHASE = 5;
+
+    private static final int MAGIC = 0x4F545057;  // "OTPW"
+    private static final int VERSION = 1;
+
+    private static final int MAX_SCORE = 64 * DISC - 1;
+
+    // Evaluates boards smaller than the patterns
+    private static final Evaluator VARIANT_EVALUATOR = new HeuristicEvaluator();
+    private static final int MAX_MOBILITY = 32;
+
+    // Pattern squares as (row, col) pairs, in the bit order gather() produces them
+    private static final int EDGE = 0;
+    private static final int CORNER_3X3 = 1;
+    private static final int CORNER_2X5 = 2;
+    private static final int FIRST_DIAGONAL = 3;
+    private static final int FIRST_ROW = 8;
+    private static final int[][] PATTERNS = {
+        {0, 0, 0, 1, 0, 2, 0, 3, 0, 4, 0, 5, 0, 6, 0, 7, 1, 1, 1, 6},  // Edge plus both X-squares
+        {0, 0, 0, 1, 0, 2, 1, 0, 1, 1, 1, 2, 2, 0, 2, 1, 2, 2},        // 3x3 corner
+        {0, 0, 0, 1, 0, 2, 0, 3, 0, 4, 1, 0, 1, 1, 1, 2, 1, 3, 1, 4},  // 2x5 corner
+        diagonal(0), diagonal(1), diagonal(2), diagonal(3), diagonal(4),
+        row(1), row(2), row(3)
+    };
+
+    // Main diagonal squares (i, i) for i below 8 - k, indexed by k
+    private static final long[] DIAGONALS = new long[5];
+
+    // Base-3 value of a bit string: bit i contributes 3^i
+    private static final int[] BASE3 = new int[1 << 10];
+
+    private static final int[] PATTERN_OFFSETS = new int[PATTERNS.length];
+    // For each board image, the patterns whose instance on it is not already on an earlier image
+    private static final int[][] IMAGE_PATTERNS = new int[Symmetry.COUNT][];
+    // Board squares of every instance, each a pattern matched on one image
+    private static final int[][] INSTANCE_SQUARES;
+    private static final int MOBILITY_OFFSET;
+    private static final int TABLE_SIZE;
+
+    static {
+        for (int k = 0; k < DIAGONALS.length; k++) {
+            for (int i = 0; i < 8 - k; i++) {
+                DIAGONALS[k] |= 1L << Bitboards.square(i, i);
+            }
+        }
+        for (int bits = 1; bits < BASE3.length; bits++) {
+            int low = Integer.numberOfTrailingZeros(bits);
+            BASE3[bits] = BASE3[bits & (bits - 1)] + pow3(low);
+        }
+
+        // Image t moves the stone on square from[t][s] to square s
+        int[][] from = new int[Symmetry.COUNT][64];
+        for (int t = 0; t < Symmetry.COUNT; t++) {
+            for (int square = 0; square < 64; square++) {
+                from[t][Symmetry.square(square, t)] = square;
+            }
+        }
+
+        List<List<Integer>> imagePatterns = new ArrayList<>();
+        for (int t = 0; t < Symmetry.COUNT; t++) {
+            imagePatterns.add(new ArrayList<>());
+        }
+        List<int[]> instances = new ArrayList<>();
+        int size = 0;
+        for (int p = 0; p < PATTERNS.length; p++) {
+            // Images that put the pattern on the same board squares give the same instance
+            Set<Long> seen = new HashSet<>();
+            for (int t = 0; t < Symmetry.COUNT; t++) {
+                int[] instance = new int[PATTERNS[p].length / 2];
+                long mask = 0L;
+                for (int i = 0; i < instance.length; i++) {
+                    instance[i] = from[t][Bitboards.square(PATTERNS[p][2 * i], PATTERNS[p][2 * i + 1])];
+                    mask |= 1L << instance[i];
+                }
+                if (seen.add(mask)) {
+                    imagePatterns.get(t).add(p);
+                    instances.add(instance);
+                }
+            }
+            PATTERN_OFFSETS[p] = size;
+            size += pow3(PATTERNS[p].length / 2);
+        }
+
+        for (int t = 0; t < Symmetry.COUNT; t++) {
+            IMAGE_PATTERNS[t] = imagePatterns.get(t).stream().mapToInt(Integer::intValue).toArray();
+        }
+        INSTANCE_SQUARES = instances.toArray(new int[0][]);
+        MOBILITY_OFFSET = size;
+        TABLE_SIZE = size + 2 * MAX_MOBILITY + 1;
+    }
+
+    private static Evaluator defaultEvaluator;
+
+    private final short[][] weights;
+
+    private PatternEvaluator(short[][] weights) {
+        this.weights = weights;
+    }
+
+    @Override
+    public int evaluate(Board board) {
+        if (board.getSize() != Board.SIZE) {
+            // The patterns are 8x8 lines, edges and corners
+            return VARIANT_EVALUATOR.evaluate(board);
+        }
+        Stone player = board.getCurrentPlayer();
+        long own = board.getBitboard(player);
+        long opponent = board.getBitboard(player.opposite());
+        short[] table = weights[phase(own | opponent)];
+
+        int score = table[MOBILITY_OFFSET + mobility(own, opponent)];
+        for (int t = 0; t < Symmetry.COUNT; t++) {
+            long ownImage = Symmetry.apply(own, t);
+            long opponentImage = Symmetry.apply(opponent, t);
+            for (int pattern : IMAGE_PATTERNS[t]) {
+                score += table[PATTERN_OFFSETS[pattern] + index(pattern, ownImage, opponentImage)];
+            }
+        }
+
+        // Keep heuristic scores strictly inside the range of exact results
+        return Math.max(-MAX_SCORE, Math.min(MAX_SCORE, score));
+    }
+
+    /**
+     * Creates an evaluator whose tables reproduce the {@link HeuristicEvaluator} scores,
+     * spreading each square's value over the pattern instances that cover it.
+     * @return the seeded evaluator
+     */
+    public static PatternEvaluator seeded() {
+        int[] coverage = new int[64];
+        for (int[] instance : INSTANCE_SQUARES) {
+            for (int square : instance) {
+                coverage[square]++;
+            }
+        }
+
+        // Square values and coverage are symmetric, so the pattern squares stand for every instance
+        short[] table = new short[TABLE_SIZE];
+        for (int p = 0; p < PATTERNS.length; p++) {
+            int length = PATTERNS[p].length / 2;
+            for (int index = 0; index < pow3(length); index++) {
+                double value = 0;
+                for (int i = 0, digits = index; i < length; i++, digits /= 3) {
+                    int square = Bitboards.square(PATTERNS[p][2 * i], PATTERNS[p][2 * i + 1]);
+                    int sign = digits % 3 == 1 ? 1 : digits % 3 == 2 ? -1 : 0;
+                    value += sign * (double) HeuristicEvaluator.squareValue(square) / coverage[square];
+                }
+                table[PATTERN_OFFSETS[p] + index] = (short) Math.round(value);
+            }
+        }
+        for (int i = -MAX_MOBILITY; i <= MAX_MOBILITY; i++) {
+            table[MOBILITY_OFFSET + MAX_MOBILITY + i] = (short) (i * HeuristicEvaluator.MOBILITY_WEIGHT);
+        }
+
+        short[][] weights = new short[PHASES][];
+        for (int phase = 0; phase < PHASES; phase++) {
+            weights[phase] = table.clone();
+        }
+        return new PatternEvaluator(weights);
+    }
+
+    /**
+     * Reads weights from a stream in the weight file layout.
+     * @param in the stream to read
+     * @return the evaluator
+     * @throws IOException if the stream cannot be read
+     */
+    public static PatternEvaluator load(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a pattern weight file");
+        }
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported pattern weight version: " + version);
+        }
+        int phases = data.readInt();
+        int size = data.readInt();
+        if (phases != PHASES || size != TABLE_SIZE) {
+            throw new IllegalArgumentException("Pattern weights do not match this evaluator: "
+                + phases + " phases of " + size + " weights");
+        }
+
+        short[][] weights = new short[PHASES][TABLE_SIZE];
+        for (short[] table : weights) {
+            for (int i = 0; i < TABLE_SIZE; i++) {
+                table[i] = data.readShort();
+            }
+        }
+        return new PatternEvaluator(weights);
+    }
+
+    /**
+     * Reads weights from a file.
+     * @param path the weight file
+     * @return the evaluator
+     * @throws IOException if the file cannot be read
+     */
+    public static PatternEvaluator open(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return load(in);
+        }
+    }
+
+    /**
+     * Gets the evaluation the AI uses, loaded once and shared: the weights at
+     * {@link #DEFAULT_PATH}, read from the file or else a class path resource of the
+     * same name (the trained {@code patterns.bin} shipped with the game). If neither can
+     * be read, the seeded tables are used and the reason is logged.
+     * @return the default evaluator
+     */
+    public static synchronized Evaluator getDefault() {
+        if (defaultEvaluator == null) {
+            try {
+                Path path = Paths.get(DEFAULT_PATH);
+                if (Files.isReadable(path)) {
+                    defaultEvaluator = open(path);
+                } else {
+                    try (InputStream in = PatternEvaluator.class.getResourceAsStream("/" + DEFAULT_PATH)) {
+                        if (in == null) {
+                            throw new IOException("not found as a file or class path resource");
+                        }
+                        defaultEvaluator = load(in);
+                    }
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                System.getLogger(PatternEvaluator.class.getName()).log(System.Logger.Level.WARNING,
+                    "Could not load pattern weights " + DEFAULT_PATH + ", using seeded weights: " + e.getMessage());
+                defaultEvaluator = seeded();
+            }
+        }
+        return defaultEvaluator;
+    }
+
+    /**
+     * Writes the weights to a file.
+     * @param path the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path path) throws IOException {
+        try (OutputStream file = Files.newOutputStream(path);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(PHASES);
+            out.writeInt(TABLE_SIZE);
+            for (short[] table : weights) {
+                for (short weight : table) {
+                    out.writeShort(weight);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the game phase of a position.
+     * @param occupied the occupied squares
+     * @return the phase, from 0 at the start of the game to PHASES - 1
+     */
+    static int phase(long occupied) {
+        return Math.min(PHASES - 1, (Long.bitCount(occupied) - 4) / MOVES_PER_PHASE);
+    }
+
+    /**
+     * Lists the table entries a position's score is the sum of.
+     * @param own the stones of the player to move
+     * @param opponent the opponent's stones
+     * @param features receives the table offsets; needs room for every instance plus one
+     * @return the number of offsets written
+     */
+    static int features(long own, long opponent, int[] features) {
+        int count = 0;
+        for (int t = 0; t < Symmetry.COUNT; t++) {
+            long ownImage = Symmetry.apply(own, t);
+            long opponentImage = Symmetry.apply(opponent, t);
+            for (int pattern : IMAGE_PATTERNS[t]) {
+                features[count++] = PATTERN_OFFSETS[pattern] + index(pattern, ownImage, opponentImage);
+            }
+        }
+        features[count++] = MOBILITY_OFFSET + mobility(own, opponent);
+        return count;
+    }
+
+    private static int index(int pattern, long own, long opponent) {
+        return BASE3[gather(pattern, own)] + 2 * BASE3[gather(pattern, opponent)];
+    }
+
+    /**
+     * Collects the stones on a pattern's squares into the low bits, in pattern order.
+     */
+    private static int gather(int pattern, long stones) {
+        if (pattern >= FIRST_ROW) {
+            return (int) (stones >>> (8 * (pattern - FIRST_ROW + 1))) & 0xFF;
+        }
+        if (pattern >= FIRST_DIAGONAL) {
+            // Each byte keeps at most its own bit, so the multiply adds them into the top byte
+            int offset = pattern - FIRST_DIAGONAL;
+            return (int) ((((stones >>> offset) & DIAGONALS[offset]) * 0x0101010101010101L) >>> 56);
+        }
+        switch (pattern) {
+            case EDGE:
+                return (int) ((stones & 0xFF) | ((stones >>> 1) & 0x100) | ((stones >>> 5) & 0x200));
+            case CORNER_3X3:
+                return (int) ((stones & 0x7) | ((stones >>> 5) & 0x38) | ((stones >>> 10) & 0x1C0));
+            default:
+                return (int) ((stones & 0x1F) | ((stones >>> 3) & 0x3E0));
+        }
+    }
+
+    private static int mobility(long own, long opponent) {
+        int difference = Long.bitCount(Bitboards.legalMoves(own, opponent))
+            - Long.bitCount(Bitboards.legalMoves(opponent, own));
+        return MAX_MOBILITY + Math.max(-MAX_MOBILITY, Math.min(MAX_MOBILITY, difference));
+    }
+
+    private static int[] diagonal(int offset) {
+        int[] squares = new int[2 * (8 - offset)];
+        for (int i = 0; i < 8 - offset; i++) {
+            squares[2 * i] = i;
+            squares[2 * i + 1] = i + offset;
+        }
+        return squares;
+    }
+
+    private static int[] row(int row) {
+        int[] squares = new int[16];
+        for (int col = 0; col < 8; col++) {
+            squares[2 * col] = row;
+            squares[2 * col + 1] = col;
+        }
+        return squares;
+    }
+
+    private static int pow3(int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 3;
+        }
+        return result;
+    }
+
+    /**
+     * Trains weights by least squares on self-play games. Each game opens with random
+     * moves, is continued by a shallow search and is solved exactly at
+     * {@link EndgameSolver#DEFAULT_THRESHOLD} empties; every position is labeled with
+     * the exact result the game reached from it. Training starts from the seeded tables
+     * and keeps the pass that best predicts a held-out tenth of the games, since there
+     * are far more weights than positions.
+     * Usage: {@code java PatternEvaluator [file] [games] [epochs]}
+     * @param args optional output file, number of games and maximum training passes
+     * @throws IOException if the weights cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        Path path = Paths.get(args.length > 0 ? args[0] : DEFAULT_PATH);
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int epochs = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        Random random = new Random(1);
+        List<long[]> training = new ArrayList<>();
+        List<long[]> validation = new ArrayList<>();
+        long start = System.nanoTime();
+        playGames(games, random, training, validation);
+        System.out.printf("Played %d games, %d positions in %d s%n",
+            games, training.size() + validation.size(), (System.nanoTime() - start) / 1_000_000_000);
+
+        // Stochastic gradient descent on the squared error, in float to keep small steps
+        short[][] seed = seeded().weights;
+        float[][] tables = new float[PHASES][TABLE_SIZE];
+        for (int phase = 0; phase < PHASES; phase++) {
+            for (int i = 0; i < TABLE_SIZE; i++) {
+                tables[phase][i] = seed[phase][i];
+            }
+        }
+        short[][] best = seed;
+        double bestError = rmsError(tables, validation);
+        System.out.printf("Seeded: validation RMS error %.2f discs%n", bestError / DISC);
+
+        int[] features = new int[INSTANCE_SQUARES.length + 1];
+        float rate = 0.05f / features.length;
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            Collections.shuffle(training, random);
+            for (long[] sample : training) {
+                float[] table = tables[phase(sample[0] | sample[1])];
+                int count = features(sample[0], sample[1], features);
+                float error = sample[2] - predict(table, features, count);
+                for (int i = 0; i < count; i++) {
+                    table[features[i]] += rate * error;
+                }
+            }
+
+            double error = rmsError(tables, validation);
+            System.out.printf("Epoch %d: training RMS error %.2f, validation %.2f discs%n",
+                epoch + 1, rmsError(tables, training) / DISC, error / DISC);
+            if (error >= bestError) {
+                break;
+            }
+            bestError = error;
+            best = new short[PHASES][TABLE_SIZE];
+            for (int phase = 0; phase < PHASES; phase++) {
+                for (int i = 0; i < TABLE_SIZE; i++) {
+                    best[phase][i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(tables[phase][i])));
+                }
+            }
+        }
+
+        new PatternEvaluator(best).write(path);
+        System.out.println("Wrote weights to " + path);
+    }
+
+    /**
+     * Plays training games, putting every tenth game's positions in the validation set.
+     * Samples are own stones, opponent stones and the exact result for the player to move.
+     */
+    private static void playGames(int games, Random random, List<long[]> training, List<long[]> validation) {
+        SearchEngine engine = new SearchEngine(new HeuristicEvaluator(), new TranspositionTable(4));
+        engine.setEndgameThreshold(0);
+        EndgameSolver solver = new EndgameSolver();
+
+        for (int game = 0; game < games; game++) {
+            List<long[]> samples = game % 10 == 9 ? validation : training;
+            Board board = new Board();
+            // Positions before the solve, with 1 as the third value if Black is to move
+            List<long[]> pending = new ArrayList<>();
+            while (!board.isGameOver()) {
+                Stone player = board.getCurrentPlayer();
+                long own = board.getBitboard(player);
+                long opponent = board.getBitboard(player.opposite());
+                int move;
+                if (Long.bitCount(board.getBitboard(Stone.EMPTY)) <= EndgameSolver.DEFAULT_THRESHOLD) {
+                    SearchResult exact = solver.solve(board);
+                    samples.add(new long[]{own, opponent, exact.getScore()});
+                    int blackScore = player == Stone.BLACK ? exact.getScore() : -exact.getScore();
+                    for (long[] position : pending) {
+                        samples.add(new long[]{position[0], position[1], position[2] == 1 ? blackScore : -blackScore});
+                    }
+                    pending.clear();
+                    move = exact.getMove();
+                } else {
+                    pending.add(new long[]{own, opponent, player == Stone.BLACK ? 1 : 0});
+                    if (board.getHistorySize() < 10) {
+                        move = Bitboards.randomSquare(board.getValidMoveMask(player), random);
+                    } else {
+                        move = engine.search(board, SearchLimits.depth(4)).getMove();
+                    }
+                }
+                board.makeMove(move);
+            }
+        }
+    }
+
+    private static double rmsError(float[][] tables, List<long[]> samples) {
+        int[] features = new int[INSTANCE_SQUARES.length + 1];
+        double squaredError = 0;
+        for (long[] sample : samples) {
+            int count = features(sample[0], sample[1], features);
+            double error = sample[2] - predict(tables[phase(sample[0] | sample[1])], features, count);
+            squaredError += error * error;
+        }
+        return Math.sqrt(squaredError / samples.size());
+    }
+
+    private static float predict(float[] table, int[] features, int count) {
+        float predicted = 0;
+        for (int i = 0; i < count; i++) {
+            predicted += table[features[i]];
+        }
+        return predicted;
+    }
+}
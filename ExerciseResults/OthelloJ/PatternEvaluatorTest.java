@@ -0,0 +1,69 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the PatternEvaluator class.
+ */
+class PatternEvaluatorTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    @DisplayName("Seeded tables score like the heuristic evaluator")
+    void testSeededMatchesHeuristic() {
+        Evaluator heuristic = new HeuristicEvaluator();
+        Evaluator patterns = PatternEvaluator.seeded();
+        Random random = new Random(31);
+
+        for (int i = 0; i < 200; i++) {
+            Board board = TestPositions.randomPosition(random, random.nextInt(60));
+            // Each square's value is split over several patterns, so allow for rounding
+            assertEquals(heuristic.evaluate(board), patterns.evaluate(board), 20, "Score mismatch:\n" + board);
+        }
+    }
+
+    @Test
+    @DisplayName("Weights read back from a file give the same scores")
+    void testWriteAndLoad() throws IOException {
+        PatternEvaluator seeded = PatternEvaluator.seeded();
+        Path path = folder.resolve("patterns.bin");
+        seeded.write(path);
+        PatternEvaluator loaded = PatternEvaluator.open(path);
+        Random random = new Random(32);
+
+        for (int i = 0; i < 50; i++) {
+            Board board = TestPositions.randomPosition(random, random.nextInt(60));
+            assertEquals(seeded.evaluate(board), loaded.evaluate(board));
+        }
+    }
+
+    @Test
+    @DisplayName("A file that is not a weight file is rejected")
+    void testRejectsOtherFiles() throws IOException {
+        Path path = folder.resolve("book.bin");
+        Files.write(path, new byte[64]);
+
+        assertThrows(IllegalArgumentException.class, () -> PatternEvaluator.open(path));
+    }
+
+    @Test
+    @DisplayName("Scores stay inside the range of exact results")
+    void testScoreRange() {
+        Evaluator patterns = PatternEvaluator.seeded();
+        Random random = new Random(33);
+
+        for (int i = 0; i < 200; i++) {
+            int score = patterns.evaluate(TestPositions.randomPosition(random, random.nextInt(60)));
+            assertTrue(Math.abs(score) < 64 * Evaluator.DISC, "Score out of range: " + score);
+        }
+    }
+}
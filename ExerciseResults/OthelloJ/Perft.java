@@ -0,0 +1,236 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Move generator check and benchmark: counts the positions reachable in exactly N moves.
+ * <p>
+ * By default passes follow {@link Board}: a player without a move is skipped, which
+ * does not count as a move. The published perft totals instead count a pass as a
+ * move, which can be chosen too; the two agree up to depth 8. Either way a finished
+ * game counts as one leaf however early it ends. Leaves are counted in bulk from
+ * the move mask one move above them.
+ * <p>
+ * Optionally, subtree counts are cached by position and depth (hashed perft), and the
+ * tree is split into subtrees a few moves down that are counted on several threads.
+ */
+public class Perft {
+
+    // How many subtrees per thread the parallel mode aims for, so threads finish together
+    private static final int TASKS_PER_THREAD = 8;
+
+    private static final int BYTES_PER_ENTRY = 2 * Long.BYTES;
+
+    private final int threads;
+    private final boolean countPasses;
+    private final long[] keys;
+    private final long[] counts;
+    private final int indexMask;
+
+    /**
+     * Creates a perft counter that skips passes as {@link Board} does.
+     * @param threads the number of threads to count with; 1 counts on the calling thread
+     * @param hashMegabytes the memory for cached subtree counts, or 0 to count without caching
+     */
+    public Perft(int threads, int hashMegabytes) {
+        this(threads, hashMegabytes, false);
+    }
+
+    /**
+     * Creates a perft counter.
+     * @param threads the number of threads to count with; 1 counts on the calling thread
+     * @param hashMegabytes the memory for cached subtree counts, or 0 to count without caching
+     * @param countPasses true to count a forced pass as a move, as the published totals do
+     */
+    public Perft(int threads, int hashMegabytes, boolean countPasses) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread: " + threads);
+        }
+        if (hashMegabytes < 0) {
+            throw new IllegalArgumentException("Table size cannot be negative: " + hashMegabytes);
+        }
+        this.threads = threads;
+        this.countPasses = countPasses;
+        int capacity = hashMegabytes == 0 ? 0
+            : (int) Math.min(Long.highestOneBit((long) hashMegabytes * 1024 * 1024 / BYTES_PER_ENTRY), 1 << 30);
+        this.keys = new long[capacity];
+        this.counts = new long[capacity];
+        this.indexMask = capacity - 1;
+    }
+
+    /**
+     * Counts the leaves of the game tree below a position.
+     * @param board the position to count from; it is not modified
+     * @param depth the number of moves to look ahead
+     * @return the number of leaves
+     */
+    public long count(Board board, int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Depth cannot be negative: " + depth);
+        }
+        EngineEvents.PerftCount event = new EngineEvents.PerftCount();
+        event.begin();
+        long leaves = countTree(board, depth);
+        if (event.shouldCommit()) {
+            event.depth = depth;
+            event.threads = threads;
+            event.leaves = leaves;
+            event.commit();
+        }
+        return leaves;
+    }
+
+    /**
+     * Counts the leaves below a position, splitting the work over the threads if there are several.
+     */
+    private long countTree(Board board, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        if (threads == 1) {
+            return countSubtree(new Board(board), depth);
+        }
+
+        // Expand a few moves so there are enough subtrees to share out
+        List<Board> frontier = List.of(new Board(board));
+        List<Integer> depths = List.of(depth);
+        long finished = 0;
+        for (int level = depth; level > 1 && frontier.size() < threads * TASKS_PER_THREAD; level--) {
+            List<Board> nextFrontier = new ArrayList<>();
+            List<Integer> nextDepths = new ArrayList<>();
+            for (int i = 0; i < frontier.size(); i++) {
+                Board position = frontier.get(i);
+                int remaining = depths.get(i);
+                long moves = position.getValidMoveMask(position.getCurrentPlayer());
+                if (remaining < level) {
+                    // Already a pass behind; keep it as a subtree of its own
+                    nextFrontier.add(position);
+                    nextDepths.add(remaining);
+                    continue;
+                }
+                if (moves == 0) {
+                    finished++;
+                }
+                for (; moves != 0; moves &= moves - 1) {
+                    Board child = new Board(position);
+                    Stone mover = child.getCurrentPlayer();
+                    child.makeMove(Long.numberOfTrailingZeros(moves));
+                    int childDepth = childDepth(child, mover, remaining);
+                    if (childDepth == 0) {
+                        finished++;
+                    } else {
+                        nextFrontier.add(child);
+                        nextDepths.add(childDepth);
+                    }
+                }
+            }
+            frontier = nextFrontier;
+            depths = nextDepths;
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "othello-perft");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < frontier.size(); i++) {
+                Board position = frontier.get(i);
+                int subtreeDepth = depths.get(i);
+                results.add(workers.submit(() -> countSubtree(position, subtreeDepth)));
+            }
+            long total = finished;
+            for (Future<Long> result : results) {
+                total += result.get();
+            }
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while counting", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Perft worker failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Counts leaves by making and undoing moves on the board, depth at least 1.
+     */
+    private long countSubtree(Board board, int depth) {
+        long moves = board.getValidMoveMask(board.getCurrentPlayer());
+        if (moves == 0) {
+            // Board skips a player without moves, so no moves here means the game is over
+            return 1;
+        }
+        if (depth == 1) {
+            return Long.bitCount(moves);
+        }
+
+        long key = board.getHash() + depth * 0x9E3779B97F4A7C15L;
+        if (keys.length > 0) {
+            int index = (int) (key ^ (key >>> 32)) & indexMask;
+            long cached = counts[index];
+            // Keys are stored XORed with their count, so a torn write reads as a miss
+            if ((keys[index] ^ cached) == key) {
+                return cached;
+            }
+        }
+
+        long total = 0;
+        Stone mover = board.getCurrentPlayer();
+        for (; moves != 0; moves &= moves - 1) {
+            board.makeMove(Long.numberOfTrailingZeros(moves));
+            int childDepth = childDepth(board, mover, depth);
+            total += childDepth == 0 ? 1 : countSubtree(board, childDepth);
+            board.undoMove();
+        }
+
+        if (keys.length > 0) {
+            int index = (int) (key ^ (key >>> 32)) & indexMask;
+            counts[index] = total;
+            keys[index] = key ^ total;
+        }
+        return total;
+    }
+
+    /**
+     * Gets the depth left below a move, taking a forced pass as a move when passes count.
+     * @return the remaining depth, or 0 if the pass itself is the leaf
+     */
+    private int childDepth(Board board, Stone mover, int depth) {
+        if (countPasses && board.getCurrentPlayer() == mover
+                && board.getValidMoveMask(mover) != 0) {
+            return depth - 2;
+        }
+        return depth - 1;
+    }
+
+    /**
+     * Prints the leaf count, time and leaves/sec for each depth up to the maximum.
+     * Usage: {@code java Perft [depth] [threads] [hashMegabytes] [passes]}
+     * @param args optional maximum depth, thread count, table size (0 for no table)
+     *             and "passes" to count passes as moves
+     */
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int hashMegabytes = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        boolean countPasses = args.length > 3 && args[3].equals("passes");
+
+        Perft perft = new Perft(threads, hashMegabytes, countPasses);
+        System.out.printf("%d threads, %d MB table, passes %s%n",
+            threads, hashMegabytes, countPasses ? "counted as moves" : "skipped");
+        System.out.printf("%5s %16s %10s %14s%n", "depth", "leaves", "time(ms)", "leaves/sec");
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            long start = System.nanoTime();
+            long leaves = perft.count(new Board(), depth);
+            long time = (System.nanoTime() - start) / 1_000_000;
+            System.out.printf("%5d %16d %10d %14d%n", depth, leaves, time, time == 0 ? 0 : leaves * 1000 / time);
+        }
+    }
+}
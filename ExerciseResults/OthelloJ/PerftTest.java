@@ -0,0 +1,60 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Perft move counter, against the published totals.
+ */
+class PerftTest {
+
+    // Leaves at depths 0-10 from the starting position, counting passes as moves
+    private static final long[] KNOWN_TOTALS = {
+        1, 4, 12, 56, 244, 1396, 8200, 55092, 390216, 3005288, 24571284
+    };
+
+    @Test
+    @DisplayName("Counts match the published totals up to depth 8")
+    void testKnownTotals() {
+        Perft perft = new Perft(1, 0);
+
+        // No pass is possible before depth 9, so skipping passes gives the same totals
+        for (int depth = 0; depth <= 8; depth++) {
+            assertEquals(KNOWN_TOTALS[depth], perft.count(new Board(), depth), "Depth " + depth);
+        }
+    }
+
+    @Test
+    @DisplayName("Counting passes as moves matches the published totals at depths 9 and 10")
+    void testKnownTotalsWithPasses() {
+        Perft perft = new Perft(1, 16, true);
+
+        assertEquals(KNOWN_TOTALS[9], perft.count(new Board(), 9));
+        assertEquals(KNOWN_TOTALS[10], perft.count(new Board(), 10));
+    }
+
+    @Test
+    @DisplayName("Hashed and parallel counts agree with the plain count")
+    void testModesAgree() {
+        for (boolean countPasses : new boolean[]{false, true}) {
+            long plain = new Perft(1, 0, countPasses).count(new Board(), 9);
+
+            assertEquals(plain, new Perft(1, 4, countPasses).count(new Board(), 9), "Hashed, passes " + countPasses);
+            assertEquals(plain, new Perft(3, 0, countPasses).count(new Board(), 9), "Parallel, passes " + countPasses);
+            assertEquals(plain, new Perft(3, 4, countPasses).count(new Board(), 9), "Both, passes " + countPasses);
+        }
+    }
+
+    @Test
+    @DisplayName("Counting does not change the board")
+    void testBoardUnchanged() {
+        Board board = new Board();
+        board.makeMove(Long.numberOfTrailingZeros(board.getValidMoveMask(board.getCurrentPlayer())));
+        Board before = new Board(board);
+
+        new Perft(2, 1).count(board, 6);
+
+        assertEquals(before, board);
+        assertEquals(1, board.getHistorySize(), "History should be untouched");
+    }
+}
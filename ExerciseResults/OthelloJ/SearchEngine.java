@@ -0,0 +1,488 @@
+import java.util.function.Consumer;
+
+/**
+ * Negamax alpha-beta search (principal variation search with aspiration windows)
+ * driven by iterative deepening under a depth, time or node budget.
+ * The best move of the last completed iteration is always the one returned.
+ * Results are cached in a {@link TranspositionTable} that persists between searches,
+ * and moves are tried in the order chosen by a {@link MoveOrdering}.
+ * Once few enough squares are empty, the {@link EndgameSolver} is tried first.
+ */
+public class SearchEngine {
+
+    private static final int INFINITY = 1_000_000;
+    private static final int ASPIRATION_WINDOW = Evaluator.DISC;
+
+    // How often (in nodes) the time budget is checked
+    private static final int CHECK_INTERVAL = 1024;
+
+    private final Evaluator evaluator;
+    private final TranspositionTable table;
+    private final EndgameSolver solver = new EndgameSolver();
+    private final MoveOrdering ordering = new MoveOrdering();
+    private int endgameThreshold = EndgameSolver.DEFAULT_THRESHOLD;
+    private volatile Consumer<SearchResult> progressListener;
+
+    // Per-search state; the engine searches one position at a time
+    private Board position;
+    private int rootDepth;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private boolean aborted;
+    private volatile boolean stopRequested;
+
+    // Per-search statistics, added to the SearchMetrics once the search ends
+    private long tableProbes;
+    private long tableHits;
+    private long interiorNodes;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+    private double branchingFactor;
+
+    /**
+     * Creates a search engine with the default evaluation and table size.
+     */
+    public SearchEngine() {
+        this(PatternEvaluator.getDefault());
+    }
+
+    /**
+     * Creates a search engine with the default table size.
+     * @param evaluator the static evaluation to use at the leaves
+     */
+    public SearchEngine(Evaluator evaluator) {
+        this(evaluator, new TranspositionTable());
+    }
+
+    /**
+     * Creates a search engine.
+     * @param evaluator the static evaluation to use at the leaves
+     * @param table the transposition table to cache results in
+     */
+    public SearchEngine(Evaluator evaluator, TranspositionTable table) {
+        this.evaluator = evaluator;
+        this.table = table;
+    }
+
+    /**
+     * Gets the transposition table, e.g. to report its hit rate.
+     * @return the transposition table
+     */
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    /**
+     * Gets the move ordering, e.g. to switch heuristics off or read their cutoff statistics.
+     * @return the move ordering
+     */
+    public MoveOrdering getMoveOrdering() {
+        return ordering;
+    }
+
+    /**
+     * Sets how many empty squares trigger the exact endgame solver.
+     * @param empties the threshold, or 0 to never use the solver
+     */
+    public void setEndgameThreshold(int empties) {
+        this.endgameThreshold = empties;
+    }
+
+    /**
+     * Sets a listener told of each completed iteration and each endgame solve, on the
+     * searching thread, e.g. to stream search progress.
+     * @param listener the listener, or null for none
+     */
+    public void setProgressListener(Consumer<SearchResult> listener) {
+        progressListener = listener;
+    }
+
+    /**
+     * Asks a running search to stop as soon as possible.
+     * The search still returns the result of its last completed iteration.
+     */
+    public void stop() {
+        stopRequested = true;
+        solver.stop();
+    }
+
+    /**
+     * Clears a stop request so the next search runs; done when a search is submitted,
+     * not when it starts, so a stop sent in between is kept.
+     */
+    void clearStop() {
+        stopRequested = false;
+        solver.clearStop();
+    }
+
+    /**
+     * Searches a position for the best move of the player to move.
+     * The given board is not modified.
+     * @param board the position to search
+     * @param limits the search budget
+     * @return the best move found
+     */
+    public SearchResult search(Board board, SearchLimits limits) {
+        clearStop();
+        long start = System.nanoTime();
+        SearchResult solved = solveEndgame(board, limits);
+        if (solved != null) {
+            SearchMetrics.getGlobal().recordSearch(solved, System.nanoTime() - start, 0);
+            return solved;
+        }
+        table.newSearch();
+        SearchResult result = searchShared(board, remainingLimits(limits, start), 0);
+        SearchMetrics.getGlobal().recordSearch(result, System.nanoTime() - start, branchingFactor);
+        return result;
+    }
+
+    /**
+     * Gets the effective branching factor of the last search: the node count of its
+     * last completed iteration over that of the one before.
+     * @return the branching factor, or 0 if fewer than two iterations completed
+     */
+    double getBranchingFactor() {
+        return branchingFactor;
+    }
+
+    /**
+     * Solves the position exactly if few enough squares are empty,
+     * using at most half of the time and node budget.
+     * @param board the position to solve
+     * @param limits the budget for the whole move
+     * @return the exact result, or null if the position is not solved
+     */
+    SearchResult solveEndgame(Board board, SearchLimits limits) {
+        int empties = Long.bitCount(board.getBitboard(Stone.EMPTY));
+        if (empties > endgameThreshold || !board.hasValidMoves(board.getCurrentPlayer())) {
+            return null;
+        }
+        long time = limits.getTimeMillis() > 0 ? Math.max(1, limits.getTimeMillis() / 2) : 0;
+        long maxNodes = limits.getNodes() > 0 ? Math.max(1, limits.getNodes() / 2) : 0;
+        SearchResult solved = solver.solveSubmitted(board, false, time, maxNodes);
+        if (solved != null) {
+            reportProgress(solved);
+        }
+        return solved;
+    }
+
+    /**
+     * Tells the progress listener, if any, of a result.
+     */
+    private void reportProgress(SearchResult result) {
+        Consumer<SearchResult> listener = progressListener;
+        if (listener != null) {
+            listener.accept(result);
+        }
+    }
+
+    /**
+     * Reduces the time budget by the time already spent since the move started.
+     */
+    static SearchLimits remainingLimits(SearchLimits limits, long start) {
+        if (limits.getTimeMillis() == 0) {
+            return limits;
+        }
+        long spent = (System.nanoTime() - start) / 1_000_000;
+        return limits.withTime(Math.max(1, limits.getTimeMillis() - spent));
+    }
+
+    /**
+     * Searches a position as one of several engines sharing a transposition table.
+     * The table's generation is not advanced; the caller does that once per search.
+     * Starting deeper than 1 lets helper threads diverge from the main thread.
+     * @param board the position to search
+     * @param limits the search budget
+     * @param depthOffset extra depth for the first iteration
+     * @return the best move found
+     */
+    SearchResult searchShared(Board board, SearchLimits limits, int depthOffset) {
+        long start = System.nanoTime();
+        position = new Board(board);
+        nodes = 0;
+        nodeLimit = limits.getNodes();
+        deadline = limits.getTimeMillis() > 0 ? start + limits.getTimeMillis() * 1_000_000 : Long.MAX_VALUE;
+        aborted = false;
+        tableProbes = 0;
+        tableHits = 0;
+        interiorNodes = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        branchingFactor = 0;
+        ordering.newSearch();
+
+        Stone player = position.getCurrentPlayer();
+        long moves = position.getValidMoveMask(player);
+        if (moves == 0) {
+            return new SearchResult(-1, 0, 0, 0, elapsedMillis(start));
+        }
+
+        // A single legal move is still searched, so the result has a real score
+        int bestMove = Long.numberOfTrailingZeros(moves);
+        int empties = Long.bitCount(position.getBitboard(Stone.EMPTY));
+        int maxDepth = Math.min(limits.getDepth(), empties);
+        int bestScore = 0;
+        int completedDepth = 0;
+        long previousIterationNodes = 0;
+
+        for (int depth = Math.min(1 + depthOffset, maxDepth); depth <= maxDepth; depth++) {
+            long iterationStart = nodes;
+            EngineEvents.SearchIteration iteration = new EngineEvents.SearchIteration();
+            iteration.begin();
+            // Aspiration window around the previous score, widened on failure
+            int alpha = completedDepth >= 2 ? bestScore - ASPIRATION_WINDOW : -INFINITY;
+            int beta = completedDepth >= 2 ? bestScore + ASPIRATION_WINDOW : INFINITY;
+            int[] rootResult = new int[2];
+            rootDepth = depth;
+
+            while (true) {
+                int score = searchRoot(moves, bestMove, depth, alpha, beta, rootResult);
+                if (aborted) {
+                    break;
+                }
+                if (score <= alpha) {
+                    alpha = -INFINITY;
+                } else if (score >= beta) {
+                    beta = INFINITY;
+                } else {
+                    break;
+                }
+            }
+
+            long iterationNodes = nodes - iterationStart;
+            if (aborted) {
+                commitIteration(iteration, depth, iterationNodes, -1, 0, false);
+                break;
+            }
+            bestMove = rootResult[0];
+            bestScore = rootResult[1];
+            completedDepth = depth;
+            commitIteration(iteration, depth, iterationNodes, bestMove, bestScore, true);
+            reportProgress(new SearchResult(bestMove, bestScore, depth, nodes, elapsedMillis(start)));
+            if (previousIterationNodes > 0) {
+                branchingFactor = (double) iterationNodes / previousIterationNodes;
+            }
+            previousIterationNodes = iterationNodes;
+
+            // The next iteration takes several times longer; don't start one that cannot finish
+            if (deadline != Long.MAX_VALUE && System.nanoTime() - start > (deadline - start) / 2) {
+                break;
+            }
+        }
+
+        SearchMetrics.getGlobal().addNodeStatistics(tableProbes, tableHits, interiorNodes, cutoffs, firstMoveCutoffs);
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes, elapsedMillis(start));
+    }
+
+    /**
+     * Fills in and commits a flight recorder event for one iteration, if it is being recorded.
+     */
+    private static void commitIteration(EngineEvents.SearchIteration iteration, int depth, long iterationNodes,
+                                        int move, int score, boolean completed) {
+        if (iteration.shouldCommit()) {
+            iteration.depth = depth;
+            iteration.nodes = iterationNodes;
+            iteration.bestMove = EngineEvents.moveName(move);
+            iteration.score = score;
+            iteration.completed = completed;
+            iteration.commit();
+        }
+    }
+
+    /**
+     * Searches all root moves, trying the previous best move first.
+     * @param result receives the best move and its score
+     * @return the best score, or a bound if it falls outside (alpha, beta)
+     */
+    private int searchRoot(long moves, int firstMove, int depth, int alpha, int beta, int[] result) {
+        Stone player = position.getCurrentPlayer();
+        int bestScore = -INFINITY;
+        int bestMove = firstMove;
+        boolean first = true;
+
+        long remaining = moves & ~(1L << firstMove);
+        int move = firstMove;
+        while (true) {
+            position.makeMove(move);
+            int score;
+            if (first) {
+                score = searchChild(player, depth - 1, alpha, beta);
+            } else {
+                score = searchChild(player, depth - 1, alpha, alpha + 1);
+                if (score > alpha && score < beta) {
+                    score = searchChild(player, depth - 1, alpha, beta);
+                }
+            }
+            position.undoMove();
+
+            if (aborted) {
+                return bestScore;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+            first = false;
+
+            if (remaining == 0) {
+                break;
+            }
+            move = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+        }
+
+        result[0] = bestMove;
+        result[1] = bestScore;
+        return bestScore;
+    }
+
+    /**
+     * Negamax alpha-beta with principal variation search.
+     * @return the score from the point of view of the player to move
+     */
+    private int negamax(int depth, int alpha, int beta) {
+        nodes++;
+        if (nodes % CHECK_INTERVAL == 0) {
+            checkLimits();
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        Stone player = position.getCurrentPlayer();
+        long moves = position.getValidMoveMask(player);
+
+        // The board passes automatically, so no moves here means the game is over
+        if (moves == 0) {
+            return finalScore(player);
+        }
+        if (depth == 0) {
+            return evaluator.evaluate(position);
+        }
+
+        // Reuse a stored result if it was searched deep enough, otherwise just its move
+        long key = position.getHash();
+        long entry = table.probe(key);
+        tableProbes++;
+        int hashMove = -1;
+        if (entry != 0) {
+            tableHits++;
+            hashMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int stored = TranspositionTable.score(entry);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && stored >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && stored <= alpha)) {
+                    return stored;
+                }
+            }
+        }
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = -1;
+        int ply = rootDepth - depth;
+
+        // Try the stored move first, and only order the rest if it does not cut off
+        int[] order = ordering.moves(ply);
+        int count;
+        long remaining;
+        if (ordering.useHashMove(hashMove, moves)) {
+            count = ordering.orderHashMove(ply, hashMove);
+            remaining = moves & ~(1L << hashMove);
+        } else {
+            count = ordering.order(position, moves, ply, depth, 0);
+            remaining = 0;
+        }
+        interiorNodes++;
+
+        for (int i = 0; i < count; i++) {
+            int move = order[i];
+            ordering.recordTry(ply, i);
+            position.makeMove(move);
+            int score;
+            if (i == 0) {
+                score = searchChild(player, depth - 1, alpha, beta);
+            } else {
+                // Null-window probe; re-search only if the move might be better
+                score = searchChild(player, depth - 1, alpha, alpha + 1);
+                if (score > alpha && score < beta) {
+                    score = searchChild(player, depth - 1, alpha, beta);
+                }
+            }
+            position.undoMove();
+
+            if (aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        cutoffs++;
+                        if (i == 0) {
+                            firstMoveCutoffs++;
+                        }
+                        ordering.recordCutoff(player, ply, depth, i);
+                        break;
+                    }
+                }
+            }
+
+            if (i == count - 1 && remaining != 0) {
+                count = ordering.order(position, remaining, ply, depth, count);
+                remaining = 0;
+            }
+        }
+
+        int bound = bestScore <= originalAlpha ? TranspositionTable.UPPER_BOUND
+            : bestScore >= beta ? TranspositionTable.LOWER_BOUND
+            : TranspositionTable.EXACT;
+        table.store(key, depth, bound, bestScore, bestMove);
+        return bestScore;
+    }
+
+    /**
+     * Searches the position after a move, flipping the score only if the turn changed
+     * (the same player moves again when the opponent has to pass).
+     */
+    private int searchChild(Stone mover, int depth, int alpha, int beta) {
+        if (position.getCurrentPlayer() == mover) {
+            return negamax(depth, alpha, beta);
+        }
+        return -negamax(depth, -beta, -alpha);
+    }
+
+    /**
+     * Scores a finished game as the exact disc margin.
+     */
+    private int finalScore(Stone player) {
+        int margin = position.countStones(player) - position.countStones(player.opposite());
+        return margin * Evaluator.DISC;
+    }
+
+    /**
+     * Aborts the search when the time or node budget is used up or a stop was requested.
+     */
+    private void checkLimits() {
+        if (stopRequested
+                || (nodeLimit > 0 && nodes >= nodeLimit)
+                || System.nanoTime() >= deadline) {
+            aborted = true;
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -0,0 +1,164 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SearchEngine class.
+ */
+class SearchEngineTest {
+
+    private final Evaluator evaluator = new HeuristicEvaluator();
+
+    @Test
+    @DisplayName("Fixed-depth search agrees with plain minimax")
+    void testMatchesMinimax() {
+        Random random = new Random(7);
+
+        for (int game = 0; game < 20; game++) {
+            Board board = TestPositions.randomPosition(random, 10 + random.nextInt(30));
+            if (board.isGameOver() || Long.bitCount(board.getValidMoveMask(board.getCurrentPlayer())) < 2) {
+                continue;
+            }
+
+            SearchResult result = new SearchEngine(evaluator).search(board, SearchLimits.depth(3));
+
+            assertEquals(3, result.getDepth(), "Search should complete depth 3");
+            assertEquals(minimax(board, 3), result.getScore(), "Score should match minimax:\n" + board);
+        }
+    }
+
+    @Test
+    @DisplayName("Search returns a valid move and leaves the board untouched")
+    void testReturnsValidMove() {
+        Board board = TestPositions.randomPosition(new Random(3), 20);
+        String before = board.toString();
+
+        SearchResult result = new SearchEngine().search(board, SearchLimits.depth(5));
+
+        assertTrue(board.isValidMove(result.getMovePosition()[0], result.getMovePosition()[1]), "Move should be valid");
+        assertEquals(before, board.toString(), "Board should not be modified");
+    }
+
+    @Test
+    @DisplayName("A position with a single legal move is searched and scored like any other")
+    void testForcedMove() {
+        Board board = TestPositions.forcedMove(new Random(13));
+        long moves = board.getValidMoveMask(board.getCurrentPlayer());
+
+        SearchResult result = new SearchEngine(evaluator).search(board, SearchLimits.depth(3));
+
+        assertEquals(Long.numberOfTrailingZeros(moves), result.getMove(), "The only move should be returned");
+        assertEquals(3, result.getDepth(), "Search should complete depth 3");
+        assertTrue(result.getNodes() > 0, "The move should be searched");
+        assertEquals(minimax(board, 3), result.getScore(), "Score should match minimax:\n" + board);
+    }
+
+    @Test
+    @DisplayName("Search stops within its node budget")
+    void testNodeBudget() {
+        Board board = TestPositions.randomPosition(new Random(5), 12);
+
+        SearchResult result = new SearchEngine().search(board, SearchLimits.nodes(20_000));
+
+        assertTrue(result.getNodes() < 25_000, "Search should stop near the node budget: " + result.getNodes());
+        assertTrue(result.getDepth() >= 1, "At least one iteration should complete");
+        assertNotNull(result.getMovePosition(), "A move should be returned");
+    }
+
+    @Test
+    @DisplayName("Search with a time budget returns promptly")
+    void testTimeBudget() {
+        Board board = TestPositions.randomPosition(new Random(9), 12);
+
+        SearchResult result = new SearchEngine().search(board, SearchLimits.time(100));
+
+        assertTrue(result.getTimeMillis() < 1000, "Search should respect the time budget: " + result.getTimeMillis());
+        assertNotNull(result.getMovePosition(), "A move should be returned");
+    }
+
+    @Test
+    @DisplayName("Parallel search with helper threads returns a valid move")
+    void testParallelSearch() {
+        Board board = TestPositions.randomPosition(new Random(11), 16);
+        ParallelSearch search = new ParallelSearch(3, evaluator, new TranspositionTable(4));
+
+        try {
+            SearchResult result = search.search(board, SearchLimits.depth(6));
+
+            assertEquals(6, result.getDepth(), "Main thread should complete depth 6");
+            assertTrue(board.isValidMove(result.getMovePosition()[0], result.getMovePosition()[1]), "Move should be valid");
+            assertTrue(search.getTranspositionTable().getHits() > 0, "Threads should share the table");
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("A stop sent after a search is submitted but before it starts still stops it")
+    void testStopBeforeSearchStarts() {
+        Board board = TestPositions.randomPosition(new Random(12), 16);
+        ParallelSearch search = new ParallelSearch(3, evaluator, new TranspositionTable(4));
+
+        try {
+            search.clearStop();
+            search.stop();
+            SearchResult result = search.searchSubmitted(board, SearchLimits.depth(SearchLimits.MAX_DEPTH));
+
+            // Limits are checked every 1024 nodes, so the first shallow iterations may finish
+            assertTrue(result.getDepth() < 8, "Search should stop almost at once, reached depth " + result.getDepth());
+            assertTrue(board.isValidMove(result.getMovePosition()[0], result.getMovePosition()[1]), "Move should be valid");
+            assertEquals(6, search.search(board, SearchLimits.depth(6)).getDepth(), "The next search should run");
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Search plays legal moves on a 6x6 board through to the end of the game")
+    void testSmallBoard() {
+        SearchEngine engine = new SearchEngine(PatternEvaluator.getDefault(), new TranspositionTable(1));
+        Board board = new Board(6);
+        while (!board.isGameOver()) {
+            SearchResult result = engine.search(board, SearchLimits.depth(4));
+            int[] move = result.getMovePosition();
+            assertTrue(board.isValidMove(move[0], move[1]), "Move should be on the board and legal:\n" + board);
+            board.makeMove(result.getMove());
+        }
+        assertEquals(0, board.getBitboard(Stone.EMPTY) & ~Bitboards.squareMask(6));
+    }
+
+    @Test
+    @DisplayName("The evaluation's square groups for 8x8 are the hand-written masks")
+    void testSquareGroups() {
+        long[] groups = HeuristicEvaluator.squareGroups(8);
+        assertArrayEquals(new long[]{0x8100000000000081L, 0x0042000000004200L, 0x4281000000008142L,
+            0x2400810000810024L, 0x1800008181000018L}, groups);
+
+        long[] small = HeuristicEvaluator.squareGroups(6);
+        assertEquals(Bitboards.cornerMask(6), small[0]);
+        assertEquals(Bitboards.nextToCornerMask(6), small[1] | small[2]);
+    }
+
+    private int minimax(Board board, int depth) {
+        Stone player = board.getCurrentPlayer();
+        long moves = board.getValidMoveMask(player);
+        if (moves == 0) {
+            return (board.countStones(player) - board.countStones(player.opposite())) * Evaluator.DISC;
+        }
+        if (depth == 0) {
+            return evaluator.evaluate(board);
+        }
+
+        int best = Integer.MIN_VALUE;
+        for (; moves != 0; moves &= moves - 1) {
+            board.makeMove(Long.numberOfTrailingZeros(moves));
+            int score = board.getCurrentPlayer() == player ? minimax(board, depth - 1) : -minimax(board, depth - 1);
+            board.undoMove();
+            best = Math.max(best, score);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Budget for a single search: maximum depth, wall-clock time and node count.
+ * Whichever limit is reached first ends the search.
+ */
+public final class SearchLimits {
+
+    /**
+     * Deepest iteration the search will attempt (a game never lasts longer).
+     */
+    public static final int MAX_DEPTH = Board.SIZE * Board.SIZE;
+
+    private final int depth;
+    private final long timeMillis;
+    private final long nodes;
+
+    private SearchLimits(int depth, long timeMillis, long nodes) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth must be at least 1: " + depth);
+        }
+        if (timeMillis < 0 || nodes < 0) {
+            throw new IllegalArgumentException("Limits cannot be negative");
+        }
+        this.depth = Math.min(depth, MAX_DEPTH);
+        this.timeMillis = timeMillis;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Creates limits that search to a fixed depth with no time or node budget.
+     * @param depth the depth in plies
+     * @return the limits
+     */
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    /**
+     * Creates limits that deepen until the time budget runs out.
+     * @param timeMillis the time budget in milliseconds
+     * @return the limits
+     */
+    public static SearchLimits time(long timeMillis) {
+        return new SearchLimits(MAX_DEPTH, timeMillis, 0);
+    }
+
+    /**
+     * Creates limits that deepen until the node budget runs out.
+     * @param nodes the node budget
+     * @return the limits
+     */
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(MAX_DEPTH, 0, nodes);
+    }
+
+    /**
+     * Returns a copy with a different depth limit.
+     * @param depth the depth in plies
+     * @return the new limits
+     */
+    public SearchLimits withDepth(int depth) {
+        return new SearchLimits(depth, timeMillis, nodes);
+    }
+
+    /**
+     * Returns a copy with a different time budget.
+     * @param timeMillis the time budget in milliseconds (0 for none)
+     * @return the new limits
+     */
+    public SearchLimits withTime(long timeMillis) {
+        return new SearchLimits(depth, timeMillis, nodes);
+    }
+
+    /**
+     * Returns a copy with a different node budget.
+     * @param nodes the node budget (0 for none)
+     * @return the new limits
+     */
+    public SearchLimits withNodes(long nodes) {
+        return new SearchLimits(depth, timeMillis, nodes);
+    }
+
+    /**
+     * Gets the maximum depth.
+     * @return the depth in plies
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Gets the time budget.
+     * @return the time budget in milliseconds, or 0 if unlimited
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    /**
+     * Gets the node budget.
+     * @return the node budget, or 0 if unlimited
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchLimits[depth=" + depth + ", timeMillis=" + timeMillis + ", nodes=" + nodes + "]";
+    }
+}
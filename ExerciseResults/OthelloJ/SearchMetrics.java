@@ -0,0 +1,184 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals of what the AI has been doing: searches, nodes, table hits,
+ * cutoffs and time per move, for diagnosing slow moves.
+ * <p>
+ * Engines count into plain per-search fields and add them here once per search,
+ * so nothing is shared on the hot path; the totals are {@link LongAdder}s, so
+ * several search threads can report at once without contention. All engines
+ * report to one {@link #getGlobal() global} registry.
+ */
+public class SearchMetrics {
+
+    /**
+     * A consistent-enough copy of the metrics at one moment, with the rates worked out.
+     * @param searches the number of searches
+     * @param nodes the nodes searched, over all threads
+     * @param searchMillis the time spent searching
+     * @param tableProbes the transposition table lookups
+     * @param tableHits the lookups that found their position
+     * @param interiorNodes the nodes whose moves were searched
+     * @param cutoffs the interior nodes that failed high (beta cutoffs)
+     * @param firstMoveCutoffs the cutoffs caused by the first move tried
+     * @param moves the moves chosen by AI players
+     * @param moveMillis the time AI players spent choosing them
+     * @param lastDepth the completed depth of the last search
+     * @param lastNodes the nodes of the last search
+     * @param lastMillis the time of the last search
+     * @param lastBranchingFactor the effective branching factor of the last search, or 0
+     * @param lastMoveMillis the time the last move took to choose
+     */
+    public record Snapshot(long searches, long nodes, long searchMillis, long tableProbes, long tableHits,
+                           long interiorNodes, long cutoffs, long firstMoveCutoffs, long moves, long moveMillis,
+                           int lastDepth, long lastNodes, long lastMillis, double lastBranchingFactor,
+                           long lastMoveMillis) {
+
+        /**
+         * Gets the search speed over all searches.
+         * @return nodes per second
+         */
+        public long nodesPerSecond() {
+            return searchMillis == 0 ? 0 : nodes * 1000 / searchMillis;
+        }
+
+        /**
+         * Gets the fraction of table lookups that found their position.
+         * @return the hit rate between 0 and 1
+         */
+        public double tableHitRate() {
+            return tableProbes == 0 ? 0.0 : (double) tableHits / tableProbes;
+        }
+
+        /**
+         * Gets the fraction of searched nodes that failed high.
+         * @return the cutoff rate between 0 and 1
+         */
+        public double cutoffRate() {
+            return interiorNodes == 0 ? 0.0 : (double) cutoffs / interiorNodes;
+        }
+
+        /**
+         * Gets the fraction of cutoffs made by the first move tried, a measure of move ordering.
+         * @return the first-move cutoff rate between 0 and 1
+         */
+        public double firstMoveCutoffRate() {
+            return cutoffs == 0 ? 0.0 : (double) firstMoveCutoffs / cutoffs;
+        }
+
+        /**
+         * Gets the average time to choose a move.
+         * @return milliseconds per move
+         */
+        public double averageMoveMillis() {
+            return moves == 0 ? 0.0 : (double) moveMillis / moves;
+        }
+
+        /**
+         * Formats the metrics over a few lines.
+         * @return the formatted metrics
+         */
+        @Override
+        public String toString() {
+            return String.format("last move %d ms, depth %d, %d nodes, EBF %.2f%n"
+                    + "%d moves (avg %.0f ms), %d searches, %d nodes (%d nodes/s)%n"
+                    + "table hits %.1f%%, cutoffs %.1f%% (first move %.1f%%)",
+                lastMoveMillis, lastDepth, lastNodes, lastBranchingFactor,
+                moves, averageMoveMillis(), searches, nodes, nodesPerSecond(),
+                tableHitRate() * 100, cutoffRate() * 100, firstMoveCutoffRate() * 100);
+        }
+    }
+
+    private static final SearchMetrics GLOBAL = new SearchMetrics();
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    private final LongAdder tableProbes = new LongAdder();
+    private final LongAdder tableHits = new LongAdder();
+    private final LongAdder interiorNodes = new LongAdder();
+    private final LongAdder cutoffs = new LongAdder();
+    private final LongAdder firstMoveCutoffs = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder moveNanos = new LongAdder();
+
+    // The last search and move, as seen by whichever thread reported last
+    private volatile SearchResult lastSearch;
+    private volatile double lastBranchingFactor;
+    private volatile long lastMoveNanos;
+
+    /**
+     * Gets the registry every engine and AI player reports to.
+     * @return the global metrics
+     */
+    public static SearchMetrics getGlobal() {
+        return GLOBAL;
+    }
+
+    /**
+     * Adds one engine thread's node statistics; called once per search by each thread.
+     * @param probes the table lookups
+     * @param hits the lookups that found their position
+     * @param interior the nodes whose moves were searched
+     * @param cutoffCount the nodes that failed high
+     * @param firstMoveCutoffCount the cutoffs caused by the first move tried
+     */
+    void addNodeStatistics(long probes, long hits, long interior, long cutoffCount, long firstMoveCutoffCount) {
+        tableProbes.add(probes);
+        tableHits.add(hits);
+        interiorNodes.add(interior);
+        cutoffs.add(cutoffCount);
+        firstMoveCutoffs.add(firstMoveCutoffCount);
+    }
+
+    /**
+     * Records a finished search.
+     * @param result the result, with nodes counted over all threads
+     * @param nanos the time the search took
+     * @param branchingFactor the search's effective branching factor, or 0 if unknown
+     */
+    void recordSearch(SearchResult result, long nanos, double branchingFactor) {
+        searches.increment();
+        nodes.add(result.getNodes());
+        searchNanos.add(nanos);
+        lastBranchingFactor = branchingFactor;
+        lastSearch = result;
+    }
+
+    /**
+     * Records a move chosen by an AI player.
+     * @param nanos the time the choice took
+     */
+    void recordMove(long nanos) {
+        moves.increment();
+        moveNanos.add(nanos);
+        lastMoveNanos = nanos;
+    }
+
+    /**
+     * Copies the current metrics. Counters updated while the copy is made may be
+     * counted or not, so related totals can be slightly out of step.
+     * @return the metrics
+     */
+    public Snapshot snapshot() {
+        SearchResult last = lastSearch;
+        return new Snapshot(searches.sum(), nodes.sum(), searchNanos.sum() / 1_000_000,
+            tableProbes.sum(), tableHits.sum(), interiorNodes.sum(), cutoffs.sum(), firstMoveCutoffs.sum(),
+            moves.sum(), moveNanos.sum() / 1_000_000,
+            last == null ? 0 : last.getDepth(), last == null ? 0 : last.getNodes(),
+            last == null ? 0 : last.getTimeMillis(), lastBranchingFactor, lastMoveNanos / 1_000_000);
+    }
+
+    /**
+     * Sets every counter back to zero.
+     */
+    public void reset() {
+        for (LongAdder adder : new LongAdder[]{searches, nodes, searchNanos, tableProbes, tableHits,
+                interiorNodes, cutoffs, firstMoveCutoffs, moves, moveNanos}) {
+            adder.reset();
+        }
+        lastSearch = null;
+        lastBranchingFactor = 0;
+        lastMoveNanos = 0;
+    }
+}
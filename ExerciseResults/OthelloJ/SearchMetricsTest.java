@@ -0,0 +1,84 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SearchMetrics registry.
+ */
+class SearchMetricsTest {
+
+    private Board midgamePosition() {
+        return TestPositions.randomPosition(new Random(19), 16);
+    }
+
+    @Test
+    @DisplayName("A search adds its nodes and statistics to the global metrics")
+    void testSearchIsRecorded() {
+        SearchMetrics metrics = SearchMetrics.getGlobal();
+        SearchMetrics.Snapshot before = metrics.snapshot();
+
+        SearchResult result = new SearchEngine(new HeuristicEvaluator(), new TranspositionTable(1))
+            .search(midgamePosition(), SearchLimits.depth(6));
+        SearchMetrics.Snapshot after = metrics.snapshot();
+
+        assertEquals(before.searches() + 1, after.searches());
+        assertEquals(before.nodes() + result.getNodes(), after.nodes());
+        assertEquals(6, after.lastDepth());
+        assertEquals(result.getNodes(), after.lastNodes());
+        assertTrue(after.lastBranchingFactor() > 1, "Deeper iterations should search more nodes");
+        assertTrue(after.tableProbes() > before.tableProbes());
+        assertTrue(after.cutoffs() > before.cutoffs());
+        assertTrue(after.firstMoveCutoffs() <= after.cutoffs());
+        assertTrue(after.cutoffs() <= after.interiorNodes());
+        assertTrue(after.tableHitRate() >= 0 && after.tableHitRate() <= 1);
+    }
+
+    @Test
+    @DisplayName("Parallel searches count every thread's nodes once")
+    void testParallelSearchIsRecorded() {
+        SearchMetrics metrics = SearchMetrics.getGlobal();
+        ParallelSearch search = new ParallelSearch(2, new HeuristicEvaluator(), new TranspositionTable(1));
+        try {
+            SearchMetrics.Snapshot before = metrics.snapshot();
+            SearchResult result = search.search(midgamePosition(), SearchLimits.depth(5));
+            SearchMetrics.Snapshot after = metrics.snapshot();
+
+            assertEquals(before.searches() + 1, after.searches());
+            assertEquals(before.nodes() + result.getNodes(), after.nodes());
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("AI moves are timed at every level")
+    void testMovesAreRecorded() {
+        SearchMetrics metrics = SearchMetrics.getGlobal();
+        Board board = new Board();
+        long before = metrics.snapshot().moves();
+
+        new AIPlayer(board.getCurrentPlayer()).chooseMove(board);
+
+        assertEquals(before + 1, metrics.snapshot().moves());
+    }
+
+    @Test
+    @DisplayName("Rates are zero rather than undefined before anything is recorded")
+    void testEmptySnapshot() {
+        SearchMetrics metrics = new SearchMetrics();
+        metrics.recordMove(5_000_000);
+        metrics.reset();
+        SearchMetrics.Snapshot empty = metrics.snapshot();
+
+        assertEquals(0, empty.moves());
+        assertEquals(0, empty.nodesPerSecond());
+        assertEquals(0.0, empty.tableHitRate());
+        assertEquals(0.0, empty.cutoffRate());
+        assertEquals(0.0, empty.firstMoveCutoffRate());
+        assertEquals(0.0, empty.averageMoveMillis());
+        assertNotNull(empty.toString());
+    }
+}
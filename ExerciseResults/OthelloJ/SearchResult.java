@@ -0,0 +1,90 @@
+/**
+ * Outcome of a search: the chosen move and how it was found.
+ */
+public final class SearchResult {
+
+    private final int move;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long timeMillis;
+
+    /**
+     * Creates a search result.
+     * @param move the best move as a square index, or -1 if there is no move
+     * @param score the score of the move in hundredths of a disc
+     * @param depth the depth of the last completed iteration
+     * @param nodes the number of nodes searched
+     * @param timeMillis the time spent in milliseconds
+     */
+    public SearchResult(int move, int score, int depth, long nodes, long timeMillis) {
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+    }
+
+    /**
+     * Gets the best move.
+     * @return the square index (row * 8 + col), or -1 if there is no move
+     */
+    public int getMove() {
+        return move;
+    }
+
+    /**
+     * Gets the best move as a position.
+     * @return the move as [row, col], or null if there is no move
+     */
+    public int[] getMovePosition() {
+        return move < 0 ? null : new int[]{Bitboards.row(move), Bitboards.col(move)};
+    }
+
+    /**
+     * Gets the score of the best move from the mover's point of view.
+     * @return the score in hundredths of a disc
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the depth of the last completed iteration.
+     * @return the depth in plies
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Gets the number of nodes searched.
+     * @return the node count
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Gets the time spent searching.
+     * @return the time in milliseconds
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    /**
+     * Gets the search speed.
+     * @return nodes per second
+     */
+    public long getNodesPerSecond() {
+        return timeMillis == 0 ? nodes * 1000 : nodes * 1000 / timeMillis;
+    }
+
+    @Override
+    public String toString() {
+        String square = move < 0 ? "pass" : "(" + Bitboards.row(move) + "," + Bitboards.col(move) + ")";
+        return "move " + square + " score " + score + " depth " + depth
+            + " nodes " + nodes + " time " + timeMillis + "ms";
+    }
+}
@@ -0,0 +1,238 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Headless AI-versus-AI game farm for strength testing and training data.
+ * Games run concurrently on a pool of worker threads, one game per task, with no
+ * GUI or timers in the loop. Each game is seeded from the farm seed and its game
+ * number, opens with a few random moves so games differ, and is reported as soon
+ * as it finishes.
+ * <p>
+ * Games between greedy players are repeatable from their seed; games using the
+ * time-limited search levels depend on how far each search got and are not.
+ * <p>
+ * Each worker keeps one pair of players, and with them their search engines and
+ * transposition tables, for all its games; the tables are cleared between games.
+ */
+public class SelfPlay {
+
+    /**
+     * The result and moves of one finished game.
+     * @param game the game number
+     * @param seed the seed the game was played with
+     * @param blackStones Black's final stone count
+     * @param whiteStones White's final stone count
+     * @param moves the squares played, in order; passes are implied by the player to move
+     */
+    public record GameRecord(int game, long seed, int blackStones, int whiteStones, int[] moves) {
+
+        /**
+         * Gets the winner of the game.
+         * @return BLACK or WHITE, or EMPTY for a draw
+         */
+        public Stone winner() {
+            return blackStones > whiteStones ? Stone.BLACK : whiteStones > blackStones ? Stone.WHITE : Stone.EMPTY;
+        }
+
+        /**
+         * Formats the game as one line: number, seed, score, winner and moves.
+         * @return the formatted game
+         */
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("game ").append(game).append(" seed ").append(seed)
+                .append(" score ").append(blackStones).append('-').append(whiteStones)
+                .append(" winner ").append(winner() == Stone.EMPTY ? "DRAW" : winner())
+                .append(" moves");
+            for (int move : moves) {
+                sb.append(' ').append(Bitboards.squareName(move));
+            }
+            return sb.toString();
+        }
+    }
+
+    private final Difficulty black;
+    private final Difficulty white;
+    private final int openingMoves;
+    private final long seed;
+
+    /**
+     * The two players of a worker, reseeded for every game.
+     */
+    private final class Players {
+        final Random blackRandom = new Random();
+        final Random whiteRandom = new Random();
+        final AIPlayer blackPlayer = new AIPlayer(Stone.BLACK, black, blackRandom);
+        final AIPlayer whitePlayer = new AIPlayer(Stone.WHITE, white, whiteRandom);
+
+        void shutdown() {
+            blackPlayer.shutdown();
+            whitePlayer.shutdown();
+        }
+    }
+
+    /**
+     * Creates a game farm.
+     * @param black the strength of the Black player
+     * @param white the strength of the White player
+     * @param openingMoves the number of random moves each game opens with
+     * @param seed the seed every game's randomness is derived from
+     */
+    public SelfPlay(Difficulty black, Difficulty white, int openingMoves, long seed) {
+        if (openingMoves < 0) {
+            throw new IllegalArgumentException("Opening moves cannot be negative: " + openingMoves);
+        }
+        this.black = black;
+        this.white = white;
+        this.openingMoves = openingMoves;
+        this.seed = seed;
+    }
+
+    /**
+     * Plays one game on the calling thread.
+     * @param game the game number, which together with the farm seed sets the game's seed
+     * @return the finished game
+     */
+    public GameRecord playGame(int game) {
+        Players players = new Players();
+        try {
+            return playGame(game, players);
+        } finally {
+            players.shutdown();
+        }
+    }
+
+    /**
+     * Plays one game with a worker's players, starting them with fresh seeds and empty tables.
+     */
+    private GameRecord playGame(int game, Players players) {
+        long gameSeed = seed * 1_000_003L + game;
+        Random random = new Random(gameSeed);
+        players.blackRandom.setSeed(random.nextLong());
+        players.whiteRandom.setSeed(random.nextLong());
+        players.blackPlayer.clearSearchCache();
+        players.whitePlayer.clearSearchCache();
+
+        Board board = new Board();
+        List<Integer> moves = new ArrayList<>();
+        while (!board.isGameOver()) {
+            int square;
+            if (moves.size() < openingMoves) {
+                square = Bitboards.randomSquare(board.getValidMoveMask(board.getCurrentPlayer()), random);
+            } else {
+                AIPlayer player = board.getCurrentPlayer() == Stone.BLACK ? players.blackPlayer : players.whitePlayer;
+                int[] move = player.chooseMove(board);
+                square = Bitboards.square(move[0], move[1]);
+            }
+            board.makeMove(square);
+            moves.add(square);
+        }
+        return new GameRecord(game, gameSeed, board.countStones(Stone.BLACK), board.countStones(Stone.WHITE),
+            moves.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Plays games concurrently, passing each to the output as soon as it finishes.
+     * The output is called from one worker at a time, in completion order.
+     * @param games the number of games, numbered from 0
+     * @param threads the number of games played at once
+     * @param output receives each finished game
+     * @throws InterruptedException if interrupted while waiting for the games
+     */
+    public void run(int games, int threads, Consumer<GameRecord> output) throws InterruptedException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread: " + threads);
+        }
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "othello-self-play");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Players> allPlayers = Collections.synchronizedList(new ArrayList<>());
+        ThreadLocal<Players> workerPlayers = ThreadLocal.withInitial(() -> {
+            Players players = new Players();
+            allPlayers.add(players);
+            return players;
+        });
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int game = 0; game < games; game++) {
+                int number = game;
+                results.add(workers.submit(() -> {
+                    GameRecord record = playGame(number, workerPlayers.get());
+                    synchronized (output) {
+                        output.accept(record);
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Self-play game failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+            synchronized (allPlayers) {
+                allPlayers.forEach(Players::shutdown);
+            }
+        }
+    }
+
+    /**
+     * Plays games and prints each one as a line, then the totals; optionally also
+     * streams the games to a binary archive (see {@link GameRecordWriter}).
+     * Usage: {@code java SelfPlay [games] [threads] [black] [white] [openingMoves] [seed] [archive]}
+     * @param args optional game count, thread count, difficulty names, random opening length,
+     *             seed and archive file
+     * @throws InterruptedException if interrupted while waiting for the games
+     * @throws IOException if the archive cannot be written
+     */
+    public static void main(String[] args) throws InterruptedException, IOException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Difficulty black = args.length > 2 ? Difficulty.valueOf(args[2].toUpperCase()) : Difficulty.INTERMEDIATE;
+        Difficulty white = args.length > 3 ? Difficulty.valueOf(args[3].toUpperCase()) : Difficulty.INTERMEDIATE;
+        int openingMoves = args.length > 4 ? Integer.parseInt(args[4]) : 4;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 1;
+        GameRecordWriter archive = args.length > 6 ? GameRecordWriter.create(Path.of(args[6])) : null;
+
+        int[] wins = new int[3];  // Black, White, draws
+        long start = System.nanoTime();
+        try {
+            new SelfPlay(black, white, openingMoves, seed).run(games, threads, record -> {
+                System.out.println(record);
+                wins[record.winner() == Stone.BLACK ? 0 : record.winner() == Stone.WHITE ? 1 : 2]++;
+                if (archive != null) {
+                    Board board = new Board();
+                    for (int move : record.moves()) {
+                        board.makeMove(move);
+                    }
+                    try {
+                        archive.write(board, record.seed(), black, white);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } finally {
+            if (archive != null) {
+                archive.close();
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Black (%s) %d, White (%s) %d, draws %d in %.1f s (%.2f games/s)%n",
+            black, wins[0], white, wins[1], wins[2], seconds, games / seconds);
+    }
+}
@@ -0,0 +1,64 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SelfPlay game farm.
+ */
+class SelfPlayTest {
+
+    @Test
+    @DisplayName("Games with the same seed are played the same way")
+    void testSeededGamesRepeat() {
+        SelfPlay farm = new SelfPlay(Difficulty.BEGINNER, Difficulty.BEGINNER, 4, 11);
+
+        for (int game = 0; game < 5; game++) {
+            SelfPlay.GameRecord first = farm.playGame(game);
+            SelfPlay.GameRecord second = farm.playGame(game);
+            assertArrayEquals(first.moves(), second.moves(), "Game " + game + " should repeat");
+            assertEquals(first.blackStones(), second.blackStones());
+        }
+    }
+
+    @Test
+    @DisplayName("Players reused by a worker play each game as fresh players would")
+    void testReusedPlayersRepeat() throws InterruptedException {
+        SelfPlay farm = new SelfPlay(Difficulty.BEGINNER, Difficulty.BEGINNER, 4, 13);
+        ConcurrentHashMap<Integer, SelfPlay.GameRecord> records = new ConcurrentHashMap<>();
+
+        farm.run(6, 1, record -> records.put(record.game(), record));
+
+        for (int game = 0; game < 6; game++) {
+            assertArrayEquals(farm.playGame(game).moves(), records.get(game).moves(), "Game " + game + " should repeat");
+        }
+    }
+
+    @Test
+    @DisplayName("Every game is played to the end with legal moves")
+    void testConcurrentGamesAreComplete() throws InterruptedException {
+        SelfPlay farm = new SelfPlay(Difficulty.BEGINNER, Difficulty.INTERMEDIATE, 2, 12);
+        ConcurrentHashMap<Integer, SelfPlay.GameRecord> records = new ConcurrentHashMap<>();
+
+        farm.run(8, 3, record -> records.put(record.game(), record));
+
+        assertEquals(8, records.size(), "Every game should be reported once");
+        Set<String> openings = new HashSet<>();
+        for (SelfPlay.GameRecord record : records.values()) {
+            Board board = new Board();
+            for (int move : record.moves()) {
+                assertTrue(board.isValidMove(Bitboards.row(move), Bitboards.col(move)), "Illegal move in " + record);
+                board.makeMove(move);
+            }
+            assertTrue(board.isGameOver(), "Game should be finished: " + record);
+            assertEquals(board.countStones(Stone.BLACK), record.blackStones());
+            assertEquals(board.countStones(Stone.WHITE), record.whiteStones());
+            openings.add(record.moves()[0] + "," + record.moves()[1]);
+        }
+        assertTrue(openings.size() > 1, "Random openings should differ between games");
+    }
+}
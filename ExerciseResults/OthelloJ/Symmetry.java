@@ -0,0 +1,132 @@
+/**
+ * The 8 symmetries of the board (rotations and reflections) and canonical forms of positions.
+ * <p>
+ * Transform {@code t} is built from three flips: bit 0 mirrors the columns, bit 1 mirrors
+ * the rows and bit 2 then swaps rows and columns, so 0 is the identity. The canonical form
+ * of a position is its smallest image (player-to-move stones first, then opponent stones,
+ * compared unsigned), so every position in a symmetry class shares one entry in a book,
+ * cache or database, and moves are mapped back with {@link #inverse}.
+ * Transforms apply to 8x8 masks only.
+ */
+public final class Symmetry {
+
+    /**
+     * Number of symmetries, including the identity.
+     */
+    public static final int COUNT = 8;
+
+    /**
+     * The transform that leaves a position unchanged.
+     */
+    public static final int IDENTITY = 0;
+
+    // Square each square moves to under each transform
+    private static final byte[][] SQUARES = new byte[COUNT][64];
+
+    static {
+        for (int t = 0; t < COUNT; t++) {
+            for (int square = 0; square < 64; square++) {
+                SQUARES[t][square] = (byte) Long.numberOfTrailingZeros(apply(1L << square, t));
+            }
+        }
+    }
+
+    private Symmetry() {
+    }
+
+    /**
+     * Applies a symmetry to a mask.
+     * @param mask the stones to transform
+     * @param transform the symmetry, 0 to 7
+     * @return the transformed mask
+     */
+    public static long apply(long mask, int transform) {
+        if ((transform & 1) != 0) {
+            mask = ((mask >>> 1) & 0x5555555555555555L) | ((mask & 0x5555555555555555L) << 1);
+            mask = ((mask >>> 2) & 0x3333333333333333L) | ((mask & 0x3333333333333333L) << 2);
+            mask = ((mask >>> 4) & 0x0F0F0F0F0F0F0F0FL) | ((mask & 0x0F0F0F0F0F0F0F0FL) << 4);
+        }
+        if ((transform & 2) != 0) {
+            mask = Long.reverseBytes(mask);
+        }
+        if ((transform & 4) != 0) {
+            long t = 0x0F0F0F0F00000000L & (mask ^ (mask << 28));
+            mask ^= t ^ (t >>> 28);
+            t = 0x3333000033330000L & (mask ^ (mask << 14));
+            mask ^= t ^ (t >>> 14);
+            t = 0x5500550055005500L & (mask ^ (mask << 7));
+            mask ^= t ^ (t >>> 7);
+        }
+        return mask;
+    }
+
+    /**
+     * Applies a symmetry to a square.
+     * @param square the square index
+     * @param transform the symmetry, 0 to 7
+     * @return the square it moves to
+     */
+    public static int square(int square, int transform) {
+        return SQUARES[transform][square];
+    }
+
+    /**
+     * Gets the symmetry that undoes another.
+     * @param transform the symmetry, 0 to 7
+     * @return the inverse symmetry
+     */
+    public static int inverse(int transform) {
+        // The flips undo themselves; after a swap of rows and columns they trade places
+        if ((transform & 4) == 0) {
+            return transform;
+        }
+        return 4 | ((transform & 1) << 1) | ((transform & 2) >>> 1);
+    }
+
+    /**
+     * Finds the symmetry that maps a position to its canonical (smallest) form.
+     * @param own the player-to-move stones
+     * @param opponent the opponent stones
+     * @return the transform to apply; the lowest one when several give the canonical form
+     */
+    public static int canonicalTransform(long own, long opponent) {
+        int best = IDENTITY;
+        long bestOwn = own;
+        long bestOpponent = opponent;
+        for (int t = 1; t < COUNT; t++) {
+            long tOwn = apply(own, t);
+            int order = Long.compareUnsigned(tOwn, bestOwn);
+            if (order > 0) {
+                continue;
+            }
+            // Opponent stones only decide between images with the same own stones
+            long tOpponent = apply(opponent, t);
+            if (order < 0 || Long.compareUnsigned(tOpponent, bestOpponent) < 0) {
+                best = t;
+                bestOwn = tOwn;
+                bestOpponent = tOpponent;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Computes the Zobrist key of a position's canonical form, so all of its rotations
+     * and reflections share one key.
+     * @param board the position
+     * @return the key
+     * @throws IllegalArgumentException if the board is not 8x8
+     */
+    public static long canonicalHash(Board board) {
+        if (board.getSize() != Board.SIZE) {
+            throw new IllegalArgumentException("Symmetries apply to 8x8 boards only: " + board.getSize());
+        }
+        Stone player = board.getCurrentPlayer();
+        long own = board.getBitboard(player);
+        long opponent = board.getBitboard(player.opposite());
+        int t = canonicalTransform(own, opponent);
+        return player == Stone.BLACK
+            ? Zobrist.hash(apply(own, t), apply(opponent, t), player)
+            : Zobrist.hash(apply(opponent, t), apply(own, t), player);
+    }
+}
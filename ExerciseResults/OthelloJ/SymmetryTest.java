@@ -0,0 +1,95 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Symmetry transforms and canonical forms.
+ */
+class SymmetryTest {
+
+    /**
+     * Maps a square by rows and columns, the slow way.
+     */
+    private static int reference(int square, int transform) {
+        int r = Bitboards.row(square);
+        int c = Bitboards.col(square);
+        if ((transform & 1) != 0) {
+            c = 7 - c;
+        }
+        if ((transform & 2) != 0) {
+            r = 7 - r;
+        }
+        return (transform & 4) != 0 ? Bitboards.square(c, r) : Bitboards.square(r, c);
+    }
+
+    @Test
+    @DisplayName("The 8 transforms are distinct rotations and reflections, each undone by its inverse")
+    void testTransforms() {
+        Set<Long> images = new HashSet<>();
+        // An asymmetric mask has 8 different images
+        long mask = 0x0000000000000107L;
+        Random random = new Random(24);
+        for (int t = 0; t < Symmetry.COUNT; t++) {
+            for (int square = 0; square < 64; square++) {
+                assertEquals(reference(square, t), Symmetry.square(square, t));
+            }
+            long stones = random.nextLong();
+            long image = Symmetry.apply(stones, t);
+            assertEquals(Long.bitCount(stones), Long.bitCount(image));
+            assertEquals(stones, Symmetry.apply(image, Symmetry.inverse(t)));
+            assertEquals(Bitboards.cornerMask(8), Symmetry.apply(Bitboards.cornerMask(8), t));
+            images.add(Symmetry.apply(mask, t));
+        }
+        assertEquals(Symmetry.COUNT, images.size());
+        assertEquals(mask, Symmetry.apply(mask, Symmetry.IDENTITY));
+    }
+
+    @Test
+    @DisplayName("Every image of a position has the same canonical form, and legal moves map across")
+    void testCanonicalForm() {
+        Random random = new Random(25);
+        for (int game = 0; game < 50; game++) {
+            Board board = TestPositions.randomPosition(random, random.nextInt(40));
+            Stone player = board.getCurrentPlayer();
+            long own = board.getBitboard(player);
+            long opponent = board.getBitboard(player.opposite());
+            int c = Symmetry.canonicalTransform(own, opponent);
+            long canonicalOwn = Symmetry.apply(own, c);
+            long canonicalOpponent = Symmetry.apply(opponent, c);
+            long moves = Bitboards.legalMoves(own, opponent);
+
+            for (int t = 0; t < Symmetry.COUNT; t++) {
+                long tOwn = Symmetry.apply(own, t);
+                long tOpponent = Symmetry.apply(opponent, t);
+                int tc = Symmetry.canonicalTransform(tOwn, tOpponent);
+                assertEquals(canonicalOwn, Symmetry.apply(tOwn, tc));
+                assertEquals(canonicalOpponent, Symmetry.apply(tOpponent, tc));
+                assertTrue(Long.compareUnsigned(canonicalOwn, tOwn) <= 0, "Canonical form is the smallest");
+                assertEquals(Symmetry.apply(moves, t), Bitboards.legalMoves(tOwn, tOpponent));
+
+                Board image = new Board(8, player == Stone.BLACK ? tOwn : tOpponent,
+                    player == Stone.BLACK ? tOpponent : tOwn, player);
+                assertEquals(Symmetry.canonicalHash(board), Symmetry.canonicalHash(image));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("The four first moves are one position up to symmetry")
+    void testOpeningClass() {
+        Board start = new Board();
+        Set<Long> hashes = new HashSet<>();
+        for (long moves = start.getValidMoveMask(start.getCurrentPlayer()); moves != 0; moves &= moves - 1) {
+            Board board = new Board(start);
+            board.makeMove(Long.numberOfTrailingZeros(moves));
+            hashes.add(Symmetry.canonicalHash(board));
+        }
+        assertEquals(1, hashes.size());
+        assertThrows(IllegalArgumentException.class, () -> Symmetry.canonicalHash(new Board(6)));
+    }
+}
@@ -0,0 +1,79 @@
+import java.util.Random;
+
+/**
+ * Random positions shared by the unit tests.
+ */
+final class TestPositions {
+
+    private TestPositions() {
+    }
+
+    /**
+     * Plays random legal moves from the start, stopping early if the game ends.
+     * @param random the source of randomness
+     * @param plies the number of moves to play
+     * @return the position reached
+     */
+    static Board randomPosition(Random random, int plies) {
+        Board board = new Board();
+        for (int i = 0; i < plies && !board.isGameOver(); i++) {
+            board.makeMove(Bitboards.randomSquare(board.getValidMoveMask(board.getCurrentPlayer()), random));
+        }
+        return board;
+    }
+
+    /**
+     * Plays a game of random legal moves to the end.
+     * @param random the source of randomness
+     * @return the finished game
+     */
+    static Board randomGame(Random random) {
+        return randomPosition(random, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Builds a made-up position where Black, to move, can play on every one of the 35
+     * empty squares; the most known in a reachable position is 33.
+     * @return the position
+     */
+    static Board manyMoves() {
+        return new Board(0x00186680243C0400L, 0x006608420A426A00L, Stone.BLACK);
+    }
+
+    /**
+     * Plays random games until the player to move has a single legal move, with too many
+     * empties for the endgame solver to take over.
+     * @param random the source of randomness
+     * @return the position reached
+     */
+    static Board forcedMove(Random random) {
+        while (true) {
+            Board board = new Board();
+            while (!board.isGameOver() && Long.bitCount(board.getBitboard(Stone.EMPTY)) > 20) {
+                long moves = board.getValidMoveMask(board.getCurrentPlayer());
+                if (Long.bitCount(moves) == 1) {
+                    return board;
+                }
+                board.makeMove(Bitboards.randomSquare(moves, random));
+            }
+        }
+    }
+
+    /**
+     * Plays random games until one reaches the given number of empties with a move available.
+     * @param random the source of randomness
+     * @param empties the number of empty squares to leave
+     * @return the position reached
+     */
+    static Board positionWithEmpties(Random random, int empties) {
+        while (true) {
+            Board board = new Board();
+            while (!board.isGameOver() && Long.bitCount(board.getBitboard(Stone.EMPTY)) > empties) {
+                board.makeMove(Bitboards.randomSquare(board.getValidMoveMask(board.getCurrentPlayer()), random));
+            }
+            if (!board.isGameOver()) {
+                return board;
+            }
+        }
+    }
+}
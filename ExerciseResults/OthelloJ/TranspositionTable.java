@@ -0,0 +1,238 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size hash table of search results, keyed by Zobrist hash.
+ * Entries live in two primitive arrays (key and packed data) grouped into
+ * two-entry buckets. When a bucket is full, entries left over from an older
+ * search are replaced first, then the shallower of the two.
+ * <p>
+ * The table can be shared by several search threads without locking: each slot
+ * stores {@code key ^ data} instead of the key, so a slot torn by two threads
+ * writing at once no longer matches its key and simply reads as a miss.
+ */
+public class TranspositionTable {
+
+    /** The stored score is exact. */
+    public static final int EXACT = 1;
+    /** The stored score is a lower bound (the search failed high). */
+    public static final int LOWER_BOUND = 2;
+    /** The stored score is an upper bound (the search failed low). */
+    public static final int UPPER_BOUND = 3;
+
+    /**
+     * Default table size, configurable with {@code -Dothello.hashMegabytes=N}.
+     */
+    public static final int DEFAULT_MEGABYTES = Integer.getInteger("othello.hashMegabytes", 16);
+
+    private static final int BUCKET_SIZE = 2;
+    private static final int BYTES_PER_ENTRY = 2 * Long.BYTES;
+
+    // Packed data layout: score (16 bits) | move + 1 (8) | depth (8) | bound (2) | age (8)
+    private static final int MOVE_SHIFT = 16;
+    private static final int DEPTH_SHIFT = 24;
+    private static final int BOUND_SHIFT = 32;
+    private static final int AGE_SHIFT = 34;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int bucketMask;
+    private int age;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Creates a table of the default size.
+     */
+    public TranspositionTable() {
+        this(DEFAULT_MEGABYTES);
+    }
+
+    /**
+     * Creates a table using about the given amount of memory.
+     * The entry count is rounded down to a power of two.
+     * @param megabytes the memory budget in megabytes
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Table size must be at least 1 MB: " + megabytes);
+        }
+        long entries = Long.highestOneBit((long) megabytes * 1024 * 1024 / BYTES_PER_ENTRY);
+        int capacity = (int) Math.min(entries, 1 << 30);
+        keys = new long[capacity];
+        data = new long[capacity];
+        bucketMask = capacity / BUCKET_SIZE - 1;
+    }
+
+    /**
+     * Looks up a position.
+     * @param key the Zobrist key
+     * @return the packed entry data, or 0 if the position is not stored
+     */
+    public long probe(long key) {
+        probes.increment();
+        int index = bucketIndex(key);
+        for (int i = index; i < index + BUCKET_SIZE; i++) {
+            long entry = data[i];
+            if (entry != 0 && (keys[i] ^ entry) == key) {
+                hits.increment();
+                return entry;
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Stores a search result for a position.
+     * @param key the Zobrist key
+     * @param depth the depth searched
+     * @param bound EXACT, LOWER_BOUND or UPPER_BOUND
+     * @param score the score in hundredths of a disc
+     * @param move the best move found, or -1 if none
+     */
+    public void store(long key, int depth, int bound, int score, int move) {
+        int index = bucketIndex(key);
+        int victim = index;
+
+        for (int i = index; i < index + BUCKET_SIZE; i++) {
+            long entry = data[i];
+            if (entry == 0 || (keys[i] ^ entry) == key) {
+                victim = i;
+                break;
+            }
+            if (priority(entry) < priority(data[victim])) {
+                victim = i;
+            }
+        }
+
+        // Keep a deeper result for the same position unless it is stale
+        long existing = data[victim];
+        if (existing != 0 && (keys[victim] ^ existing) == key
+                && depth(existing) > depth && age(existing) == age) {
+            return;
+        }
+
+        long packed = pack(depth, bound, score, move);
+        data[victim] = packed;
+        keys[victim] = key ^ packed;
+    }
+
+    /**
+     * Marks the start of a new search so older entries become preferred for replacement.
+     * Call this before any search thread starts using the table.
+     */
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    /**
+     * Removes all entries and resets the statistics.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, 0L);
+        probes.reset();
+        hits.reset();
+    }
+
+    /**
+     * Gets the number of entries the table can hold.
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Gets the memory used by the entries.
+     * @return the size in megabytes
+     */
+    public int getSizeMegabytes() {
+        return (int) ((long) keys.length * BYTES_PER_ENTRY / (1024 * 1024));
+    }
+
+    /**
+     * Gets the number of lookups made.
+     * @return the probe count
+     */
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    /**
+     * Gets the number of lookups that found their position.
+     * @return the hit count
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the fraction of lookups that found their position.
+     * @return the hit rate between 0 and 1
+     */
+    public double getHitRate() {
+        long probeCount = probes.sum();
+        return probeCount == 0 ? 0.0 : (double) hits.sum() / probeCount;
+    }
+
+    /**
+     * Extracts the score from packed entry data.
+     * @param entry the packed data returned by {@link #probe(long)}
+     * @return the score in hundredths of a disc
+     */
+    public static int score(long entry) {
+        return (short) entry;
+    }
+
+    /**
+     * Extracts the best move from packed entry data.
+     * @param entry the packed data returned by {@link #probe(long)}
+     * @return the square index, or -1 if none was stored
+     */
+    public static int move(long entry) {
+        return (int) ((entry >>> MOVE_SHIFT) & 0xFF) - 1;
+    }
+
+    /**
+     * Extracts the search depth from packed entry data.
+     * @param entry the packed data returned by {@link #probe(long)}
+     * @return the depth searched
+     */
+    public static int depth(long entry) {
+        return (int) ((entry >>> DEPTH_SHIFT) & 0xFF);
+    }
+
+    /**
+     * Extracts the bound type from packed entry data.
+     * @param entry the packed data returned by {@link #probe(long)}
+     * @return EXACT, LOWER_BOUND or UPPER_BOUND
+     */
+    public static int bound(long entry) {
+        return (int) ((entry >>> BOUND_SHIFT) & 0x3);
+    }
+
+    private static int age(long entry) {
+        return (int) ((entry >>> AGE_SHIFT) & 0xFF);
+    }
+
+    private long pack(int depth, int bound, int score, int move) {
+        return (score & 0xFFFFL)
+            | ((long) ((move + 1) & 0xFF) << MOVE_SHIFT)
+            | ((long) (depth & 0xFF) << DEPTH_SHIFT)
+            | ((long) bound << BOUND_SHIFT)
+            | ((long) age << AGE_SHIFT);
+    }
+
+    /**
+     * Ranks entries for replacement: stale entries first, then shallow ones.
+     */
+    private int priority(long entry) {
+        return age(entry) == age ? depth(entry) + 256 : depth(entry);
+    }
+
+    private int bucketIndex(long key) {
+        return ((int) (key ^ (key >>> 32)) & bucketMask) * BUCKET_SIZE;
+    }
+}
@@ -0,0 +1,51 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TranspositionTable class.
+ */
+class TranspositionTableTest {
+
+    @Test
+    @DisplayName("Stored entries are returned with all fields intact")
+    void testStoreAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(12345L, 7, TranspositionTable.LOWER_BOUND, -1234, 42);
+
+        long entry = table.probe(12345L);
+
+        assertNotEquals(0L, entry, "Entry should be found");
+        assertEquals(7, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(entry));
+        assertEquals(-1234, TranspositionTable.score(entry));
+        assertEquals(42, TranspositionTable.move(entry));
+        assertEquals(0L, table.probe(54321L), "Unknown key should miss");
+        assertEquals(0.5, table.getHitRate(), 1e-9, "One hit out of two probes");
+    }
+
+    @Test
+    @DisplayName("Shallower results do not overwrite deeper ones from the same search")
+    void testDepthPreferred() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(99L, 8, TranspositionTable.EXACT, 100, 3);
+        table.store(99L, 2, TranspositionTable.EXACT, 500, 4);
+
+        assertEquals(8, TranspositionTable.depth(table.probe(99L)), "Deeper entry should be kept");
+
+        table.newSearch();
+        table.store(99L, 2, TranspositionTable.EXACT, 500, 4);
+
+        assertEquals(2, TranspositionTable.depth(table.probe(99L)), "Stale entry should be replaced");
+    }
+
+    @Test
+    @DisplayName("Entries without a move report -1")
+    void testNoMove() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(7L, 1, TranspositionTable.UPPER_BOUND, 0, -1);
+
+        assertEquals(-1, TranspositionTable.move(table.probe(7L)));
+    }
+}
@@ -0,0 +1,202 @@
+/**
+ * Bit-twiddling helpers for 10x10 boards, whose 100 squares need two 64-bit words per color.
+ * Square {@code row * 10 + col} is bit {@code square} of the low word for squares 0-63 and
+ * bit {@code square - 64} of the high word for squares 64-99. The pair is shifted as one
+ * 128-bit value, bits carrying between the words, so shifting by 1 moves one column right
+ * and shifting by 10 moves one row down.
+ * <p>
+ * Results covering the whole board are written to a caller's two-element array
+ * ({@code [low, high]}), so move generation does not allocate.
+ */
+public final class WideBitboards {
+
+    /**
+     * The board size, the only one that needs two words.
+     */
+    public static final int SIZE = 10;
+
+    /**
+     * Number of squares on the board.
+     */
+    public static final int SQUARES = SIZE * SIZE;
+
+    // Squares 64-99, the part of the high word that is on the board
+    private static final long HIGH_SQUARES = (1L << (SQUARES - 64)) - 1;
+
+    // Shift amounts for the 8 directions, the columns each moves by, and the masks to
+    // apply after shifting
+    private static final int[] SHIFTS = {-11, -10, -9, -1, 1, 9, 10, 11};
+    private static final int[] COLUMN_STEPS = {-1, 0, 1, -1, 1, -1, 0, 1};
+    private static final long[] SHIFT_MASKS_LOW = new long[SHIFTS.length];
+    private static final long[] SHIFT_MASKS_HIGH = new long[SHIFTS.length];
+
+    static {
+        // Masks that drop stones which wrapped around the board edge after a shift
+        long firstColumnLow = 0L;
+        long firstColumnHigh = 0L;
+        long lastColumnLow = 0L;
+        long lastColumnHigh = 0L;
+        for (int row = 0; row < SIZE; row++) {
+            firstColumnLow |= lowBit(square(row, 0));
+            firstColumnHigh |= highBit(square(row, 0));
+            lastColumnLow |= lowBit(square(row, SIZE - 1));
+            lastColumnHigh |= highBit(square(row, SIZE - 1));
+        }
+        for (int d = 0; d < SHIFTS.length; d++) {
+            // A step right wraps onto the first column, a step left onto the last
+            int step = COLUMN_STEPS[d];
+            SHIFT_MASKS_LOW[d] = step > 0 ? ~firstColumnLow : step < 0 ? ~lastColumnLow : -1L;
+            SHIFT_MASKS_HIGH[d] = HIGH_SQUARES & (step > 0 ? ~firstColumnHigh : step < 0 ? ~lastColumnHigh : -1L);
+        }
+    }
+
+    private WideBitboards() {
+    }
+
+    /**
+     * Converts a row and column to a square index.
+     * @param row the row (0-9)
+     * @param col the column (0-9)
+     * @return the square index (0-99)
+     */
+    public static int square(int row, int col) {
+        return row * SIZE + col;
+    }
+
+    /**
+     * Gets the row of a square index.
+     * @param square the square index
+     * @return the row (0-9)
+     */
+    public static int row(int square) {
+        return square / SIZE;
+    }
+
+    /**
+     * Gets the column of a square index.
+     * @param square the square index
+     * @return the column (0-9)
+     */
+    public static int col(int square) {
+        return square % SIZE;
+    }
+
+    /**
+     * Gets a square's bit in the low word.
+     * @param square the square index
+     * @return the bit, or 0 if the square is in the high word
+     */
+    public static long lowBit(int square) {
+        return square < 64 ? 1L << square : 0L;
+    }
+
+    /**
+     * Gets a square's bit in the high word.
+     * @param square the square index
+     * @return the bit, or 0 if the square is in the low word
+     */
+    public static long highBit(int square) {
+        return square >= 64 ? 1L << (square - 64) : 0L;
+    }
+
+    /**
+     * Checks whether a two-word mask holds a square.
+     * @param low the low word
+     * @param high the high word
+     * @param square the square index
+     * @return true if the square's bit is set
+     */
+    public static boolean contains(long low, long high, int square) {
+        return ((low & lowBit(square)) | (high & highBit(square))) != 0;
+    }
+
+    /**
+     * Computes every legal move for a player.
+     * Each direction is filled one stone at a time, as a run of opponent stones can be
+     * up to eight long.
+     * @param playerLow the player's stones on squares 0-63
+     * @param playerHigh the player's stones on squares 64-99
+     * @param opponentLow the opponent's stones on squares 0-63
+     * @param opponentHigh the opponent's stones on squares 64-99
+     * @param moves receives the empty squares where the player may move, as [low, high]
+     */
+    public static void legalMoves(long playerLow, long playerHigh, long opponentLow, long opponentHigh,
+                                  long[] moves) {
+        long movesLow = 0L;
+        long movesHigh = 0L;
+        for (int d = 0; d < SHIFTS.length; d++) {
+            long runLow = shiftLow(playerLow, playerHigh, d) & opponentLow;
+            long runHigh = shiftHigh(playerLow, playerHigh, d) & opponentHigh;
+            for (int length = 2; length <= SIZE - 2; length++) {
+                long nextLow = shiftLow(runLow, runHigh, d) & opponentLow;
+                long nextHigh = shiftHigh(runLow, runHigh, d) & opponentHigh;
+                runLow |= nextLow;
+                runHigh |= nextHigh;
+            }
+            movesLow |= shiftLow(runLow, runHigh, d);
+            movesHigh |= shiftHigh(runLow, runHigh, d);
+        }
+        moves[0] = movesLow & ~(playerLow | opponentLow);
+        moves[1] = movesHigh & ~(playerHigh | opponentHigh);
+    }
+
+    /**
+     * Computes the stones flipped by placing a stone on a square.
+     * @param playerLow the player's stones on squares 0-63
+     * @param playerHigh the player's stones on squares 64-99
+     * @param opponentLow the opponent's stones on squares 0-63
+     * @param opponentHigh the opponent's stones on squares 64-99
+     * @param square the square index where the stone is placed
+     * @param flipped receives the opponent stones that would be flipped, as [low, high]
+     */
+    public static void flips(long playerLow, long playerHigh, long opponentLow, long opponentHigh, int square,
+                             long[] flipped) {
+        long flippedLow = 0L;
+        long flippedHigh = 0L;
+        long placedLow = lowBit(square);
+        long placedHigh = highBit(square);
+
+        for (int d = 0; d < SHIFTS.length; d++) {
+            long lineLow = 0L;
+            long lineHigh = 0L;
+            long cursorLow = shiftLow(placedLow, placedHigh, d);
+            long cursorHigh = shiftHigh(placedLow, placedHigh, d);
+
+            // Walk along the direction while finding opponent stones
+            while (((cursorLow & opponentLow) | (cursorHigh & opponentHigh)) != 0) {
+                lineLow |= cursorLow;
+                lineHigh |= cursorHigh;
+                long nextLow = shiftLow(cursorLow, cursorHigh, d);
+                cursorHigh = shiftHigh(cursorLow, cursorHigh, d);
+                cursorLow = nextLow;
+            }
+
+            // The run only flips if it ends on one of our own stones
+            if (((cursorLow & playerLow) | (cursorHigh & playerHigh)) != 0) {
+                flippedLow |= lineLow;
+                flippedHigh |= lineHigh;
+            }
+        }
+
+        flipped[0] = flippedLow;
+        flipped[1] = flippedHigh;
+    }
+
+    /**
+     * Gets the low word of a two-word mask shifted one step in a direction.
+     */
+    private static long shiftLow(long low, long high, int direction) {
+        int amount = SHIFTS[direction];
+        long shifted = amount > 0 ? low << amount : (low >>> -amount) | (high << (64 + amount));
+        return shifted & SHIFT_MASKS_LOW[direction];
+    }
+
+    /**
+     * Gets the high word of a two-word mask shifted one step in a direction.
+     */
+    private static long shiftHigh(long low, long high, int direction) {
+        int amount = SHIFTS[direction];
+        long shifted = amount > 0 ? (high << amount) | (low >>> (64 - amount)) : high >>> -amount;
+        return shifted & SHIFT_MASKS_HIGH[direction];
+    }
+}
@@ -0,0 +1,142 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the two-word 10x10 move generator and games on 10x10 boards.
+ */
+class WideBitboardsTest {
+
+    private static final int[][] DIRECTIONS = {
+        {-1, -1}, {-1, 0}, {-1, 1},
+        {0, -1},           {0, 1},
+        {1, -1},  {1, 0},  {1, 1}
+    };
+
+    private final long[] result = new long[2];
+
+    @Test
+    @DisplayName("Starting position has the four standard opening moves")
+    void testStartingMoves() {
+        long black = WideBitboards.lowBit(WideBitboards.square(4, 5)) | WideBitboards.lowBit(WideBitboards.square(5, 4));
+        long white = WideBitboards.lowBit(WideBitboards.square(4, 4)) | WideBitboards.lowBit(WideBitboards.square(5, 5));
+
+        WideBitboards.legalMoves(black, 0L, white, 0L, result);
+
+        long expectedLow = WideBitboards.lowBit(WideBitboards.square(3, 4)) | WideBitboards.lowBit(WideBitboards.square(4, 3))
+            | WideBitboards.lowBit(WideBitboards.square(5, 6));
+        assertEquals(expectedLow, result[0], "Moves on squares 0-63");
+        assertEquals(WideBitboards.highBit(WideBitboards.square(6, 5)), result[1], "Moves on squares 64-99");
+    }
+
+    @Test
+    @DisplayName("Moves do not wrap around the board edges")
+    void testNoWrapAround() {
+        // White on column 9 followed by black on column 0 of the next row is not a line
+        int white = WideBitboards.square(6, 9);
+        int black = WideBitboards.square(7, 0);
+
+        WideBitboards.legalMoves(0L, WideBitboards.highBit(black), 0L, WideBitboards.highBit(white), result);
+        assertArrayEquals(new long[]{0L, 0L}, result, "No move should wrap across rows");
+        WideBitboards.flips(0L, WideBitboards.highBit(black), 0L, WideBitboards.highBit(white),
+            WideBitboards.square(6, 8), result);
+        assertArrayEquals(new long[]{0L, 0L}, result, "No flips should wrap across rows");
+    }
+
+    @Test
+    @DisplayName("Lines carry across the boundary between the two words")
+    void testLinesAcrossWords() {
+        // Row 6 holds squares 60-69, so squares 63 and 64 are neighbors in different words
+        long black = WideBitboards.lowBit(62);
+        long white = WideBitboards.lowBit(63);
+        long whiteHigh = WideBitboards.highBit(64);
+
+        WideBitboards.flips(black, 0L, white, whiteHigh, 65, result);
+        assertArrayEquals(new long[]{white, whiteHigh}, result, "Playing 65 should flip 63 and 64");
+
+        WideBitboards.legalMoves(0L, WideBitboards.highBit(65), white, whiteHigh, result);
+        assertEquals(WideBitboards.lowBit(62), result[0], "A line should run from the high word into the low word");
+    }
+
+    @Test
+    @DisplayName("A line of eight opponent stones can be flipped")
+    void testLongestLine() {
+        long black = WideBitboards.lowBit(WideBitboards.square(0, 0));
+        long white = 0L;
+        for (int col = 1; col <= 8; col++) {
+            white |= WideBitboards.lowBit(WideBitboards.square(0, col));
+        }
+
+        WideBitboards.legalMoves(black, 0L, white, 0L, result);
+        assertEquals(WideBitboards.lowBit(WideBitboards.square(0, 9)), result[0]);
+        WideBitboards.flips(black, 0L, white, 0L, WideBitboards.square(0, 9), result);
+        assertEquals(white, result[0], "All eight stones should flip");
+    }
+
+    @Test
+    @DisplayName("10x10 games keep moves and flips in line with a square-by-square scan")
+    void testMatchesNaiveScan() {
+        Random random = new Random(10);
+
+        for (int game = 0; game < 20; game++) {
+            Board board = new Board(WideBitboards.SIZE);
+            assertEquals(WideBitboards.SQUARES - 4, board.countStones(Stone.EMPTY));
+
+            while (!board.isGameOver()) {
+                Stone player = board.getCurrentPlayer();
+                int moveCount = 0;
+                for (int row = 0; row < WideBitboards.SIZE; row++) {
+                    for (int col = 0; col < WideBitboards.SIZE; col++) {
+                        int naive = naiveFlips(board, row, col, player);
+                        assertEquals(naive > 0, board.isValidMove(row, col, player), "Move mismatch:\n" + board);
+                        assertEquals(naive, board.countFlips(row, col, player), "Flip count mismatch:\n" + board);
+                        moveCount += naive > 0 ? 1 : 0;
+                    }
+                }
+
+                List<int[]> moves = board.getValidMoves(player);
+                assertEquals(moveCount, moves.size());
+                int[] move = moves.get(random.nextInt(moves.size()));
+                List<int[]> flips = board.getStonesToFlip(move[0], move[1], player);
+                assertTrue(board.makeMove(move[0], move[1]));
+                for (int[] flipped : flips) {
+                    assertEquals(player, board.getStone(flipped[0], flipped[1]), "Stone should be flipped");
+                }
+            }
+            assertEquals(WideBitboards.SQUARES, board.countStones(Stone.BLACK) + board.countStones(Stone.WHITE)
+                + board.countStones(Stone.EMPTY));
+        }
+    }
+
+    /**
+     * Reference implementation that walks each direction one square at a time.
+     * @return the number of stones the move flips
+     */
+    private static int naiveFlips(Board board, int row, int col, Stone player) {
+        if (board.getStone(row, col) != Stone.EMPTY) {
+            return 0;
+        }
+
+        int flips = 0;
+        for (int[] direction : DIRECTIONS) {
+            int line = 0;
+            int r = row + direction[0];
+            int c = col + direction[1];
+
+            while (board.isValidPosition(r, c) && board.getStone(r, c) == player.opposite()) {
+                line++;
+                r += direction[0];
+                c += direction[1];
+            }
+
+            if (line > 0 && board.isValidPosition(r, c) && board.getStone(r, c) == player) {
+                flips += line;
+            }
+        }
+        return flips;
+    }
+}
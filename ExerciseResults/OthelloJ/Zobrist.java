@@ -0,0 +1,113 @@
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing of positions.
+ * A position's key is the XOR of one key per stone plus a key for White to move,
+ * so it can be updated incrementally as stones are placed and flipped.
+ */
+public final class Zobrist {
+
+    // Fixed seed so keys (and anything keyed by them) are stable between runs
+    private static final long SEED = 0x5DEECE66DL;
+
+    private static final long[] BLACK_KEYS = new long[WideBitboards.SQUARES];
+    private static final long[] WHITE_KEYS = new long[WideBitboards.SQUARES];
+    private static final long WHITE_TO_MOVE;
+    private static final long[] SIZE_KEYS = new long[WideBitboards.SIZE + 1];
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int square = 0; square < 64; square++) {
+            BLACK_KEYS[square] = random.nextLong();
+            WHITE_KEYS[square] = random.nextLong();
+        }
+        WHITE_TO_MOVE = random.nextLong();
+        // Drawn after the other keys so those stay the same; the standard size has none
+        for (int size = 0; size < Board.SIZE; size++) {
+            SIZE_KEYS[size] = random.nextLong();
+        }
+        // Keys only 10x10 boards use, drawn last for the same reason
+        for (int size = Board.SIZE + 1; size <= WideBitboards.SIZE; size++) {
+            SIZE_KEYS[size] = random.nextLong();
+        }
+        for (int square = 64; square < WideBitboards.SQUARES; square++) {
+            BLACK_KEYS[square] = random.nextLong();
+            WHITE_KEYS[square] = random.nextLong();
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Gets the key for a stone on a square.
+     * @param stone BLACK or WHITE
+     * @param square the square index
+     * @return the key
+     */
+    public static long stone(Stone stone, int square) {
+        return stone == Stone.BLACK ? BLACK_KEYS[square] : WHITE_KEYS[square];
+    }
+
+    /**
+     * Gets the key toggled when a stone on a square changes color.
+     * @param square the square index
+     * @return the combined key of both colors on that square
+     */
+    public static long flip(int square) {
+        return BLACK_KEYS[square] ^ WHITE_KEYS[square];
+    }
+
+    /**
+     * Gets the key toggled when the player to move changes.
+     * @return the side-to-move key
+     */
+    public static long sideToMove() {
+        return WHITE_TO_MOVE;
+    }
+
+    /**
+     * Gets the key of a board size, so positions on boards of different sizes differ.
+     * @param size the board size
+     * @return the key, 0 for the standard size
+     */
+    public static long boardSize(int size) {
+        return SIZE_KEYS[size];
+    }
+
+    /**
+     * Computes a position's key from scratch.
+     * @param black the black stones
+     * @param white the white stones
+     * @param toMove the player to move
+     * @return the key
+     */
+    public static long hash(long black, long white, Stone toMove) {
+        long key = toMove == Stone.WHITE ? WHITE_TO_MOVE : 0L;
+        for (long b = black; b != 0; b &= b - 1) {
+            key ^= BLACK_KEYS[Long.numberOfTrailingZeros(b)];
+        }
+        for (long w = white; w != 0; w &= w - 1) {
+            key ^= WHITE_KEYS[Long.numberOfTrailingZeros(w)];
+        }
+        return key;
+    }
+
+    /**
+     * Computes the keys of the stones on squares 64 and up, which a 10x10 board keeps
+     * in a second word per color (see {@link WideBitboards}).
+     * @param blackHigh the black stones on squares 64-99
+     * @param whiteHigh the white stones on squares 64-99
+     * @return the key of those stones, 0 if there are none
+     */
+    public static long hashHigh(long blackHigh, long whiteHigh) {
+        long key = 0L;
+        for (long b = blackHigh; b != 0; b &= b - 1) {
+            key ^= BLACK_KEYS[64 + Long.numberOfTrailingZeros(b)];
+        }
+        for (long w = whiteHigh; w != 0; w &= w - 1) {
+            key ^= WHITE_KEYS[64 + Long.numberOfTrailingZeros(w)];
+        }
+        return key;
+    }
+}
@@ -0,0 +1,72 @@
+package othello.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time for the AI to choose a move, cycling through a corpus of positions.
+ * The search cache is cleared before every call, so each search starts cold and
+ * does the same work; the endgame corpus is within reach of the exact solver.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AIPlayerBenchmark {
+
+    @Param({"BEGINNER", "INTERMEDIATE"})
+    public String difficulty;
+
+    @Param({"midgame", "endgame"})
+    public String stage;
+
+    private Object[] boards;
+    private Object[] players = new Object[2];
+    private int next;
+
+    @Setup
+    public void setUp() throws Throwable {
+        boards = Positions.corpus(stage);
+        Object level = Game.difficulty(difficulty);
+        players[0] = (Object) Game.NEW_AI_PLAYER.invokeExact(Game.BLACK, level, new Random(1));
+        players[1] = (Object) Game.NEW_AI_PLAYER.invokeExact(Game.WHITE, level, new Random(1));
+    }
+
+    @Setup(Level.Invocation)
+    public void clearCache() throws Throwable {
+        for (Object player : players) {
+            Game.CLEAR_SEARCH_CACHE.invokeExact(player);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Throwable {
+        for (Object player : players) {
+            Game.SHUTDOWN.invokeExact(player);
+        }
+    }
+
+    @Benchmark
+    public int[] chooseMove() throws Throwable {
+        Object board = boards[next];
+        next = (next + 1) % boards.length;
+        Object player = (Object) Game.GET_CURRENT_PLAYER.invokeExact(board);
+        return (int[]) Game.CHOOSE_MOVE.invokeExact(players[player == Game.BLACK ? 0 : 1], board);
+    }
+}
@@ -0,0 +1,106 @@
+package othello.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Board operations over a corpus of mid-game and end-game positions.
+ * Each benchmark call runs the operation once per corpus position, and scores are
+ * reported per position.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Param({"midgame", "endgame"})
+    public String stage;
+
+    private Object[] boards;
+    private Object[] players;
+    private int[] rows;
+    private int[] cols;
+
+    @Setup
+    public void setUp() throws Throwable {
+        boards = Positions.corpus(stage);
+        players = new Object[boards.length];
+        rows = new int[boards.length];
+        cols = new int[boards.length];
+        for (int i = 0; i < boards.length; i++) {
+            players[i] = (Object) Game.GET_CURRENT_PLAYER.invokeExact(boards[i]);
+            int move = Positions.firstMove(boards[i]);
+            rows[i] = move >>> 3;
+            cols[i] = move & 7;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Positions.COUNT)
+    public void getValidMoves(Blackhole blackhole) throws Throwable {
+        for (int i = 0; i < boards.length; i++) {
+            blackhole.consume((List<?>) Game.GET_VALID_MOVES.invokeExact(boards[i], players[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Positions.COUNT)
+    public void getStonesToFlip(Blackhole blackhole) throws Throwable {
+        for (int i = 0; i < boards.length; i++) {
+            blackhole.consume((List<?>) Game.GET_STONES_TO_FLIP.invokeExact(boards[i], rows[i], cols[i], players[i]));
+        }
+    }
+
+    /**
+     * Plays a legal move and takes it back, so every call sees the same positions.
+     */
+    @Benchmark
+    @OperationsPerInvocation(Positions.COUNT)
+    public void makeMove(Blackhole blackhole) throws Throwable {
+        for (int i = 0; i < boards.length; i++) {
+            blackhole.consume((boolean) Game.MAKE_MOVE.invokeExact(boards[i], rows[i], cols[i]));
+            Game.UNDO_MOVE.invokeExact(boards[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Positions.COUNT)
+    public void copyBoard(Blackhole blackhole) throws Throwable {
+        for (int i = 0; i < boards.length; i++) {
+            blackhole.consume((Object) Game.COPY_BOARD.invokeExact(boards[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Positions.COUNT)
+    public void countStones(Blackhole blackhole) throws Throwable {
+        for (int i = 0; i < boards.length; i++) {
+            blackhole.consume((int) Game.COUNT_STONES.invokeExact(boards[i], Game.BLACK));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Positions.COUNT)
+    public void isGameOver(Blackhole blackhole) throws Throwable {
+        for (int i = 0; i < boards.length; i++) {
+            blackhole.consume((boolean) Game.IS_GAME_OVER.invokeExact(boards[i]));
+        }
+    }
+}
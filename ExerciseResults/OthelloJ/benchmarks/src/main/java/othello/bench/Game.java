@@ -0,0 +1,110 @@
+package othello.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Random;
+
+/**
+ * Access to the game classes for the benchmarks.
+ * The game lives in the default package, which code in a named package cannot refer
+ * to, and JMH only accepts benchmarks in a named package. Calls therefore go through
+ * method handles held in static final fields, which the JIT treats as constants and
+ * inlines like direct calls, so they add no cost or allocation to the measurements.
+ */
+final class Game {
+
+    static final Class<?> BOARD = load("Board");
+    static final Class<?> STONE = load("Stone");
+    static final Class<?> AI_PLAYER = load("AIPlayer");
+    static final Class<?> DIFFICULTY = load("Difficulty");
+
+    static final Object BLACK = constant(STONE, "BLACK");
+    static final Object WHITE = constant(STONE, "WHITE");
+
+    // Board
+    static final MethodHandle NEW_BOARD = constructor(BOARD);
+    static final MethodHandle COPY_BOARD = constructor(BOARD, BOARD);
+    static final MethodHandle GET_CURRENT_PLAYER = method(BOARD, "getCurrentPlayer", STONE);
+    static final MethodHandle GET_VALID_MOVES = method(BOARD, "getValidMoves", java.util.List.class, STONE);
+    static final MethodHandle GET_VALID_MOVE_MASK = method(BOARD, "getValidMoveMask", long.class, STONE);
+    static final MethodHandle GET_STONES_TO_FLIP =
+        method(BOARD, "getStonesToFlip", java.util.List.class, int.class, int.class, STONE);
+    static final MethodHandle MAKE_MOVE = method(BOARD, "makeMove", boolean.class, int.class, int.class);
+    static final MethodHandle MAKE_MOVE_SQUARE = method(BOARD, "makeMove", long.class, int.class);
+    static final MethodHandle UNDO_MOVE = method(BOARD, "undoMove", void.class);
+    static final MethodHandle COUNT_STONES = method(BOARD, "countStones", int.class, STONE);
+    static final MethodHandle IS_GAME_OVER = method(BOARD, "isGameOver", boolean.class);
+
+    // AIPlayer
+    static final MethodHandle NEW_AI_PLAYER = constructor(AI_PLAYER, STONE, DIFFICULTY, Random.class);
+    static final MethodHandle CHOOSE_MOVE = method(AI_PLAYER, "chooseMove", int[].class, BOARD);
+    static final MethodHandle CLEAR_SEARCH_CACHE = method(AI_PLAYER, "clearSearchCache", void.class);
+    static final MethodHandle SHUTDOWN = method(AI_PLAYER, "shutdown", void.class);
+
+    private Game() {
+    }
+
+    /**
+     * Gets a difficulty level by name.
+     * @param name the enum constant name, e.g. "INTERMEDIATE"
+     * @return the difficulty
+     */
+    static Object difficulty(String name) {
+        return constant(DIFFICULTY, name);
+    }
+
+    private static Class<?> load(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Game class not on the class path: " + name, e);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object constant(Class<?> type, String name) {
+        return Enum.valueOf((Class<Enum>) type, name);
+    }
+
+    /**
+     * Finds a constructor, typed to return Object and take Object for game classes.
+     */
+    private static MethodHandle constructor(Class<?> type, Class<?>... parameters) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup()
+                .findConstructor(type, MethodType.methodType(void.class, parameters));
+            return handle.asType(erase(handle.type()));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Missing constructor on " + type.getName(), e);
+        }
+    }
+
+    /**
+     * Finds an instance method, typed to take Object for the receiver and game-class
+     * parameters and to return Object for game-class results.
+     */
+    private static MethodHandle method(Class<?> type, String name, Class<?> result, Class<?>... parameters) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup()
+                .findVirtual(type, name, MethodType.methodType(result, parameters));
+            return handle.asType(erase(handle.type()));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Missing method " + type.getName() + "." + name, e);
+        }
+    }
+
+    private static MethodType erase(MethodType type) {
+        MethodType erased = type;
+        for (int i = 0; i < type.parameterCount(); i++) {
+            if (isGameClass(type.parameterType(i))) {
+                erased = erased.changeParameterType(i, Object.class);
+            }
+        }
+        return isGameClass(type.returnType()) ? erased.changeReturnType(Object.class) : erased;
+    }
+
+    private static boolean isGameClass(Class<?> type) {
+        return !type.isPrimitive() && !type.isArray() && type.getPackageName().isEmpty();
+    }
+}
@@ -0,0 +1,78 @@
+package othello.bench;
+
+import java.util.Random;
+
+/**
+ * Fixed corpus of benchmark positions, made by seeded random play so every run
+ * measures the same boards.
+ */
+final class Positions {
+
+    /** Number of positions in each corpus. */
+    static final int COUNT = 16;
+
+    // Moves played before a position is taken: mid-game has about 40 empties left, end-game 14
+    private static final int MIDGAME_MOVES = 20;
+    private static final int ENDGAME_MOVES = 46;
+    private static final long SEED = 20240601L;
+
+    private Positions() {
+    }
+
+    /**
+     * Builds the corpus for a game stage.
+     * @param stage "midgame" or "endgame"
+     * @return COUNT boards, each with a move for the player to move
+     */
+    static Object[] corpus(String stage) throws Throwable {
+        int moves;
+        switch (stage) {
+            case "midgame": moves = MIDGAME_MOVES; break;
+            case "endgame": moves = ENDGAME_MOVES; break;
+            default: throw new IllegalArgumentException("Unknown stage: " + stage);
+        }
+
+        Random random = new Random(SEED);
+        Object[] boards = new Object[COUNT];
+        int found = 0;
+        while (found < COUNT) {
+            Object board = play(random, moves);
+            if (board != null) {
+                boards[found++] = board;
+            }
+        }
+        return boards;
+    }
+
+    /**
+     * Gets a legal move in a position, the same one every time.
+     * @param board the position
+     * @return the lowest legal square for the player to move
+     */
+    static int firstMove(Object board) throws Throwable {
+        Object player = (Object) Game.GET_CURRENT_PLAYER.invokeExact(board);
+        return Long.numberOfTrailingZeros((long) Game.GET_VALID_MOVE_MASK.invokeExact(board, player));
+    }
+
+    /**
+     * Plays random moves from the start, returning null if the game ends first.
+     */
+    private static Object play(Random random, int moves) throws Throwable {
+        Object board = (Object) Game.NEW_BOARD.invokeExact();
+        for (int i = 0; i < moves; i++) {
+            if ((boolean) Game.IS_GAME_OVER.invokeExact(board)) {
+                return null;
+            }
+            Object player = (Object) Game.GET_CURRENT_PLAYER.invokeExact(board);
+            long valid = (long) Game.GET_VALID_MOVE_MASK.invokeExact(board, player);
+            for (int skip = random.nextInt(Long.bitCount(valid)); skip > 0; skip--) {
+                valid &= valid - 1;
+            }
+            // invoke (not invokeExact) so the flip mask can be dropped
+            Game.MAKE_MOVE_SQUARE.invoke(board, Long.numberOfTrailingZeros(valid));
+        }
+        boolean over = (boolean) Game.IS_GAME_OVER.invokeExact(board);
+        // A copy drops the move history, so make/undo benchmarks start from an empty stack
+        return over ? null : (Object) Game.COPY_BOARD.invokeExact(board);
+    }
+}